@@ -0,0 +1,46 @@
+package ee.tenman.automaks.benchmark;
+
+import ee.tenman.automaks.dto.CarDetails;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@NoArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+final class BenchmarkCars {
+
+    static final CarDetails CO2_BASED = CarDetails.builder()
+            .co2Emissions(new BigDecimal("188.0"))
+            .fullMass(2250)
+            .carType(CarDetails.CarType.M1)
+            .year(LocalDate.now().getYear() - 7)
+            .electric(false)
+            .co2Type(CarDetails.CO2Type.WLTP)
+            .build();
+
+    static final CarDetails NEDC = CarDetails.builder()
+            .co2Emissions(new BigDecimal("221.5"))
+            .fullMass(2850)
+            .carType(CarDetails.CarType.M1)
+            .year(LocalDate.now().getYear() - 12)
+            .electric(false)
+            .co2Type(CarDetails.CO2Type.NEDC)
+            .build();
+
+    static final CarDetails DISPLACEMENT_AND_POWER_BASED = CarDetails.builder()
+            .fullMass(2250)
+            .carType(CarDetails.CarType.M1)
+            .year(LocalDate.now().getYear() - 3)
+            .electric(false)
+            .engineCapacity(1995)
+            .enginePower(150)
+            .build();
+
+    static final CarDetails ELECTRIC = CarDetails.builder()
+            .co2Emissions(BigDecimal.ZERO)
+            .fullMass(2880)
+            .carType(CarDetails.CarType.M1)
+            .year(LocalDate.now().getYear() - 1)
+            .electric(true)
+            .build();
+}
@@ -0,0 +1,90 @@
+package ee.tenman.automaks.benchmark;
+
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.CarDetailsValidator;
+import ee.tenman.automaks.dto.CompiledCarDetailsValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CarDetailsValidatorBenchmark {
+
+    private static final CarDetails MISSING_CO2_TYPE = CarDetails.builder()
+            .co2Emissions(BenchmarkCars.CO2_BASED.getCo2Emissions())
+            .fullMass(2000)
+            .carType(CarDetails.CarType.M1)
+            .year(2019)
+            .build();
+
+    private final CarDetailsValidator carDetailsValidator = new CarDetailsValidator();
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean isValidCo2Based() {
+        return carDetailsValidator.isValid(BenchmarkCars.CO2_BASED, null);
+    }
+
+    @Benchmark
+    public boolean isValidDisplacementAndPowerBased() {
+        return carDetailsValidator.isValid(BenchmarkCars.DISPLACEMENT_AND_POWER_BASED, null);
+    }
+
+    @Benchmark
+    public boolean isValidElectric() {
+        return carDetailsValidator.isValid(BenchmarkCars.ELECTRIC, null);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CarDetails>> beanValidationValid() {
+        return validator.validate(BenchmarkCars.CO2_BASED);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CarDetails>> beanValidationInvalid() {
+        return validator.validate(MISSING_CO2_TYPE);
+    }
+
+    @Benchmark
+    public Map<String, String> compiledValid() {
+        return CompiledCarDetailsValidator.validate(BenchmarkCars.CO2_BASED);
+    }
+
+    @Benchmark
+    public Map<String, String> compiledInvalid() {
+        return CompiledCarDetailsValidator.validate(MISSING_CO2_TYPE);
+    }
+}
@@ -0,0 +1,96 @@
+package ee.tenman.automaks.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.TaxResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON against CBOR for the request and response bodies. That the CBOR response is the smaller one is checked over
+ * {@code /tax/calculate} by {@code TaxCalculationControllerIntegrationTest}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonBenchmark {
+
+    private static final TaxResponse TAX_RESPONSE = new TaxResponse(new BigDecimal("5485"), new BigDecimal("382"));
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper cborMapper;
+    private byte[] carDetailsJson;
+    private byte[] taxResponseJson;
+    private byte[] carDetailsCbor;
+    private byte[] taxResponseCbor;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .build();
+        carDetailsJson = objectMapper.writeValueAsBytes(BenchmarkCars.CO2_BASED);
+        taxResponseJson = objectMapper.writeValueAsBytes(TAX_RESPONSE);
+        cborMapper = objectMapper.copyWith(new CBORFactory());
+        carDetailsCbor = cborMapper.writeValueAsBytes(BenchmarkCars.CO2_BASED);
+        taxResponseCbor = cborMapper.writeValueAsBytes(TAX_RESPONSE);
+    }
+
+    @Benchmark
+    public byte[] serializeCarDetails() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(BenchmarkCars.CO2_BASED);
+    }
+
+    @Benchmark
+    public CarDetails deserializeCarDetails() throws Exception {
+        return objectMapper.readValue(carDetailsJson, CarDetails.class);
+    }
+
+    @Benchmark
+    public byte[] serializeTaxResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(TAX_RESPONSE);
+    }
+
+    @Benchmark
+    public TaxResponse deserializeTaxResponse() throws Exception {
+        return objectMapper.readValue(taxResponseJson, TaxResponse.class);
+    }
+
+    @Benchmark
+    public byte[] serializeCarDetailsCbor() throws JsonProcessingException {
+        return cborMapper.writeValueAsBytes(BenchmarkCars.CO2_BASED);
+    }
+
+    @Benchmark
+    public CarDetails deserializeCarDetailsCbor() throws Exception {
+        return cborMapper.readValue(carDetailsCbor, CarDetails.class);
+    }
+
+    @Benchmark
+    public byte[] serializeTaxResponseCbor() throws JsonProcessingException {
+        return cborMapper.writeValueAsBytes(TAX_RESPONSE);
+    }
+
+    @Benchmark
+    public TaxResponse deserializeTaxResponseCbor() throws Exception {
+        return cborMapper.readValue(taxResponseCbor, TaxResponse.class);
+    }
+}
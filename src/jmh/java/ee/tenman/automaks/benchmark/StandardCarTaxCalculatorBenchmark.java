@@ -0,0 +1,98 @@
+package ee.tenman.automaks.benchmark;
+
+import ee.tenman.automaks.config.TaxClockConfiguration;
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.service.ActiveTaxRules;
+import ee.tenman.automaks.service.FixedPointCarTaxCalculator;
+import ee.tenman.automaks.service.PrecomputedTaxTables;
+import ee.tenman.automaks.service.StandardCarTaxCalculator;
+import ee.tenman.automaks.service.TaxCalculator;
+import ee.tenman.automaks.service.TaxContext;
+import ee.tenman.automaks.service.TaxContextProvider;
+import ee.tenman.automaks.service.TaxRuleSets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StandardCarTaxCalculatorBenchmark {
+
+    @Param({"big-decimal", "fixed-point", "table"})
+    private String engine;
+
+    private TaxCalculator calculator;
+    private TaxContext context;
+
+    @Setup
+    public void setUp() throws IOException {
+        ActiveTaxRules activeTaxRules = new ActiveTaxRules(TaxRuleSets.builtIn());
+        calculator = switch (engine) {
+            case "fixed-point" -> new FixedPointCarTaxCalculator();
+            case "table" -> new StandardCarTaxCalculator(new PrecomputedTaxTables(taxTable().toString(), activeTaxRules));
+            default -> new StandardCarTaxCalculator();
+        };
+        context = new TaxContextProvider(Clock.system(TaxClockConfiguration.TAX_ZONE), activeTaxRules).current();
+    }
+
+    private static Path taxTable() throws IOException {
+        Path file = Files.createTempFile("tax-table", ".bin");
+        file.toFile().deleteOnExit();
+        PrecomputedTaxTables.write(file, TaxRuleSets.builtIn());
+        return file;
+    }
+
+    @Benchmark
+    public void co2Based(Blackhole blackhole) {
+        calculate(BenchmarkCars.CO2_BASED, blackhole);
+    }
+
+    @Benchmark
+    public void nedc(Blackhole blackhole) {
+        calculate(BenchmarkCars.NEDC, blackhole);
+    }
+
+    @Benchmark
+    public void displacementAndPowerBased(Blackhole blackhole) {
+        calculate(BenchmarkCars.DISPLACEMENT_AND_POWER_BASED, blackhole);
+    }
+
+    @Benchmark
+    public void electric(Blackhole blackhole) {
+        calculate(BenchmarkCars.ELECTRIC, blackhole);
+    }
+
+    @Benchmark
+    public void co2BasedSinglePass(Blackhole blackhole) {
+        blackhole.consume(calculator.calculate(BenchmarkCars.CO2_BASED, context, false));
+    }
+
+    @Benchmark
+    public void co2BasedBreakdown(Blackhole blackhole) {
+        blackhole.consume(calculator.calculate(BenchmarkCars.CO2_BASED, context, true));
+    }
+
+    private void calculate(CarDetails carDetails, Blackhole blackhole) {
+        blackhole.consume(calculator.calculateRegistrationTax(carDetails, context));
+        blackhole.consume(calculator.calculateAnnualTax(carDetails, context));
+    }
+}
@@ -0,0 +1,65 @@
+package ee.tenman.automaks.benchmark;
+
+import ee.tenman.automaks.AutomaksApplication;
+import ee.tenman.automaks.dto.TaxResponse;
+import ee.tenman.automaks.service.TaxCalculationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaxCalculationServiceBenchmark {
+
+    @Param({"big-decimal", "fixed-point"})
+    private String engine;
+
+    private ConfigurableApplicationContext context;
+    private TaxCalculationService taxCalculationService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AutomaksApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--automaks.calculation.engine=" + engine,
+                        "--spring.devtools.restart.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--spring.main.log-startup-info=false",
+                        "--logging.level.root=warn");
+        taxCalculationService = context.getBean(TaxCalculationService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TaxResponse co2Based() {
+        return taxCalculationService.calculateTax(BenchmarkCars.CO2_BASED).block();
+    }
+
+    @Benchmark
+    public TaxResponse displacementAndPowerBased() {
+        return taxCalculationService.calculateTax(BenchmarkCars.DISPLACEMENT_AND_POWER_BASED).block();
+    }
+}
@@ -0,0 +1,38 @@
+package ee.tenman.automaks.benchmark;
+
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.service.StandardCarTaxCalculator;
+import ee.tenman.automaks.service.TaxCalculator;
+import ee.tenman.automaks.service.TaxCalculatorRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaxCalculatorRegistryBenchmark {
+
+    private final TaxCalculatorRegistry taxCalculatorRegistry = new TaxCalculatorRegistry(List.of(new StandardCarTaxCalculator()));
+
+    @Param({"M1", "M1G"})
+    private CarDetails.CarType carType;
+
+    @Benchmark
+    public TaxCalculator getTaxCalculator() {
+        return taxCalculatorRegistry.getTaxCalculator(carType);
+    }
+}
@@ -0,0 +1,217 @@
+package ee.tenman.automaks.loadtest;
+
+import ee.tenman.automaks.AutomaksApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load test of {@code POST /tax/calculate}: requests are sent at a fixed arrival rate whether or not earlier
+ * ones have returned, each on its own virtual thread. Latency is measured from the time a request was scheduled to be
+ * sent, not from when it actually went out, so a stalled server or a late generator shows up in the percentiles
+ * instead of thinning out the samples (coordinated omission). Requests sent during the warmup are not recorded.
+ * <p>
+ * Every measured request is recorded, whatever its outcome: an error response with the time it took, and a timeout or
+ * connection failure with the time it waited, so the slowest requests cannot drop out of the upper percentiles. The
+ * latencies go to an HdrHistogram interval log ({@code tax-calculate.hlog}, one interval per second) and a
+ * percentile distribution ({@code tax-calculate.hgrm}, in milliseconds) in the output directory. The process exits with
+ * status 1 if a latency budget or the error budget is exceeded. Run with {@code mvn -Ploadtest test-compile exec:exec}.
+ */
+@Slf4j
+public class LoadTest {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final LoadTestSettings settings;
+    private final URI uri;
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final LongAdder sent = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    LoadTest(LoadTestSettings settings, URI uri) {
+        this.settings = settings;
+        this.uri = uri;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        List<String> violations;
+        ConfigurableApplicationContext context = settings.url() == null ? start(settings) : null;
+        try {
+            URI base = context == null ? settings.url()
+                    : URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            violations = new LoadTest(settings, base.resolve("/tax/calculate")).run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        if (!violations.isEmpty()) {
+            violations.forEach(violation -> log.error("SLO exceeded: {}", violation));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the warmup and the measured period and returns the budgets that were exceeded.
+     */
+    List<String> run() throws IOException, InterruptedException {
+        List<HttpRequest> requests = LoadTestCars.bodies(settings.cars(), settings.seed()).stream()
+                .map(body -> HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .timeout(settings.timeout())
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build())
+                .toList();
+        Files.createDirectories(settings.output());
+        Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        log.info("Sending {} requests/s to {} for {} after {} warmup", settings.rate(), uri, settings.duration(), settings.warmup());
+
+        try (HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+             PrintStream intervalLog = new PrintStream(Files.newOutputStream(settings.output().resolve("tax-calculate.hlog")))) {
+            HistogramLogWriter logWriter = new HistogramLogWriter(intervalLog);
+            long startMillis = System.currentTimeMillis();
+            long start = System.nanoTime();
+            long measuredFrom = start + settings.warmup().toNanos();
+            long end = measuredFrom + settings.duration().toNanos();
+            logWriter.outputLogFormatVersion();
+            logWriter.outputStartTime(startMillis);
+            logWriter.setBaseTime(startMillis);
+            logWriter.outputLegend();
+
+            Thread intervals = Thread.ofPlatform().daemon().name("load-test-intervals").start(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        Thread.sleep(Duration.ofSeconds(1));
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    writeInterval(logWriter, total);
+                }
+            });
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (long i = 0; ; i++) {
+                    long intended = start + Math.round(i * 1e9 / settings.rate());
+                    if (intended >= end) {
+                        break;
+                    }
+                    waitUntil(intended);
+                    HttpRequest request = requests.get((int) (i % requests.size()));
+                    boolean measured = intended >= measuredFrom;
+                    executor.execute(() -> send(httpClient, request, intended, measured));
+                }
+            }
+            intervals.interrupt();
+            intervals.join();
+            writeInterval(logWriter, total);
+        }
+
+        try (PrintStream distribution = new PrintStream(Files.newOutputStream(settings.output().resolve("tax-calculate.hgrm")))) {
+            total.outputPercentileDistribution(distribution, (double) NANOS_PER_MILLI);
+        }
+        return report(total);
+    }
+
+    private void send(HttpClient httpClient, HttpRequest request, long intended, boolean measured) {
+        String error;
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            error = response.statusCode() == 200 ? null : "HTTP " + response.statusCode();
+        } catch (IOException e) {
+            error = e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "interrupted";
+        }
+        if (measured) {
+            recorder.recordValue(System.nanoTime() - intended);
+            sent.increment();
+            if (error != null) {
+                errors.computeIfAbsent(error, key -> new LongAdder()).increment();
+            }
+        }
+    }
+
+    private synchronized void writeInterval(HistogramLogWriter logWriter, Histogram total) {
+        Histogram interval = recorder.getIntervalHistogram();
+        if (interval.getTotalCount() > 0) {
+            logWriter.outputIntervalHistogram(interval);
+            total.add(interval);
+        }
+    }
+
+    private List<String> report(Histogram total) {
+        long requests = sent.sum();
+        long failed = errors.values().stream().mapToLong(LongAdder::sum).sum();
+        double errorRate = requests == 0 ? 1 : (double) failed / requests;
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((error, count) -> errorCounts.put(error, count.sum()));
+        log.info("{} requests at {}/s offered, {}/s answered with 200; errors {} ({}%)", requests, settings.rate(),
+                String.format("%.1f", (requests - failed) / (double) settings.duration().toSeconds()),
+                errorCounts, String.format("%.3f", errorRate * 100));
+        log.info("Latency ms: p50 {} p90 {} p99 {} p99.9 {} max {}; histograms in {}", millis(total, 50),
+                millis(total, 90), millis(total, 99), millis(total, 99.9), millis(total, 100), settings.output().toAbsolutePath());
+
+        List<String> violations = new ArrayList<>();
+        budget(violations, total, "p50", 50, settings.sloP50());
+        budget(violations, total, "p99", 99, settings.sloP99());
+        budget(violations, total, "p99.9", 99.9, settings.sloP999());
+        if (errorRate > settings.maxErrorRate()) {
+            violations.add(String.format("error rate %.3f%% > budget %.3f%%", errorRate * 100, settings.maxErrorRate() * 100));
+        }
+        return violations;
+    }
+
+    private static void budget(List<String> violations, Histogram total, String name, double percentile, Duration budget) {
+        long value = total.getValueAtPercentile(percentile);
+        if (total.getTotalCount() == 0 || value > budget.toNanos()) {
+            violations.add(String.format("%s %s ms > budget %d ms", name, millis(total, percentile), budget.toMillis()));
+        }
+    }
+
+    private static String millis(Histogram histogram, double percentile) {
+        return String.format("%.2f", histogram.getValueAtPercentile(percentile) / (double) NANOS_PER_MILLI);
+    }
+
+    private static void waitUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(LoadTestSettings settings) {
+        // read by devtools before the command line, which would otherwise restart main() with the application arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(AutomaksApplication.class)
+                .run(
+                        "--spring.main.web-application-type=" + settings.webApplicationType(),
+                        "--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=warn",
+                        "--logging.level.ee.tenman.automaks.loadtest=info");
+    }
+}
@@ -0,0 +1,47 @@
+package ee.tenman.automaks.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.tenman.automaks.dto.CarDetails;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Request bodies for {@code POST /tax/calculate} in the proportions seen in production: 35% WLTP, 25% NEDC, 20% electric
+ * and 20% priced from displacement and power, with mass, age and emissions spread over their usual ranges. The pool is
+ * larger than the default response cache, so the run measures calculations and not only cache hits.
+ */
+@NoArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+final class LoadTestCars {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    static List<byte[]> bodies(int count, long seed) throws JsonProcessingException {
+        Random random = new Random(seed);
+        int currentYear = LocalDate.now().getYear();
+        List<byte[]> bodies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CarDetails.CarDetailsBuilder car = CarDetails.builder()
+                    .carType(random.nextInt(20) == 0 ? CarDetails.CarType.M1G : CarDetails.CarType.M1)
+                    .year(currentYear - random.nextInt(21))
+                    .fullMass(1200 + random.nextInt(2300));
+            int shape = random.nextInt(100);
+            if (shape < 35) {
+                car.co2Type(CarDetails.CO2Type.WLTP).co2Emissions(BigDecimal.valueOf(900 + random.nextInt(2200), 1));
+            } else if (shape < 60) {
+                car.co2Type(CarDetails.CO2Type.NEDC).co2Emissions(BigDecimal.valueOf(800 + random.nextInt(1900), 1));
+            } else if (shape < 80) {
+                car.electric(true).co2Emissions(BigDecimal.ZERO);
+            } else {
+                car.engineCapacity(998 + random.nextInt(3000)).enginePower(50 + random.nextInt(250));
+            }
+            bodies.add(OBJECT_MAPPER.writeValueAsBytes(car.build()));
+        }
+        return bodies;
+    }
+}
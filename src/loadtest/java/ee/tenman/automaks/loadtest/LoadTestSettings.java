@@ -0,0 +1,66 @@
+package ee.tenman.automaks.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Options of a {@link LoadTest} run, given as {@code --name=value} arguments. Durations take the same forms as Spring
+ * properties ({@code 30s}, {@code 250ms}). Without {@code --url} the application is started in-process on a random port.
+ */
+record LoadTestSettings(
+        double rate,
+        Duration warmup,
+        Duration duration,
+        Duration timeout,
+        int cars,
+        long seed,
+        URI url,
+        String webApplicationType,
+        Path output,
+        Duration sloP50,
+        Duration sloP99,
+        Duration sloP999,
+        double maxErrorRate) {
+
+    private static final Set<String> NAMES = Set.of("rate", "warmup", "duration", "timeout", "cars", "seed", "url",
+            "web-application-type", "output", "slo.p50", "slo.p99", "slo.p99.9", "max-error-rate");
+
+    static LoadTestSettings parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0 || !NAMES.contains(arg.substring(2, separator))) {
+                throw new IllegalArgumentException("Unknown argument " + arg + ", expected --name=value with name in " + NAMES);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        LoadTestSettings settings = new LoadTestSettings(
+                Double.parseDouble(values.getOrDefault("rate", "100")),
+                duration(values, "warmup", "15s"),
+                duration(values, "duration", "60s"),
+                duration(values, "timeout", "10s"),
+                Integer.parseInt(values.getOrDefault("cars", "50000")),
+                Long.parseLong(values.getOrDefault("seed", "1")),
+                values.getOrDefault("url", "").isBlank() ? null : URI.create(values.get("url")),
+                values.getOrDefault("web-application-type", "servlet"),
+                Path.of(values.getOrDefault("output", "target/loadtest")),
+                duration(values, "slo.p50", "25ms"),
+                duration(values, "slo.p99", "150ms"),
+                duration(values, "slo.p99.9", "400ms"),
+                Double.parseDouble(values.getOrDefault("max-error-rate", "0.001")));
+        if (!(settings.rate > 0) || settings.duration.isZero() || settings.cars < 1) {
+            throw new IllegalArgumentException("rate, duration and cars must be positive: " + settings);
+        }
+        return settings;
+    }
+
+    private static Duration duration(Map<String, String> values, String name, String defaultValue) {
+        return DurationStyle.detectAndParse(values.getOrDefault(name, defaultValue));
+    }
+}
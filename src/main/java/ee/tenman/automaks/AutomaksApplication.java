@@ -1,11 +1,14 @@
 package ee.tenman.automaks;
 
+import ee.tenman.automaks.config.AutomaksRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
 @EnableAspectJAutoProxy
+@ImportRuntimeHints(AutomaksRuntimeHints.class)
 public class AutomaksApplication {
 
     public static void main(String[] args) {
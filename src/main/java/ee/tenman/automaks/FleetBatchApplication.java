@@ -0,0 +1,39 @@
+package ee.tenman.automaks;
+
+import ee.tenman.automaks.fleet.FleetFileProcessor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Offline entry point that prices a fleet CSV without the web stack:
+ * {@code FleetBatchApplication <input.csv> <output.csv> [rejects.csv] [--spring.property=value ...]}.
+ */
+@Slf4j
+public class FleetBatchApplication {
+
+    private static final String REJECTS_SUFFIX = ".rejects.csv";
+
+    public static void main(String[] args) throws IOException {
+        List<String> files = Arrays.stream(args).filter(arg -> !arg.startsWith("--")).toList();
+        if (files.size() < 2 || files.size() > 3) {
+            log.error("Usage: FleetBatchApplication <input.csv> <output.csv> [rejects.csv]");
+            System.exit(2);
+        }
+        Path input = Path.of(files.get(0));
+        Path output = Path.of(files.get(1));
+        Path rejects = files.size() == 3 ? Path.of(files.get(2)) : Path.of(files.get(1) + REJECTS_SUFFIX);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AutomaksApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            context.getBean(FleetFileProcessor.class).process(input, output, rejects);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ee.tenman.automaks;
+
+import ee.tenman.automaks.service.PrecomputedTaxTables;
+import ee.tenman.automaks.service.TaxRuleSets;
+import ee.tenman.automaks.service.TaxRulesLoader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Offline entry point that precomputes the M1 tax table for a rule set file, or for the rules in the jar:
+ * {@code TaxTableGenerator <output.bin> [tax-rules.yaml]}. Point {@code automaks.tax-table.location} at the output and
+ * regenerate it whenever the rules change.
+ */
+@Slf4j
+public class TaxTableGenerator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            log.error("Usage: TaxTableGenerator <output.bin> [tax-rules.yaml]");
+            System.exit(2);
+        }
+        Path output = Path.of(args[0]);
+        TaxRuleSets ruleSets = args.length == 2 ? TaxRulesLoader.load(Path.of(args[1])) : TaxRuleSets.builtIn();
+
+        long start = System.nanoTime();
+        PrecomputedTaxTables.write(output, ruleSets);
+        log.info("Wrote tax table for rule set version {} to {} in {} ms",
+                ruleSets.version(), output, (System.nanoTime() - start) / 1_000_000);
+    }
+}
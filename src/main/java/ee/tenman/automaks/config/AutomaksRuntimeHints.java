@@ -0,0 +1,40 @@
+package ee.tenman.automaks.config;
+
+import ee.tenman.automaks.dto.BatchTaxResponse;
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.CarDetailsValidator;
+import ee.tenman.automaks.dto.FleetTaxSummary;
+import ee.tenman.automaks.dto.TaxBreakdown;
+import ee.tenman.automaks.dto.TaxProjection;
+import ee.tenman.automaks.dto.TaxResponse;
+import ee.tenman.automaks.service.TaxRules;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Reflection and resource hints for what Spring AOT cannot see from the bean definitions: bodies of the functional
+ * routes and of error responses, the Hibernate Validator constraint that builds {@link CarDetailsValidator}
+ * reflectively, and the tax rule file with the types it is read into.
+ */
+public class AutomaksRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final String TAX_RULES_DOCUMENT = "ee.tenman.automaks.service.TaxRulesLoader$Document";
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                CarDetails.class, TaxResponse.class, BatchTaxResponse.class, TaxProjection.class, TaxBreakdown.class,
+                FleetTaxSummary.class,
+                GlobalExceptionHandler.ApiError.class, TaxRules.class);
+        hints.reflection().registerType(TypeReference.of(TAX_RULES_DOCUMENT),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS,
+                MemberCategory.DECLARED_FIELDS);
+        hints.reflection().registerType(CarDetailsValidator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("tax-rules.yaml");
+    }
+}
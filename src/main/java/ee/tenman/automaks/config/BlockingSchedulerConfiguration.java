@@ -0,0 +1,33 @@
+package ee.tenman.automaks.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Scheduler for blocking work inside reactive pipelines (request body reads, future cache or audit I/O). Follows
+ * {@code spring.threads.virtual.enabled} so that blocking calls park a virtual thread instead of pinning one of the
+ * bounded elastic platform threads.
+ */
+@Configuration
+public class BlockingSchedulerConfiguration {
+
+    public static final String BLOCKING_SCHEDULER = "blockingScheduler";
+
+    @Bean(name = BLOCKING_SCHEDULER, destroyMethod = "dispose")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Scheduler virtualThreadScheduler() {
+        return Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), BLOCKING_SCHEDULER);
+    }
+
+    @Bean(name = BLOCKING_SCHEDULER)
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Scheduler boundedElasticScheduler() {
+        return Schedulers.boundedElastic();
+    }
+}
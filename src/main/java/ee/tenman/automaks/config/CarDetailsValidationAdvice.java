@@ -0,0 +1,40 @@
+package ee.tenman.automaks.config;
+
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.service.CarDetailsValidationService;
+import ee.tenman.automaks.service.TaxCalculationMetrics;
+import jakarta.annotation.Resource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Validates a {@link CarDetails} request body as soon as it is read, in place of {@code @Valid}, so the servlet
+ * endpoints go through {@link CarDetailsValidationService} like the functional routes and the batch paths do.
+ * Invalid bodies are rejected before the handler method, and its {@code @Loggable} aspect, is invoked.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CarDetailsValidationAdvice extends RequestBodyAdviceAdapter {
+
+    @Resource
+    private CarDetailsValidationService carDetailsValidationService;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return methodParameter.getParameterType() == CarDetails.class;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        carDetailsValidationService.requireValid((CarDetails) body, TaxCalculationMetrics.SOURCE_REQUEST);
+        return body;
+    }
+}
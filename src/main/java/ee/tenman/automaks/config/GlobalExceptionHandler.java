@@ -1,57 +1,151 @@
 package ee.tenman.automaks.config;
 
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.service.InvalidCarDetailsException;
+import ee.tenman.automaks.service.TaxCalculationMetrics;
+import ee.tenman.automaks.service.UnsupportedCarTypeException;
+import jakarta.annotation.Resource;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.ToString;
+import org.springframework.context.MessageSourceResolvable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
+import org.springframework.validation.method.ParameterErrors;
+import org.springframework.validation.method.ParameterValidationResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import reactor.core.publisher.Mono;
 
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Map<CarDetails.CarType, ResponseEntity<ApiError>> UNSUPPORTED_CAR_TYPE_RESPONSES =
+            new EnumMap<>(CarDetails.CarType.class);
+
+    static {
+        for (CarDetails.CarType carType : CarDetails.CarType.values()) {
+            ApiError apiError = ApiError.builder()
+                    .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .message(new UnsupportedCarTypeException(carType).getMessage())
+                    .debugMessage("No tax calculator is available for this car type")
+                    .build();
+            UNSUPPORTED_CAR_TYPE_RESPONSES.put(carType, new ResponseEntity<>(apiError, apiError.getStatus()));
+        }
+    }
+
+    @Resource
+    private TaxCalculationMetrics taxCalculationMetrics;
+
     @ExceptionHandler(WebExchangeBindException.class)
     public Mono<ResponseEntity<ApiError>> handleWebExchangeBindException(WebExchangeBindException exception) {
-        Map<String, String> errors = exception.getBindingResult().getFieldErrors().stream()
-                .collect(Collectors.toMap(
-                        FieldError::getField,
-                        fieldError -> fieldError.getDefaultMessage() != null ? fieldError.getDefaultMessage() : "Invalid value"
-                ));
+        Map<String, String> errors = fieldErrors(exception.getBindingResult().getFieldErrors());
+        taxCalculationMetrics.recordValidationFailures(errors.keySet(), TaxCalculationMetrics.SOURCE_REQUEST);
 
-        ApiError apiError = ApiError.builder()
-                .status(HttpStatus.BAD_REQUEST)
-                .message("Validation error")
-                .debugMessage("One or more fields have an error")
-                .validationErrors(errors)
-                .build();
+        ApiError apiError = validationError(errors);
 
         return Mono.just(new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST));
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiError> handleValidationExceptions(MethodArgumentNotValidException exception) {
-        Map<String, String> errors = exception.getBindingResult().getFieldErrors().stream()
-                .collect(Collectors.toMap(
-                        FieldError::getField,
-                        fieldError -> fieldError.getDefaultMessage() != null ? fieldError.getDefaultMessage() : "Invalid value"
-                ));
+        Map<String, String> errors = fieldErrors(exception.getBindingResult().getFieldErrors());
+        taxCalculationMetrics.recordValidationFailures(errors.keySet(), TaxCalculationMetrics.SOURCE_REQUEST);
 
-        ApiError apiError = ApiError.builder()
+        ApiError apiError = validationError(errors);
+
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+
+    /**
+     * Raised instead of {@link MethodArgumentNotValidException} when a handler also constrains plain parameters, in
+     * which case the request body is validated together with them.
+     */
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ApiError> handleHandlerMethodValidationException(HandlerMethodValidationException exception) {
+        Map<String, String> errors = new HashMap<>();
+        for (ParameterValidationResult result : exception.getAllValidationResults()) {
+            if (result instanceof ParameterErrors parameterErrors) {
+                parameterErrors.getFieldErrors().forEach(fieldError -> errors.putIfAbsent(fieldError.getField(), message(fieldError)));
+            } else {
+                String parameterName = result.getMethodParameter().getParameterName();
+                result.getResolvableErrors().forEach(error -> errors.putIfAbsent(parameterName, message(error)));
+            }
+        }
+        taxCalculationMetrics.recordValidationFailures(errors.keySet(), TaxCalculationMetrics.SOURCE_REQUEST);
+
+        ApiError apiError = validationError(errors);
+
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+
+    /**
+     * Raised by {@link CarDetailsValidationAdvice}; the failures are already counted by the validation service.
+     */
+    @ExceptionHandler(InvalidCarDetailsException.class)
+    public ResponseEntity<ApiError> handleInvalidCarDetailsException(InvalidCarDetailsException exception) {
+        ApiError apiError = validationError(exception.getValidationErrors());
+
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<ApiError> handleMissingServletRequestParameterException(MissingServletRequestParameterException exception) {
+        return parameterError(exception.getParameterName(), "must not be null");
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ApiError> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException exception) {
+        return parameterError(exception.getName(), "Invalid value");
+    }
+
+    @ExceptionHandler(UnsupportedCarTypeException.class)
+    public ResponseEntity<ApiError> handleUnsupportedCarTypeException(UnsupportedCarTypeException exception) {
+        return UNSUPPORTED_CAR_TYPE_RESPONSES.get(exception.getCarType());
+    }
+
+    private ResponseEntity<ApiError> parameterError(String parameterName, String message) {
+        taxCalculationMetrics.recordValidationFailures(List.of(parameterName), TaxCalculationMetrics.SOURCE_REQUEST);
+
+        ApiError apiError = validationError(Map.of(parameterName, message));
+
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+
+    private static Map<String, String> fieldErrors(List<FieldError> fieldErrors) {
+        Map<String, String> errors = new HashMap<>();
+        for (FieldError fieldError : fieldErrors) {
+            errors.putIfAbsent(fieldError.getField(), message(fieldError));
+        }
+        return errors;
+    }
+
+    private static String message(MessageSourceResolvable error) {
+        return error.getDefaultMessage() != null ? error.getDefaultMessage() : "Invalid value";
+    }
+
+    public static ApiError validationError(Map<String, String> errors) {
+        return ApiError.builder()
                 .status(HttpStatus.BAD_REQUEST)
                 .message("Validation error")
                 .debugMessage("One or more fields have an error")
                 .validationErrors(errors)
                 .build();
+    }
 
-        return new ResponseEntity<>(apiError, apiError.getStatus());
+    public static ApiError unsupportedCarTypeError(CarDetails.CarType carType) {
+        return UNSUPPORTED_CAR_TYPE_RESPONSES.get(carType).getBody();
     }
 
     @ExceptionHandler(Exception.class)
@@ -0,0 +1,21 @@
+package ee.tenman.automaks.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.ZoneId;
+
+/**
+ * The tax year turns over at midnight in Tallinn, whatever the default zone of the JVM is.
+ */
+@Configuration
+public class TaxClockConfiguration {
+
+    public static final ZoneId TAX_ZONE = ZoneId.of("Europe/Tallinn");
+
+    @Bean
+    public Clock taxClock() {
+        return Clock.system(TAX_ZONE);
+    }
+}
@@ -0,0 +1,21 @@
+package ee.tenman.automaks.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Custom codecs are consulted before the default Jackson ones, so tax responses on the reactive stack are written by
+ * {@link TaxResponseJsonEncoder}. Everything else, including error bodies, still goes through Jackson.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class TaxResponseCodecConfiguration {
+
+    @Bean
+    public CodecCustomizer taxResponseCodecCustomizer(ObjectMapper objectMapper) {
+        return configurer -> configurer.customCodecs().register(new TaxResponseJsonEncoder(objectMapper));
+    }
+}
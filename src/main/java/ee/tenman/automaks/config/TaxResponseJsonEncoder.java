@@ -0,0 +1,212 @@
+package ee.tenman.automaks.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.tenman.automaks.config.jfr.ResponseEncodingEvent;
+import ee.tenman.automaks.dto.BatchTaxResponse;
+import ee.tenman.automaks.dto.EncodedTaxResponse;
+import ee.tenman.automaks.dto.TaxResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.codec.Hints;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@link TaxResponse} and successful {@link BatchTaxResponse} lines straight into the response
+ * {@link DataBuffer}, which is pooled on Netty. An {@link EncodedTaxResponse} already carries its JSON, which is
+ * copied as-is. Amounts are printed from their cents, so neither
+ * {@link BigDecimal#toString()} nor an intermediate byte array is involved. The bytes match what the Jackson encoder
+ * writes with {@code non_null} inclusion, including the array and newline framing; failed batch lines carry free text
+ * and maps and are still written by the {@link ObjectMapper}.
+ */
+class TaxResponseJsonEncoder implements HttpMessageEncoder<Object> {
+
+    private static final List<MimeType> MIME_TYPES = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON);
+    private static final List<MediaType> STREAMING_MEDIA_TYPES = List.of(MediaType.APPLICATION_NDJSON);
+
+    private static final int AMOUNT_SCALE = 2;
+    private static final double MAX_EXACT_AMOUNT = 1e13;
+    private static final int INITIAL_CAPACITY = 96;
+
+    private static final byte[] LINE = ascii("{\"line\":");
+    private static final byte[] REGISTRATION_TAX = ascii("\"registrationTax\":");
+    private static final byte[] ANNUAL_TAX = ascii("\"annualTax\":");
+    private static final byte OPEN_ARRAY = '[';
+    private static final byte CLOSE_ARRAY = ']';
+    private static final byte OPEN_OBJECT = '{';
+    private static final byte CLOSE_OBJECT = '}';
+    private static final byte COMMA = ',';
+    private static final byte NEWLINE = '\n';
+
+    private final ObjectMapper objectMapper;
+
+    TaxResponseJsonEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        Class<?> type = elementType.toClass();
+        if (type != TaxResponse.class && type != EncodedTaxResponse.class && type != BatchTaxResponse.class) {
+            return false;
+        }
+        if (mimeType == null) {
+            return true;
+        }
+        if (mimeType.getCharset() != null && !StandardCharsets.UTF_8.equals(mimeType.getCharset())) {
+            return false;
+        }
+        return MIME_TYPES.stream().anyMatch(supported -> supported.isCompatibleWith(mimeType));
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return STREAMING_MEDIA_TYPES;
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                   MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono<?> mono) {
+            return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+        }
+        if (mimeType != null && MediaType.APPLICATION_NDJSON.isCompatibleWith(mimeType)) {
+            return Flux.from(inputStream).map(value -> {
+                DataBuffer buffer = bufferFactory.allocateBuffer(INITIAL_CAPACITY);
+                write(buffer, value);
+                return buffer.write(NEWLINE);
+            });
+        }
+        return Flux.from(inputStream).index()
+                .map(indexed -> {
+                    DataBuffer buffer = bufferFactory.allocateBuffer(INITIAL_CAPACITY);
+                    buffer.write(indexed.getT1() == 0 ? OPEN_ARRAY : COMMA);
+                    write(buffer, indexed.getT2());
+                    return buffer;
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> bufferFactory.allocateBuffer(1).write(OPEN_ARRAY)))
+                .concatWith(Mono.fromSupplier(() -> bufferFactory.allocateBuffer(1).write(CLOSE_ARRAY)));
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  MimeType mimeType, Map<String, Object> hints) {
+        ResponseEncodingEvent event = new ResponseEncodingEvent();
+        event.begin();
+        DataBuffer buffer = bufferFactory.allocateBuffer(INITIAL_CAPACITY);
+        write(buffer, value);
+        if ((value instanceof TaxResponse || value instanceof EncodedTaxResponse) && event.shouldCommit()) {
+            event.commit(requestId(hints), mimeType != null ? mimeType.toString() : null);
+        }
+        return buffer;
+    }
+
+    /**
+     * The reactive stages are tagged with the exchange's request ID, which WebFlux passes as the {@code "[id] "} log
+     * prefix.
+     */
+    private static String requestId(Map<String, Object> hints) {
+        String logPrefix = Hints.getLogPrefix(hints);
+        return logPrefix.length() > 3 ? logPrefix.substring(1, logPrefix.length() - 2) : null;
+    }
+
+    private void write(DataBuffer buffer, Object value) {
+        if (value instanceof EncodedTaxResponse encoded) {
+            buffer.write(encoded.json().asUnquotedUTF8());
+        } else if (value instanceof TaxResponse taxResponse) {
+            buffer.write(OPEN_OBJECT);
+            boolean first = writeAmount(buffer, REGISTRATION_TAX, taxResponse.registrationTax(), true);
+            writeAmount(buffer, ANNUAL_TAX, taxResponse.annualTax(), first);
+            buffer.write(CLOSE_OBJECT);
+        } else if (value instanceof BatchTaxResponse line && line.error() == null && line.validationErrors() == null) {
+            buffer.write(LINE);
+            writeDigits(buffer, line.line());
+            writeAmount(buffer, REGISTRATION_TAX, line.registrationTax(), false);
+            writeAmount(buffer, ANNUAL_TAX, line.annualTax(), false);
+            buffer.write(CLOSE_OBJECT);
+        } else {
+            writeWithObjectMapper(buffer, value);
+        }
+    }
+
+    private void writeWithObjectMapper(DataBuffer buffer, Object value) {
+        try {
+            buffer.write(objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new EncodingException("JSON encoding error: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the field unless the amount is {@code null}, and returns whether nothing has been written yet.
+     */
+    private static boolean writeAmount(DataBuffer buffer, byte[] name, BigDecimal amount, boolean first) {
+        if (amount == null) {
+            return first;
+        }
+        if (!first) {
+            buffer.write(COMMA);
+        }
+        buffer.write(name);
+        writeAmount(buffer, amount);
+        return false;
+    }
+
+    /**
+     * Jackson prints amounts with {@link BigDecimal#toString()}, which is plain notation at scale 2. The double of a
+     * compact {@link BigDecimal} is computed without allocating, and below {@link #MAX_EXACT_AMOUNT} rounding it back
+     * to cents is exact; anything else is printed the way Jackson would.
+     */
+    static void writeAmount(DataBuffer buffer, BigDecimal amount) {
+        double value = amount.doubleValue();
+        if (amount.scale() != AMOUNT_SCALE || !(Math.abs(value) < MAX_EXACT_AMOUNT)) {
+            buffer.write(ascii(amount.toString()));
+            return;
+        }
+        long cents = Math.round(value * 100);
+        if (cents < 0) {
+            buffer.write((byte) '-');
+            cents = -cents;
+        }
+        writeDigits(buffer, cents / 100);
+        long fraction = cents % 100;
+        buffer.write((byte) '.');
+        buffer.write((byte) ('0' + fraction / 10));
+        buffer.write((byte) ('0' + fraction % 10));
+    }
+
+    static void writeDigits(DataBuffer buffer, long value) {
+        if (value < 0) {
+            buffer.write(ascii(Long.toString(value)));
+            return;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.write((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
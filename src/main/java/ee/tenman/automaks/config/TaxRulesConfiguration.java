@@ -0,0 +1,55 @@
+package ee.tenman.automaks.config;
+
+import ee.tenman.automaks.service.ActiveTaxRules;
+import ee.tenman.automaks.service.TaxRuleSets;
+import ee.tenman.automaks.service.TaxRulesLoader;
+import ee.tenman.automaks.service.TaxRulesWatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.audit.AuditEventRepository;
+import org.springframework.boot.actuate.audit.InMemoryAuditEventRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Tax rules come from {@code automaks.tax-rules.location} when it is set and from the rules shipped in the jar
+ * otherwise. An external file that does not load fails startup rather than silently pricing with the built-in rates.
+ */
+@Configuration
+@Slf4j
+public class TaxRulesConfiguration {
+
+    @Bean
+    public ActiveTaxRules activeTaxRules(@Value("${automaks.tax-rules.location:}") String location) {
+        TaxRuleSets taxRuleSets = location.isBlank() ? TaxRuleSets.builtIn() : TaxRulesLoader.load(Path.of(location));
+        log.info("Tax rules {} from {} effective from {}", taxRuleSets.version(), taxRuleSets.source(), taxRuleSets.effectiveDates());
+        return new ActiveTaxRules(taxRuleSets);
+    }
+
+    /**
+     * Always registered, and only watching when a location is set and {@code automaks.tax-rules.watch} is on. Both are
+     * read when the context starts, so an AOT build, which fixes conditional beans at build time, can still hot reload.
+     */
+    @Bean
+    public TaxRulesWatcher taxRulesWatcher(
+            @Value("${automaks.tax-rules.location:}") String location,
+            @Value("${automaks.tax-rules.watch:false}") boolean watch,
+            ActiveTaxRules activeTaxRules,
+            ApplicationEventPublisher eventPublisher
+    ) {
+        return new TaxRulesWatcher(location.isBlank() || !watch ? null : Path.of(location), activeTaxRules, eventPublisher);
+    }
+
+    /**
+     * Keeps the latest rule reloads, among other audit events, for the {@code auditevents} actuator endpoint.
+     */
+    @Bean
+    @ConditionalOnMissingBean(AuditEventRepository.class)
+    public InMemoryAuditEventRepository auditEventRepository() {
+        return new InMemoryAuditEventRepository();
+    }
+}
@@ -9,6 +9,10 @@ public class TimeUtility {
         return new CustomDuration(startTime);
     }
 
+    public static CustomDuration durationInSeconds(long startTime, long endTime) {
+        return new CustomDuration(startTime, endTime);
+    }
+
     private static String formatDuration(double duration) {
         return String.format("%.3f", duration);
     }
@@ -17,7 +21,11 @@ public class TimeUtility {
         private final double durationInSeconds;
 
         public CustomDuration(long startTime) {
-            this.durationInSeconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+            this(startTime, System.nanoTime());
+        }
+
+        public CustomDuration(long startTime, long endTime) {
+            this.durationInSeconds = (endTime - startTime) / 1_000_000_000.0;
         }
 
         public String asString() {
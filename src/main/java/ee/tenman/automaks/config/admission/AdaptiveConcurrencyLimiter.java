@@ -0,0 +1,89 @@
+package ee.tenman.automaks.config.admission;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD concurrency limit. Every completed request is a latency sample: a sample at or under the target grows the limit
+ * by one while at least half of it is in use, and a slower sample shrinks it by {@link #BACKOFF_RATIO}. Shrinking
+ * happens at most once per target interval, so one burst of slow responses counts as one congestion signal rather
+ * than one per request.
+ * <p>
+ * Admission never waits: a request over the limit of its priority is rejected straight away.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double bulkShare;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+    private long lastBackoffNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyTarget, double bulkShare) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max: "
+                    + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        if (!(bulkShare > 0 && bulkShare <= 1)) {
+            throw new IllegalArgumentException("Bulk share must be in (0, 1]: " + bulkShare);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.bulkShare = bulkShare;
+        this.limit = initialLimit;
+        this.lastBackoffNanos = System.nanoTime() - latencyTargetNanos;
+    }
+
+    /**
+     * Takes a slot if the priority's share of the limit has room. Every successful call must be paired with one
+     * {@link #release}.
+     */
+    public boolean tryAcquire(AdmissionPriority priority) {
+        int allowed = priority == AdmissionPriority.BULK ? Math.max(1, (int) (limit * bulkShare)) : limit;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot. A negative latency frees it without a sample, for requests whose duration says nothing about
+     * congestion (cancelled or streaming ones).
+     */
+    public void release(long latencyNanos) {
+        int wasInFlight = inFlight.getAndDecrement();
+        if (latencyNanos >= 0) {
+            onSample(latencyNanos, wasInFlight, System.nanoTime());
+        }
+    }
+
+    synchronized void onSample(long latencyNanos, int wasInFlight, long nowNanos) {
+        if (latencyNanos > latencyTargetNanos) {
+            if (nowNanos - lastBackoffNanos >= latencyTargetNanos) {
+                lastBackoffNanos = nowNanos;
+                limit = Math.max(minLimit, (int) (limit * BACKOFF_RATIO));
+            }
+        } else if (wasInFlight * 2 >= limit && limit < maxLimit) {
+            limit++;
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
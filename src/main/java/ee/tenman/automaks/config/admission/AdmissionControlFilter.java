@@ -0,0 +1,99 @@
+package ee.tenman.automaks.config.admission;
+
+import jakarta.annotation.Resource;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet counterpart of {@link AdmissionControlWebFilter}. Controller methods returning {@code Mono} finish on an
+ * async dispatch, so for those the slot is released by an {@link AsyncListener} when the response completes.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "automaks.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    @Resource
+    private TaxAdmission taxAdmission;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !taxAdmission.applies(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdmissionPriority priority = taxAdmission.priorityOf(path(request), request.getHeader(TaxAdmission.PRIORITY_HEADER),
+                request.getHeader(TaxAdmission.CLIENT_ID_HEADER));
+        if (!taxAdmission.tryAcquire(priority)) {
+            reject(response);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(priority, startNanos));
+            } else {
+                taxAdmission.release(priority, startNanos);
+            }
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, taxAdmission.retryAfterSeconds());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(taxAdmission.rejectionBody());
+    }
+
+    private final class ReleasingListener implements AsyncListener {
+
+        private final AdmissionPriority priority;
+        private final long startNanos;
+
+        ReleasingListener(AdmissionPriority priority, long startNanos) {
+            this.priority = priority;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            taxAdmission.release(priority, startNanos);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ee.tenman.automaks.config.admission;
+
+import jakarta.annotation.Resource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Admits {@code /tax} requests on the reactive stack before any body is read. The slot is held until the response
+ * completes, and a cancelled exchange frees it without a latency sample.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(name = "automaks.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlWebFilter implements WebFilter {
+
+    @Resource
+    private TaxAdmission taxAdmission;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().pathWithinApplication().value();
+        if (!taxAdmission.applies(path)) {
+            return chain.filter(exchange);
+        }
+        AdmissionPriority priority = taxAdmission.priorityOf(path,
+                request.getHeaders().getFirst(TaxAdmission.PRIORITY_HEADER),
+                request.getHeaders().getFirst(TaxAdmission.CLIENT_ID_HEADER));
+        if (!taxAdmission.tryAcquire(priority)) {
+            return reject(exchange.getResponse());
+        }
+        long startNanos = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            if (signal == SignalType.CANCEL) {
+                taxAdmission.releaseWithoutSample();
+            } else {
+                taxAdmission.release(priority, startNanos);
+            }
+        });
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, taxAdmission.retryAfterSeconds());
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(taxAdmission.rejectionBody())));
+    }
+}
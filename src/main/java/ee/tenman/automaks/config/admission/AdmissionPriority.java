@@ -0,0 +1,10 @@
+package ee.tenman.automaks.config.admission;
+
+/**
+ * Interactive callers may use the whole concurrency limit; bulk callers only a share of it, so a bulk import cannot
+ * crowd out the UI.
+ */
+public enum AdmissionPriority {
+    INTERACTIVE,
+    BULK
+}
@@ -0,0 +1,119 @@
+package ee.tenman.automaks.config.admission;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.tenman.automaks.config.GlobalExceptionHandler.ApiError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Admission control for the {@code /tax} endpoints, shared by the servlet and the reactive filter. Batch and
+ * aggregate requests, clients listed in {@code automaks.admission.bulk-clients} and requests sent with
+ * {@code X-Priority: bulk} are bulk; everything else is interactive. Bulk requests run as long as their payload, so
+ * their duration is not fed to the limiter as a latency sample.
+ */
+@Component
+@ConditionalOnProperty(name = "automaks.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class TaxAdmission {
+
+    public static final String PRIORITY_HEADER = "X-Priority";
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    static final String LIMIT_GAUGE = "tax.admission.limit";
+    static final String IN_FLIGHT_GAUGE = "tax.admission.in.flight";
+    static final String REJECTIONS = "tax.admission.rejections";
+
+    private static final String TAX_PATH_PREFIX = "/tax/";
+    private static final Set<String> BULK_PATHS = Set.of("/tax/calculate/batch", "/tax/aggregate");
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Set<String> bulkClients;
+    private final String retryAfterSeconds;
+    private final byte[] rejectionBody;
+    private final Map<AdmissionPriority, Counter> rejections = new EnumMap<>(AdmissionPriority.class);
+
+    public TaxAdmission(
+            @Value("${automaks.admission.initial-limit:50}") int initialLimit,
+            @Value("${automaks.admission.min-limit:8}") int minLimit,
+            @Value("${automaks.admission.max-limit:500}") int maxLimit,
+            @Value("${automaks.admission.latency-target:200ms}") Duration latencyTarget,
+            @Value("${automaks.admission.bulk-share:0.5}") double bulkShare,
+            @Value("${automaks.admission.bulk-clients:}") Set<String> bulkClients,
+            @Value("${automaks.admission.retry-after:1s}") Duration retryAfter,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) throws JsonProcessingException {
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyTarget, bulkShare);
+        this.bulkClients = Set.copyOf(bulkClients);
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+        this.rejectionBody = objectMapper.writeValueAsBytes(ApiError.builder()
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .message("Too many concurrent tax calculations")
+                .debugMessage("Retry after " + retryAfterSeconds + " s")
+                .build());
+
+        Gauge.builder(LIMIT_GAUGE, limiter, AdaptiveConcurrencyLimiter::limit)
+                .description("Current adaptive concurrency limit of the tax endpoints")
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_GAUGE, limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Admitted tax requests that have not completed yet")
+                .register(meterRegistry);
+        for (AdmissionPriority priority : AdmissionPriority.values()) {
+            rejections.put(priority, Counter.builder(REJECTIONS)
+                    .description("Tax requests rejected with 429 because the concurrency limit was reached")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    public boolean applies(String path) {
+        return path.startsWith(TAX_PATH_PREFIX);
+    }
+
+    public AdmissionPriority priorityOf(String path, String priorityHeader, String clientId) {
+        if (BULK_PATHS.contains(path)
+                || (clientId != null && bulkClients.contains(clientId))
+                || AdmissionPriority.BULK.name().equalsIgnoreCase(priorityHeader)) {
+            return AdmissionPriority.BULK;
+        }
+        return AdmissionPriority.INTERACTIVE;
+    }
+
+    public boolean tryAcquire(AdmissionPriority priority) {
+        if (limiter.tryAcquire(priority)) {
+            return true;
+        }
+        rejections.get(priority).increment();
+        return false;
+    }
+
+    public void release(AdmissionPriority priority, long startNanos) {
+        limiter.release(priority == AdmissionPriority.BULK ? -1 : System.nanoTime() - startNanos);
+    }
+
+    public void releaseWithoutSample() {
+        limiter.release(-1);
+    }
+
+    public String retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public byte[] rejectionBody() {
+        return rejectionBody;
+    }
+
+    AdaptiveConcurrencyLimiter limiter() {
+        return limiter;
+    }
+}
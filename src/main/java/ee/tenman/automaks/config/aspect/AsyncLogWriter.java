@@ -0,0 +1,111 @@
+package ee.tenman.automaks.config.aspect;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static ee.tenman.automaks.config.TimeUtility.durationInSeconds;
+
+@Component
+public class AsyncLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingAspect.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final RingBuffer<LoggedInvocation> buffer;
+    private final Counter droppedInvocations;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AsyncLogWriter(
+            @Value("${automaks.logging.mode:sync}") LoggingMode loggingMode,
+            @Value("${automaks.logging.buffer-size:8192}") int bufferSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = loggingMode == LoggingMode.ASYNC;
+        this.buffer = new RingBuffer<>(enabled ? bufferSize : 1);
+        this.droppedInvocations = Counter.builder("loggable.invocations.dropped")
+                .description("Logged invocations dropped because the async log buffer was full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = Thread.ofPlatform().daemon().name("loggable-writer").start(this::drain);
+        log.info("Async @Loggable logging started with a buffer of {} invocations", buffer.capacity());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    boolean submit(LoggedInvocation invocation) {
+        if (buffer.offer(invocation)) {
+            return true;
+        }
+        droppedInvocations.increment();
+        return false;
+    }
+
+    private void drain() {
+        while (running) {
+            LoggedInvocation invocation = buffer.poll();
+            if (invocation == null) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            } else {
+                write(invocation);
+            }
+        }
+        LoggedInvocation invocation;
+        while ((invocation = buffer.poll()) != null) {
+            write(invocation);
+        }
+    }
+
+    private void write(LoggedInvocation invocation) {
+        MDC.put(LoggingAspect.TRANSACTION_ID, invocation.transactionId());
+        try {
+            String methodName = invocation.signature().toShortString();
+            String argsJson = objectMapper.writeValueAsString(invocation.arguments());
+            String duration = durationInSeconds(invocation.startTime(), invocation.endTime()).asString();
+            if (invocation.error() != null) {
+                log.error("Exception in method: {} with arguments: {} after {} seconds", methodName, argsJson, duration,
+                        invocation.error());
+                return;
+            }
+            String resultJson = objectMapper.writeValueAsString(invocation.result());
+            log.info("Exited method: {} with arguments: {} and result: {} in {} seconds", methodName, argsJson, resultJson,
+                    duration);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("Error serializing logged invocation to JSON", e);
+        } finally {
+            MDC.remove(LoggingAspect.TRANSACTION_ID);
+        }
+    }
+}
@@ -8,4 +8,10 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Loggable {
+
+    /**
+     * Share of successful, fast invocations logged in async mode. Negative falls back to
+     * {@code automaks.logging.sample-rate}; slow and failed invocations are always logged.
+     */
+    double sampleRate() default -1;
 }
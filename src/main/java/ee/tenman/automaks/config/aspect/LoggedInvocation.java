@@ -0,0 +1,14 @@
+package ee.tenman.automaks.config.aspect;
+
+import org.aspectj.lang.Signature;
+
+record LoggedInvocation(
+        String transactionId,
+        Signature signature,
+        Object[] arguments,
+        Object result,
+        Throwable error,
+        long startTime,
+        long endTime
+) {
+}
@@ -2,7 +2,10 @@ package ee.tenman.automaks.config.aspect;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.tenman.automaks.config.jfr.LoggingEvent;
+import ee.tenman.automaks.dto.CarDetails;
 import jakarta.annotation.Resource;
+import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -10,11 +13,15 @@ import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 import static ee.tenman.automaks.config.TimeUtility.durationInSeconds;
 
@@ -26,20 +33,68 @@ public class LoggingAspect {
     
     @Resource
     private ObjectMapper objectMapper;
+
+    @Resource
+    private AsyncLogWriter asyncLogWriter;
+
+    @Value("${automaks.logging.mode:sync}")
+    private LoggingMode loggingMode;
+
+    @Value("${automaks.logging.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Value("${automaks.logging.slow-threshold:500ms}")
+    private Duration slowThreshold;
     
-    private static final String TRANSACTION_ID = "transactionId";
+    static final String TRANSACTION_ID = "transactionId";
+
+    private static final String PHASE_ARGUMENTS = "arguments";
+    private static final String PHASE_RESULT = "result";
+    private static final String PHASE_SUBMIT = "submit";
     
-    private static void setTransactionId(UUID uuid) {
-        String transactionId = uuid.toString();
+    /**
+     * Sets a new transaction ID unless {@link TransactionIdFilter} already set one for the whole request.
+     *
+     * @return whether the ID was set here and has to be cleared here
+     */
+    private static boolean setTransactionId(UUID uuid) {
+        if (MDC.get(TRANSACTION_ID) != null) {
+            return false;
+        }
+        putTransactionId(uuid.toString());
+        return true;
+    }
+
+    static void putTransactionId(String transactionId) {
         MDC.put(TRANSACTION_ID, "[" + transactionId + "] ");
     }
-    
-    private static void clearTransactionId() {
+
+    static void clearTransactionId() {
         MDC.remove(TRANSACTION_ID);
     }
+
+    /**
+     * Runs {@code action} with {@code transactionId} as the current one, for entry points without {@code @Loggable}.
+     */
+    public static <T> T withTransactionId(String transactionId, Supplier<T> action) {
+        putTransactionId(transactionId);
+        try {
+            return action.get();
+        } finally {
+            clearTransactionId();
+        }
+    }
+
+    /**
+     * The transaction ID of the current thread without the log formatting, or {@code null}.
+     */
+    public static String currentTransactionId() {
+        String transactionId = MDC.get(TRANSACTION_ID);
+        return transactionId != null ? transactionId.substring(1, transactionId.length() - 2) : null;
+    }
     
-    @Around("@annotation(ee.tenman.automaks.config.aspect.Loggable)")
-    public Object logMethod(ProceedingJoinPoint joinPoint) {
+    @Around("@annotation(loggable)")
+    public Object logMethod(ProceedingJoinPoint joinPoint, Loggable loggable) {
         long startTime = System.nanoTime();
         
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
@@ -49,41 +104,117 @@ public class LoggingAspect {
             log.error("Loggable annotation is used on a method with no return type: {}", method.getName());
             throw new IllegalStateException("Loggable annotation cannot be used on methods with no return type");
         }
+
+        if (loggingMode == LoggingMode.ASYNC) {
+            return logMethodAsync(joinPoint, loggable, startTime);
+        }
         
-        setTransactionId(UUID.randomUUID());
+        boolean ownsTransactionId = setTransactionId(UUID.randomUUID());
         Object result = null;
         try {
+            LoggingEvent argumentsEvent = new LoggingEvent();
+            argumentsEvent.begin();
             String argsJson = objectMapper.writeValueAsString(joinPoint.getArgs());
             log.info("Entered method: {} with arguments: {}", joinPoint.getSignature().toShortString(), argsJson);
+            commit(argumentsEvent, joinPoint, PHASE_ARGUMENTS);
             result = joinPoint.proceed();
             if (result instanceof Mono) {
-                return handleMonoResult((Mono<?>) result, startTime);
+                return handleMonoResult((Mono<?>) result, joinPoint, startTime, ownsTransactionId);
             }
+            LoggingEvent resultEvent = new LoggingEvent();
+            resultEvent.begin();
             String resultJson = objectMapper.writeValueAsString(result);
             log.info("Exited method: {} with result: {} in {} seconds", joinPoint.getSignature().toShortString(), resultJson,
                     durationInSeconds(startTime).asString());
+            commit(resultEvent, joinPoint, PHASE_RESULT);
             return result;
         } catch (Throwable throwable) {
             log.error("Exception in method: {}", joinPoint.getSignature().toShortString(), throwable);
             throw new RuntimeException(throwable);
         } finally {
-            if (!(result instanceof Mono)) {
+            if (!(result instanceof Mono) && ownsTransactionId) {
                 clearTransactionId();
             }
         }
     }
     
     
-    private <T> Mono<T> handleMonoResult(Mono<T> mono, long startTime) {
+    private <T> Mono<T> handleMonoResult(Mono<T> mono, JoinPoint joinPoint, long startTime, boolean ownsTransactionId) {
         return mono.doOnNext(item -> {
+                    LoggingEvent event = new LoggingEvent();
+                    event.begin();
                     try {
                         String itemJson = objectMapper.writeValueAsString(item);
                         log.info("Result of Mono: {} in {} seconds", itemJson, durationInSeconds(startTime).asString());
                     } catch (JsonProcessingException e) {
                         log.error("Error serializing Mono result to JSON", e);
                     }
+                    commit(event, joinPoint, PHASE_RESULT);
                 })
                 .doOnError(error -> log.error("Error in Mono: {}", error.getMessage()))
-                .doFinally(signalType -> clearTransactionId());
+                .doFinally(signalType -> {
+                    if (ownsTransactionId) {
+                        clearTransactionId();
+                    }
+                });
+    }
+
+    private Object logMethodAsync(ProceedingJoinPoint joinPoint, Loggable loggable, long startTime) {
+        boolean ownsTransactionId = setTransactionId(UUID.randomUUID());
+        String transactionId = MDC.get(TRANSACTION_ID);
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            if (result instanceof Mono<?> mono) {
+                return mono.doOnSuccess(item -> submit(joinPoint, loggable, transactionId, startTime, item, null))
+                        .doOnError(error -> submit(joinPoint, loggable, transactionId, startTime, null, error))
+                        .doFinally(signalType -> {
+                            if (ownsTransactionId) {
+                                clearTransactionId();
+                            }
+                        });
+            }
+            submit(joinPoint, loggable, transactionId, startTime, result, null);
+            return result;
+        } catch (Throwable throwable) {
+            submit(joinPoint, loggable, transactionId, startTime, null, throwable);
+            throw new RuntimeException(throwable);
+        } finally {
+            if (!(result instanceof Mono) && ownsTransactionId) {
+                clearTransactionId();
+            }
+        }
+    }
+
+    private void submit(JoinPoint joinPoint, Loggable loggable, String transactionId, long startTime, Object result,
+                        Throwable error) {
+        long endTime = System.nanoTime();
+        boolean slow = endTime - startTime >= slowThreshold.toNanos();
+        if (error == null && !slow && !isSampled(loggable)) {
+            return;
+        }
+        LoggingEvent event = new LoggingEvent();
+        event.begin();
+        asyncLogWriter.submit(new LoggedInvocation(transactionId, joinPoint.getSignature(), joinPoint.getArgs(), result,
+                error, startTime, endTime));
+        commit(event, joinPoint, PHASE_SUBMIT);
+    }
+
+    private static void commit(LoggingEvent event, JoinPoint joinPoint, String phase) {
+        if (!event.shouldCommit()) {
+            return;
+        }
+        CarDetails carDetails = null;
+        for (Object arg : joinPoint.getArgs()) {
+            if (arg instanceof CarDetails car) {
+                carDetails = car;
+            }
+        }
+        event.commit(carDetails, currentTransactionId(), joinPoint.getSignature().toShortString(), phase);
+    }
+
+    private boolean isSampled(Loggable loggable) {
+        double rate = loggable.sampleRate() < 0 ? sampleRate : loggable.sampleRate();
+        return rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate;
     }
 }
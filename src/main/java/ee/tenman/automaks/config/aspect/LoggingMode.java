@@ -0,0 +1,6 @@
+package ee.tenman.automaks.config.aspect;
+
+public enum LoggingMode {
+    SYNC,
+    ASYNC
+}
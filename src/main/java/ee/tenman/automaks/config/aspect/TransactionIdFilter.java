@@ -0,0 +1,50 @@
+package ee.tenman.automaks.config.aspect;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Opens the transaction ID that {@link LoggingAspect} logs with before the request body is read, and restores it on
+ * the async dispatch that writes a {@code Mono} result, so body validation and response encoding can be attributed to
+ * the same request as the {@code @Loggable} method.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TransactionIdFilter extends OncePerRequestFilter {
+
+    private static final String ATTRIBUTE = TransactionIdFilter.class.getName() + ".transactionId";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/tax/");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String transactionId = (String) request.getAttribute(ATTRIBUTE);
+        if (transactionId == null) {
+            transactionId = UUID.randomUUID().toString();
+            request.setAttribute(ATTRIBUTE, transactionId);
+        }
+        LoggingAspect.putTransactionId(transactionId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            LoggingAspect.clearTransactionId();
+        }
+    }
+}
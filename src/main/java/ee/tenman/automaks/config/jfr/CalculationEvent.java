@@ -0,0 +1,21 @@
+package ee.tenman.automaks.config.jfr;
+
+import ee.tenman.automaks.dto.CarDetails;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("ee.tenman.automaks.Calculation")
+@Label("Tax Calculation")
+@Description("Registration and annual tax computed by the calculator, on a response cache miss")
+public class CalculationEvent extends TaxStageEvent {
+
+    @Label("Calculator")
+    String calculator;
+
+    public void commit(CarDetails carDetails, String transactionId, String calculator) {
+        describe(carDetails, transactionId);
+        this.calculator = calculator;
+        commit();
+    }
+}
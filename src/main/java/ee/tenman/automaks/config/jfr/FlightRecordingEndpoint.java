@@ -0,0 +1,183 @@
+package ee.tenman.automaks.config.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One JDK Flight Recorder recording at a time, on demand: {@code POST /actuator/jfr} starts it, {@code DELETE} stops
+ * it, {@code GET} reports its state and {@code GET /actuator/jfr/recording.jfr} downloads what has been recorded so far.
+ * Every recording ends by itself after at most {@code automaks.jfr.max-duration} and keeps at most
+ * {@code automaks.jfr.max-size} on disk, so a forgotten recording cannot fill the node. The tax request stage events
+ * are always enabled on top of the chosen JFR settings ({@code default} or {@code profile}); the events that capture
+ * the environment variables and system properties are always disabled, so a dump never carries the node's secrets.
+ * <p>
+ * Not exposed over HTTP unless {@code jfr} is added to {@code management.endpoints.web.exposure.include}, preferably
+ * together with a separate {@code management.server.port}.
+ */
+@Component
+@Endpoint(id = "jfr")
+@Slf4j
+public class FlightRecordingEndpoint {
+
+    static final String FILE_NAME = "recording.jfr";
+    private static final String DEFAULT_SETTINGS = "default";
+    private static final List<Class<? extends Event>> TAX_STAGE_EVENTS = List.of(ValidationEvent.class, LoggingEvent.class,
+            CalculationEvent.class, ResponseEncodingEvent.class);
+    public static final List<String> SECRET_EVENTS = List.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+
+    @Value("${automaks.jfr.default-duration:5m}")
+    private Duration defaultDuration;
+
+    @Value("${automaks.jfr.max-duration:30m}")
+    private Duration maxDuration;
+
+    @Value("${automaks.jfr.max-size:100MB}")
+    private DataSize maxSize;
+
+    private Recording recording;
+
+    @ReadOperation
+    public synchronized RecordingInfo status() {
+        return info();
+    }
+
+    /**
+     * @param duration how long to record, capped at {@code automaks.jfr.max-duration}
+     * @param settings name of a JFR configuration shipped with the JDK
+     */
+    @WriteOperation
+    public synchronized WebEndpointResponse<Object> start(@Nullable Duration duration, @Nullable String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>("A recording is already running", HttpStatus.CONFLICT.value());
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : DEFAULT_SETTINGS);
+        } catch (ParseException | IOException e) {
+            return new WebEndpointResponse<>("Unknown JFR settings " + settings, WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        close();
+        Duration requested = duration != null && duration.isPositive() ? duration : defaultDuration;
+        Recording started = new Recording(configuration);
+        started.setName("automaks");
+        started.setDuration(requested.compareTo(maxDuration) > 0 ? maxDuration : requested);
+        started.setMaxSize(maxSize.toBytes());
+        started.setToDisk(true);
+        for (Class<? extends Event> eventClass : TAX_STAGE_EVENTS) {
+            started.enable(eventClass).withoutStackTrace();
+        }
+        SECRET_EVENTS.forEach(started::disable);
+        started.start();
+        recording = started;
+        log.info("Started JFR recording with {} settings for {}", configuration.getName(), started.getDuration());
+        return new WebEndpointResponse<>(info());
+    }
+
+    @DeleteOperation
+    public synchronized RecordingInfo stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("Stopped JFR recording after {} bytes", recording.getSize());
+        }
+        return info();
+    }
+
+    /**
+     * The recording so far, also while it is still running. Not found if nothing was recorded yet.
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized Resource download(@Selector String name) throws IOException {
+        if (!FILE_NAME.equals(name) || recording == null || recording.getState() == RecordingState.NEW) {
+            return null;
+        }
+        Path file = Files.createTempFile("automaks-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new TemporaryFileResource(file);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private RecordingInfo info() {
+        if (recording == null) {
+            return new RecordingInfo(RecordingState.NEW.name(), null, null, null, 0);
+        }
+        return new RecordingInfo(recording.getState().name(), recording.getStartTime(), recording.getStopTime(),
+                recording.getDuration(), recording.getSize());
+    }
+
+    /**
+     * @param state    {@code NEW} before the first recording, then {@code RUNNING} or {@code STOPPED}
+     * @param stopTime when the recording stopped or is due to stop
+     * @param size     bytes recorded so far
+     */
+    public record RecordingInfo(String state, Instant startTime, Instant stopTime, Duration duration, long size) {
+    }
+
+    /**
+     * Deletes the dump once it has been streamed to the client. It does not report itself as a file, so it is never
+     * sent by zero-copy transfer that would bypass the stream.
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ee.tenman.automaks.config.jfr;
+
+import ee.tenman.automaks.dto.CarDetails;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("ee.tenman.automaks.Logging")
+@Label("@Loggable Logging")
+@Description("Work done by LoggingAspect on the request thread: JSON serialization and logging in sync mode, the hand-off to the writer in async mode")
+public class LoggingEvent extends TaxStageEvent {
+
+    @Label("Method")
+    String method;
+
+    @Label("Phase")
+    @Description("arguments, result or submit")
+    String phase;
+
+    public void commit(CarDetails carDetails, String transactionId, String method, String phase) {
+        describe(carDetails, transactionId);
+        this.method = method;
+        this.phase = phase;
+        commit();
+    }
+}
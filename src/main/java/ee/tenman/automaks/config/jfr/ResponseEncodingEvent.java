@@ -0,0 +1,24 @@
+package ee.tenman.automaks.config.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The encoder only sees the response, so car type and calculation path are left empty; the transaction ID ties the
+ * event to the other stages of the request.
+ */
+@Name("ee.tenman.automaks.ResponseEncoding")
+@Label("Tax Response Encoding")
+@Description("Serialization of a TaxResponse body")
+public class ResponseEncodingEvent extends TaxStageEvent {
+
+    @Label("Media Type")
+    String mediaType;
+
+    public void commit(String transactionId, String mediaType) {
+        describe(null, transactionId);
+        this.mediaType = mediaType;
+        commit();
+    }
+}
@@ -0,0 +1,47 @@
+package ee.tenman.automaks.config.jfr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.tenman.automaks.config.aspect.LoggingAspect;
+import ee.tenman.automaks.dto.EncodedTaxResponse;
+import ee.tenman.automaks.dto.TaxResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Replaces Boot's JSON converter on the servlet stack with one that records a {@link ResponseEncodingEvent} for each
+ * {@link TaxResponse} or {@link EncodedTaxResponse} it writes. The reactive stack records the event in its own encoder.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ResponseEncodingEventConfiguration {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new EventRecordingJackson2HttpMessageConverter(objectMapper);
+    }
+
+    static final class EventRecordingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+        EventRecordingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+            ResponseEncodingEvent event = new ResponseEncodingEvent();
+            event.begin();
+            super.writeInternal(object, type, outputMessage);
+            if ((object instanceof TaxResponse || object instanceof EncodedTaxResponse) && event.shouldCommit()) {
+                MediaType contentType = outputMessage.getHeaders().getContentType();
+                event.commit(LoggingAspect.currentTransactionId(), contentType != null ? contentType.toString() : null);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ee.tenman.automaks.config.jfr;
+
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.service.CalculationPath;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * A timed stage of a tax request. Stages of one request share the transaction ID that {@code @Loggable} logs with; on
+ * the reactive stack, where there is no {@code @Loggable}, it is the request ID. Fields are only filled in when the
+ * event is about to be committed, so with no recording running a stage costs an empty {@code begin()} and a
+ * {@code shouldCommit()} check.
+ */
+@Category({"Automaks", "Tax Request"})
+@StackTrace(false)
+public abstract class TaxStageEvent extends Event {
+
+    @Label("Transaction ID")
+    String transactionId;
+
+    @Label("Car Type")
+    String carType;
+
+    @Label("Calculation Path")
+    String calculationPath;
+
+    void describe(CarDetails carDetails, String transactionId) {
+        this.transactionId = transactionId;
+        if (carDetails != null) {
+            this.carType = carDetails.getCarType() != null ? carDetails.getCarType().name() : null;
+            this.calculationPath = CalculationPath.of(carDetails).name();
+        }
+    }
+}
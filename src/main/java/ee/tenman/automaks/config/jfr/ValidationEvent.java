@@ -0,0 +1,25 @@
+package ee.tenman.automaks.config.jfr;
+
+import ee.tenman.automaks.dto.CarDetails;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("ee.tenman.automaks.Validation")
+@Label("Car Details Validation")
+@Description("Validation of one car by CarDetailsValidationService")
+public class ValidationEvent extends TaxStageEvent {
+
+    @Label("Source")
+    String source;
+
+    @Label("Errors")
+    int errors;
+
+    public void commit(CarDetails carDetails, String transactionId, String source, int errors) {
+        describe(carDetails, transactionId);
+        this.source = source;
+        this.errors = errors;
+        commit();
+    }
+}
@@ -1,31 +1,104 @@
 package ee.tenman.automaks.controller;
 
+import ee.tenman.automaks.config.BlockingSchedulerConfiguration;
 import ee.tenman.automaks.config.aspect.Loggable;
+import ee.tenman.automaks.dto.BatchTaxResponse;
 import ee.tenman.automaks.dto.CarDetails;
-import ee.tenman.automaks.dto.TaxResponse;
+import ee.tenman.automaks.dto.EncodedTaxResponse;
+import ee.tenman.automaks.dto.FleetTaxSummary;
+import ee.tenman.automaks.dto.TaxBreakdown;
+import ee.tenman.automaks.dto.TaxProjection;
+import ee.tenman.automaks.service.BatchTaxCalculationService;
+import ee.tenman.automaks.service.FleetTaxAggregationService;
 import ee.tenman.automaks.service.TaxCalculationService;
 import jakarta.annotation.Resource;
-import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @RestController
 @RequestMapping("/tax")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class TaxCalculationController {
 
     @Resource
     private TaxCalculationService taxCalculationService;
 
+    @Resource
+    private BatchTaxCalculationService batchTaxCalculationService;
+
+    @Resource
+    private FleetTaxAggregationService fleetTaxAggregationService;
+
+    @Resource(name = BlockingSchedulerConfiguration.BLOCKING_SCHEDULER)
+    private Scheduler blockingScheduler;
+
     @PostMapping("/calculate")
     @Loggable
-    public Mono<ResponseEntity<TaxResponse>> calculateTax(@RequestBody @Valid CarDetails carDetails) {
-        return taxCalculationService.calculateTax(carDetails).map(ResponseEntity::ok);
+    public Mono<ResponseEntity<EncodedTaxResponse>> calculateTax(@RequestBody CarDetails carDetails) {
+        return taxCalculationService.calculateEncodedTax(carDetails).map(ResponseEntity::ok);
     }
 
-}
+    @PostMapping(value = "/calculate/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchTaxResponse> calculateTaxes(InputStream body) {
+        Flux<String> lines = Flux.using(
+                        () -> new BufferedReader(new InputStreamReader(body, UTF_8)),
+                        reader -> Flux.fromStream(reader.lines()),
+                        TaxCalculationController::close)
+                .subscribeOn(blockingScheduler);
+        return batchTaxCalculationService.calculateTaxes(lines);
+    }
 
+    /**
+     * CBOR counterpart of the NDJSON batch: one array of cars in, one array of results out, numbered from 1.
+     */
+    @PostMapping(value = "/calculate/batch", consumes = MediaType.APPLICATION_CBOR_VALUE, produces = MediaType.APPLICATION_CBOR_VALUE)
+    public Mono<List<BatchTaxResponse>> calculateCborBatch(@RequestBody List<CarDetails> cars) {
+        return batchTaxCalculationService.calculateTaxes(cars).collectList();
+    }
 
+    @PostMapping("/projection")
+    public Mono<TaxProjection> projectAnnualTax(
+            @RequestBody CarDetails carDetails,
+            @RequestParam @Min(1) @Max(TaxCalculationService.MAX_PROJECTION_YEARS) int years) {
+        return taxCalculationService.projectAnnualTax(carDetails, years);
+    }
+
+    @PostMapping("/breakdown")
+    public Mono<TaxBreakdown> explainTax(@RequestBody CarDetails carDetails) {
+        return taxCalculationService.explainTax(carDetails);
+    }
+
+    @PostMapping("/aggregate")
+    public Mono<FleetTaxSummary> aggregateTaxes(@RequestBody List<CarDetails> cars) {
+        return Mono.fromCallable(() -> fleetTaxAggregationService.aggregate(cars));
+    }
+
+    private static void close(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
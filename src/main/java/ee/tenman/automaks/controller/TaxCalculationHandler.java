@@ -0,0 +1,204 @@
+package ee.tenman.automaks.controller;
+
+import ee.tenman.automaks.config.BlockingSchedulerConfiguration;
+import ee.tenman.automaks.config.GlobalExceptionHandler;
+import ee.tenman.automaks.config.aspect.LoggingAspect;
+import ee.tenman.automaks.dto.BatchTaxResponse;
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.service.BatchTaxCalculationService;
+import ee.tenman.automaks.service.CarDetailsValidationService;
+import ee.tenman.automaks.service.FleetTaxAggregationService;
+import ee.tenman.automaks.service.TaxCalculationMetrics;
+import ee.tenman.automaks.service.TaxCalculationService;
+import ee.tenman.automaks.service.UnsupportedCarTypeException;
+import jakarta.annotation.Resource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Functional counterpart of {@link TaxCalculationController} for the reactive stack. There is no argument resolver
+ * to validate request bodies, so the handler calls {@link CarDetailsValidationService}, which uses the engine chosen by
+ * {@code automaks.validation.engine}: the compiled validator by default, or Bean Validation.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class TaxCalculationHandler {
+
+    private static final ParameterizedTypeReference<List<CarDetails>> FLEET = new ParameterizedTypeReference<>() {
+    };
+
+    private static final String YEARS = "years";
+    private static final GlobalExceptionHandler.ApiError INVALID_YEARS = GlobalExceptionHandler.validationError(
+            Map.of(YEARS, "must be between 1 and " + TaxCalculationService.MAX_PROJECTION_YEARS));
+
+    private static final GlobalExceptionHandler.ApiError MISSING_CAR_DETAILS = GlobalExceptionHandler.ApiError.builder()
+            .status(HttpStatus.BAD_REQUEST)
+            .message("Missing car details")
+            .debugMessage("Request body is required")
+            .build();
+
+    @Resource
+    private TaxCalculationService taxCalculationService;
+
+    @Resource
+    private BatchTaxCalculationService batchTaxCalculationService;
+
+    @Resource
+    private CarDetailsValidationService carDetailsValidationService;
+
+    @Resource
+    private TaxCalculationMetrics taxCalculationMetrics;
+
+    @Resource
+    private FleetTaxAggregationService fleetTaxAggregationService;
+
+    @Resource(name = BlockingSchedulerConfiguration.BLOCKING_SCHEDULER)
+    private Scheduler blockingScheduler;
+
+    public Mono<ServerResponse> calculateTax(ServerRequest request) {
+        MediaType responseType = responseType(request);
+        String requestId = request.exchange().getRequest().getId();
+        return request.bodyToMono(CarDetails.class)
+                .flatMap(carDetails -> LoggingAspect.withTransactionId(requestId, () -> calculateTax(carDetails, responseType)))
+                .switchIfEmpty(Mono.defer(() -> badRequest(MISSING_CAR_DETAILS, responseType)))
+                .onErrorResume(ServerWebInputException.class, e -> badRequest(malformedCarDetails(e), responseType));
+    }
+
+    public Mono<ServerResponse> calculateTaxes(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(batchTaxCalculationService.calculateTaxes(request.bodyToFlux(String.class)), BatchTaxResponse.class);
+    }
+
+    /**
+     * The CBOR encoder cannot stream, so the CBOR batch is one array of cars in and one array of results out.
+     */
+    public Mono<ServerResponse> calculateCborBatch(ServerRequest request) {
+        return request.bodyToMono(FLEET)
+                .flatMapMany(batchTaxCalculationService::calculateTaxes)
+                .collectList()
+                .flatMap(results -> ServerResponse.ok().contentType(MediaType.APPLICATION_CBOR).bodyValue(results))
+                .onErrorResume(ServerWebInputException.class, e -> badRequest(malformedCarDetails(e), MediaType.APPLICATION_CBOR));
+    }
+
+    public Mono<ServerResponse> projectAnnualTax(ServerRequest request) {
+        int years = request.queryParam(YEARS).map(TaxCalculationHandler::parseYears).orElse(0);
+        if (years < 1 || years > TaxCalculationService.MAX_PROJECTION_YEARS) {
+            taxCalculationMetrics.recordValidationFailures(List.of(YEARS), TaxCalculationMetrics.SOURCE_REQUEST);
+            return badRequest(INVALID_YEARS);
+        }
+        return request.bodyToMono(CarDetails.class)
+                .flatMap(carDetails -> projectAnnualTax(carDetails, years))
+                .switchIfEmpty(Mono.defer(() -> badRequest(MISSING_CAR_DETAILS)))
+                .onErrorResume(ServerWebInputException.class, e -> badRequest(malformedCarDetails(e)));
+    }
+
+    public Mono<ServerResponse> explainTax(ServerRequest request) {
+        return request.bodyToMono(CarDetails.class)
+                .flatMap(this::explainTax)
+                .switchIfEmpty(Mono.defer(() -> badRequest(MISSING_CAR_DETAILS)))
+                .onErrorResume(ServerWebInputException.class, e -> badRequest(malformedCarDetails(e)));
+    }
+
+    /**
+     * The fork/join reduction occupies the calling thread until it completes, so it is moved off the event loop.
+     */
+    public Mono<ServerResponse> aggregateTaxes(ServerRequest request) {
+        return request.bodyToMono(FLEET)
+                .publishOn(blockingScheduler)
+                .map(fleetTaxAggregationService::aggregate)
+                .flatMap(summary -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(summary))
+                .switchIfEmpty(Mono.defer(() -> badRequest(MISSING_CAR_DETAILS)))
+                .onErrorResume(ServerWebInputException.class, e -> badRequest(malformedCarDetails(e)));
+    }
+
+    private Mono<ServerResponse> calculateTax(CarDetails carDetails, MediaType responseType) {
+        Map<String, String> validationErrors = carDetailsValidationService.validate(carDetails, TaxCalculationMetrics.SOURCE_REQUEST);
+        if (!validationErrors.isEmpty()) {
+            return badRequest(GlobalExceptionHandler.validationError(validationErrors), responseType);
+        }
+        return taxCalculationService.calculateEncodedTax(carDetails)
+                .flatMap(taxResponse -> ServerResponse.ok().contentType(responseType).bodyValue(taxResponse))
+                .onErrorResume(UnsupportedCarTypeException.class, e -> unprocessableEntity(e.getCarType(), responseType));
+    }
+
+    private Mono<ServerResponse> projectAnnualTax(CarDetails carDetails, int years) {
+        Map<String, String> validationErrors = carDetailsValidationService.validate(carDetails, TaxCalculationMetrics.SOURCE_REQUEST);
+        if (!validationErrors.isEmpty()) {
+            return badRequest(GlobalExceptionHandler.validationError(validationErrors));
+        }
+        return taxCalculationService.projectAnnualTax(carDetails, years)
+                .flatMap(projection -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(projection))
+                .onErrorResume(UnsupportedCarTypeException.class, e -> unprocessableEntity(e.getCarType()));
+    }
+
+    private Mono<ServerResponse> explainTax(CarDetails carDetails) {
+        Map<String, String> validationErrors = carDetailsValidationService.validate(carDetails, TaxCalculationMetrics.SOURCE_REQUEST);
+        if (!validationErrors.isEmpty()) {
+            return badRequest(GlobalExceptionHandler.validationError(validationErrors));
+        }
+        return taxCalculationService.explainTax(carDetails)
+                .flatMap(breakdown -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(breakdown))
+                .onErrorResume(UnsupportedCarTypeException.class, e -> unprocessableEntity(e.getCarType()));
+    }
+
+    private static int parseYears(String years) {
+        try {
+            return Integer.parseInt(years);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Functional routes do not negotiate by themselves: CBOR when the client asks for it before JSON, JSON otherwise.
+     */
+    private static MediaType responseType(ServerRequest request) {
+        for (MediaType accepted : request.headers().accept()) {
+            if (accepted.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            if (accepted.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return MediaType.APPLICATION_CBOR;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    private static Mono<ServerResponse> unprocessableEntity(CarDetails.CarType carType) {
+        return unprocessableEntity(carType, MediaType.APPLICATION_JSON);
+    }
+
+    private static Mono<ServerResponse> unprocessableEntity(CarDetails.CarType carType, MediaType responseType) {
+        GlobalExceptionHandler.ApiError apiError = GlobalExceptionHandler.unsupportedCarTypeError(carType);
+        return ServerResponse.status(apiError.getStatus()).contentType(responseType).bodyValue(apiError);
+    }
+
+    private static GlobalExceptionHandler.ApiError malformedCarDetails(ServerWebInputException exception) {
+        Throwable cause = exception.getMostSpecificCause();
+        return GlobalExceptionHandler.ApiError.builder()
+                .status(HttpStatus.BAD_REQUEST)
+                .message("Malformed car details")
+                .debugMessage(cause.getMessage())
+                .build();
+    }
+
+    private static Mono<ServerResponse> badRequest(GlobalExceptionHandler.ApiError apiError) {
+        return badRequest(apiError, MediaType.APPLICATION_JSON);
+    }
+
+    private static Mono<ServerResponse> badRequest(GlobalExceptionHandler.ApiError apiError, MediaType responseType) {
+        return ServerResponse.badRequest().contentType(responseType).bodyValue(apiError);
+    }
+}
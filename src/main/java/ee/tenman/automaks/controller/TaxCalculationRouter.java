@@ -0,0 +1,38 @@
+package ee.tenman.automaks.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class TaxCalculationRouter {
+
+    /**
+     * Tomcat is on the classpath for servlet mode and would otherwise be picked for reactive mode as well.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> taxCalculationRoutes(TaxCalculationHandler taxCalculationHandler) {
+        return route()
+                .path("/tax", builder -> builder
+                        .POST("/calculate/batch", contentType(MediaType.APPLICATION_NDJSON), taxCalculationHandler::calculateTaxes)
+                        .POST("/calculate/batch", contentType(MediaType.APPLICATION_CBOR), taxCalculationHandler::calculateCborBatch)
+                        .POST("/calculate", contentType(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR), taxCalculationHandler::calculateTax)
+                        .POST("/projection", contentType(MediaType.APPLICATION_JSON), taxCalculationHandler::projectAnnualTax)
+                        .POST("/breakdown", contentType(MediaType.APPLICATION_JSON), taxCalculationHandler::explainTax)
+                        .POST("/aggregate", contentType(MediaType.APPLICATION_JSON), taxCalculationHandler::aggregateTaxes))
+                .build();
+    }
+}
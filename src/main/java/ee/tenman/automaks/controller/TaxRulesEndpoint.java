@@ -0,0 +1,39 @@
+package ee.tenman.automaks.controller;
+
+import ee.tenman.automaks.service.ActiveTaxRules;
+import ee.tenman.automaks.service.TaxContextProvider;
+import ee.tenman.automaks.service.TaxRuleSets;
+import jakarta.annotation.Resource;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Component
+@Endpoint(id = "taxrules")
+public class TaxRulesEndpoint {
+
+    @Resource
+    private ActiveTaxRules activeTaxRules;
+
+    @Resource
+    private TaxContextProvider taxContextProvider;
+
+    @ReadOperation
+    public TaxRulesInfo taxRules() {
+        TaxRuleSets taxRuleSets = activeTaxRules.get();
+        return new TaxRulesInfo(
+                taxRuleSets.version(),
+                taxRuleSets.source(),
+                taxRuleSets.effectiveDates(),
+                taxContextProvider.current().rules().getEffectiveFrom());
+    }
+
+    /**
+     * @param inForceFrom effective date of the rule set that prices requests without an {@code asOf} date right now
+     */
+    public record TaxRulesInfo(String version, String source, List<LocalDate> effectiveDates, LocalDate inForceFrom) {
+    }
+}
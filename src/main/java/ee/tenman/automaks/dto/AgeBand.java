@@ -0,0 +1,29 @@
+package ee.tenman.automaks.dto;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Vehicle ages from {@code from} up to and including {@code to}, or without an upper bound if {@code to} is
+ * {@code null}. The bands are bounded by the age discount thresholds of the rule set the car was priced with, so they
+ * follow the rules when the discount tiers change.
+ */
+public record AgeBand(int from, Integer to) implements Comparable<AgeBand> {
+
+    @JsonValue
+    public String getLabel() {
+        return to != null ? from + "-" + to : from + "+";
+    }
+
+    @Override
+    public int compareTo(AgeBand other) {
+        return Integer.compare(from, other.from);
+    }
+
+    /**
+     * The label, which is also what the band is keyed by in JSON maps.
+     */
+    @Override
+    public String toString() {
+        return getLabel();
+    }
+}
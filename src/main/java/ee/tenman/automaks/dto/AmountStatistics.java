@@ -0,0 +1,7 @@
+package ee.tenman.automaks.dto;
+
+import java.math.BigDecimal;
+
+public record AmountStatistics(BigDecimal sum, BigDecimal min, BigDecimal max, BigDecimal p50, BigDecimal p90,
+                               BigDecimal p99) {
+}
@@ -0,0 +1,13 @@
+package ee.tenman.automaks.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public record AnnualTaxProjection(int year, int vehicleAge, BigDecimal annualTax) {
+
+    public AnnualTaxProjection(int year, int vehicleAge, BigDecimal annualTax) {
+        this.year = year;
+        this.vehicleAge = vehicleAge;
+        this.annualTax = annualTax.setScale(2, RoundingMode.HALF_UP);
+    }
+}
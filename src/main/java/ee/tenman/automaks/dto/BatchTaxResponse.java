@@ -0,0 +1,25 @@
+package ee.tenman.automaks.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public record BatchTaxResponse(
+        long line,
+        BigDecimal registrationTax,
+        BigDecimal annualTax,
+        String error,
+        Map<String, String> validationErrors
+) {
+
+    public static BatchTaxResponse success(long line, TaxResponse taxResponse) {
+        return new BatchTaxResponse(line, taxResponse.registrationTax(), taxResponse.annualTax(), null, null);
+    }
+
+    public static BatchTaxResponse failure(long line, String error) {
+        return new BatchTaxResponse(line, null, null, error, null);
+    }
+
+    public static BatchTaxResponse failure(long line, String error, Map<String, String> validationErrors) {
+        return new BatchTaxResponse(line, null, null, error, validationErrors);
+    }
+}
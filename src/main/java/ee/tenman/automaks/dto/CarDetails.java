@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @NoArgsConstructor
 @AllArgsConstructor
@@ -44,6 +45,9 @@ public class CarDetails {
     @Schema(description = "The type of CO2 measurement standard, as defined by the CO2Type enum", nullable = true, example = "WLTP")
     private CO2Type co2Type;
 
+    @Schema(description = "Date whose rules and tax year apply, today if not given", nullable = true, example = "2025-06-01")
+    private LocalDate asOf;
+
     public enum CarType {
         @Schema(description = "Passenger cars with up to eight seats, not including the driver's seat")
         M1,
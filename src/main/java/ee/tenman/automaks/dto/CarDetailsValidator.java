@@ -4,30 +4,28 @@ import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Set;
-
-import static ee.tenman.automaks.dto.CarDetails.CarType.N1;
-import static ee.tenman.automaks.dto.CarDetails.CarType.N1G;
+import static ee.tenman.automaks.dto.CompiledCarDetailsValidator.MISSING_CO2_TYPE;
+import static ee.tenman.automaks.dto.CompiledCarDetailsValidator.MISSING_ENGINE_DATA;
+import static ee.tenman.automaks.dto.CompiledCarDetailsValidator.MISSING_FULL_MASS;
+import static ee.tenman.automaks.dto.CompiledCarDetailsValidator.VAN_TYPES;
 
 @Slf4j
 public class CarDetailsValidator implements ConstraintValidator<ValidCarDetails, CarDetails> {
 
-    private static final Set<CarDetails.CarType> VAN_TYPES = Set.of(N1, N1G);
-
     @Override
     public boolean isValid(CarDetails carDetails, ConstraintValidatorContext context) {
         boolean valid = true;
         if (carDetails.getCo2Emissions() == null && !carDetails.isElectric()) {
             if (carDetails.getEngineCapacity() == null || carDetails.getEnginePower() == null) {
                 context.disableDefaultConstraintViolation();
-                context.buildConstraintViolationWithTemplate("Missing engineCapacity or/and enginePower for non-electric vehicle.")
+                context.buildConstraintViolationWithTemplate(MISSING_ENGINE_DATA)
                         .addPropertyNode("engineCapacity")
                         .addConstraintViolation();
                 valid = false;
             }
         } else if (carDetails.getCo2Emissions() != null && carDetails.getCo2Type() == null && !carDetails.isElectric()) {
             context.disableDefaultConstraintViolation();
-            context.buildConstraintViolationWithTemplate("Missing CO2Type for vehicle with co2Emissions.")
+            context.buildConstraintViolationWithTemplate(MISSING_CO2_TYPE)
                     .addPropertyNode("co2Type")
                     .addConstraintViolation();
             valid = false;
@@ -35,7 +33,7 @@ public class CarDetailsValidator implements ConstraintValidator<ValidCarDetails,
 
         if (carDetails.getFullMass() == null && !VAN_TYPES.contains(carDetails.getCarType())) {
             context.disableDefaultConstraintViolation();
-            context.buildConstraintViolationWithTemplate("Invalid car type for missing fullMass. Car type must be one of " + VAN_TYPES)
+            context.buildConstraintViolationWithTemplate(MISSING_FULL_MASS)
                     .addPropertyNode("fullMass")
                     .addConstraintViolation();
             valid = false;
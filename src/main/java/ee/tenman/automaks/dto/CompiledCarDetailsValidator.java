@@ -0,0 +1,58 @@
+package ee.tenman.automaks.dto;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static ee.tenman.automaks.dto.CarDetails.CarType.N1;
+import static ee.tenman.automaks.dto.CarDetails.CarType.N1G;
+
+/**
+ * Hand-written equivalent of Bean Validation over {@link CarDetails}: the {@code @NotNull} fields plus
+ * {@link CarDetailsValidator}, with the same field paths and messages. It reads the fields directly instead of walking
+ * constraint metadata, and a valid car costs no allocation.
+ */
+public final class CompiledCarDetailsValidator {
+
+    static final String NOT_NULL = "must not be null";
+    static final String MISSING_ENGINE_DATA = "Missing engineCapacity or/and enginePower for non-electric vehicle.";
+    static final String MISSING_CO2_TYPE = "Missing CO2Type for vehicle with co2Emissions.";
+    static final Set<CarDetails.CarType> VAN_TYPES = EnumSet.of(N1, N1G);
+    static final String MISSING_FULL_MASS = "Invalid car type for missing fullMass. Car type must be one of " + VAN_TYPES;
+
+    private CompiledCarDetailsValidator() {
+    }
+
+    /**
+     * @return messages keyed by field path, empty if the car is valid
+     */
+    public static Map<String, String> validate(CarDetails carDetails) {
+        Map<String, String> errors = null;
+        if (carDetails.getYear() == null) {
+            errors = put(errors, "year", NOT_NULL);
+        }
+        if (carDetails.getCarType() == null) {
+            errors = put(errors, "carType", NOT_NULL);
+        }
+        if (!carDetails.isElectric()) {
+            if (carDetails.getCo2Emissions() == null) {
+                if (carDetails.getEngineCapacity() == null || carDetails.getEnginePower() == null) {
+                    errors = put(errors, "engineCapacity", MISSING_ENGINE_DATA);
+                }
+            } else if (carDetails.getCo2Type() == null) {
+                errors = put(errors, "co2Type", MISSING_CO2_TYPE);
+            }
+        }
+        if (carDetails.getFullMass() == null && !VAN_TYPES.contains(carDetails.getCarType())) {
+            errors = put(errors, "fullMass", MISSING_FULL_MASS);
+        }
+        return errors == null ? Map.of() : errors;
+    }
+
+    private static Map<String, String> put(Map<String, String> errors, String field, String message) {
+        Map<String, String> result = errors == null ? new HashMap<>(8) : errors;
+        result.put(field, message);
+        return result;
+    }
+}
@@ -0,0 +1,48 @@
+package ee.tenman.automaks.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A {@link TaxResponse} together with its JSON, encoded once and written as-is to every caller that shares it. Other
+ * formats, such as CBOR, are still written from the response.
+ */
+@Schema(implementation = TaxResponse.class)
+public record EncodedTaxResponse(TaxResponse taxResponse, SerializableString json) implements JsonSerializable {
+
+    public static EncodedTaxResponse of(TaxResponse taxResponse, ObjectMapper objectMapper) {
+        try {
+            SerializedString json = new SerializedString(objectMapper.writeValueAsString(taxResponse));
+            json.asUnquotedUTF8();
+            return new EncodedTaxResponse(taxResponse, json);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        if (generator instanceof JsonGeneratorImpl) {
+            generator.writeRawValue(json);
+        } else {
+            serializers.defaultSerializeValue(taxResponse, generator);
+        }
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer)
+            throws IOException {
+        serialize(generator, serializers);
+    }
+}
@@ -0,0 +1,11 @@
+package ee.tenman.automaks.dto;
+
+import java.util.Map;
+
+public record FleetTaxSummary(
+        TaxStatistics total,
+        Map<CarDetails.CarType, TaxStatistics> byCarType,
+        Map<AgeBand, TaxStatistics> byAgeBand,
+        long rejectedCars
+) {
+}
@@ -0,0 +1,53 @@
+package ee.tenman.automaks.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * How the two taxes of one car were made up. Each tax is {@code baseAmount + (co2Component + massComponent) *
+ * ageDiscountFactor}, rounded to cents; the components are left unrounded so that they add up to the totals exactly.
+ *
+ * @param calculationPath {@code CO2}, {@code DISPLACEMENT_AND_POWER} or {@code ELECTRIC}
+ */
+public record TaxBreakdown(
+        BigDecimal registrationTax,
+        BigDecimal annualTax,
+        int vehicleAge,
+        BigDecimal ageDiscountFactor,
+        String calculationPath,
+        Component registration,
+        Component annual) {
+
+    public TaxBreakdown(BigDecimal registrationTax, BigDecimal annualTax, int vehicleAge, BigDecimal ageDiscountFactor,
+                        String calculationPath, Component registration, Component annual) {
+        this.registrationTax = registrationTax.setScale(2, RoundingMode.HALF_UP);
+        this.annualTax = annualTax.setScale(2, RoundingMode.HALF_UP);
+        this.vehicleAge = vehicleAge;
+        this.ageDiscountFactor = ageDiscountFactor;
+        this.calculationPath = calculationPath;
+        this.registration = registration;
+        this.annual = annual;
+    }
+
+    /**
+     * @param co2Basis    grams per km the CO2 brackets were applied to, after NEDC conversion for the registration tax;
+     *                    absent when the CO2 component is not priced from emissions
+     * @param co2Brackets the CO2 brackets up to and including the one {@code co2Basis} falls into
+     */
+    public record Component(
+            BigDecimal baseAmount,
+            BigDecimal co2Basis,
+            BigDecimal co2Component,
+            List<BracketShare> co2Brackets,
+            BigDecimal massComponent,
+            List<BracketShare> massBrackets) {
+    }
+
+    /**
+     * The part of a component charged in one bracket: {@code (to - from) * rate}. In the last bracket listed
+     * {@code to} is the car's own value.
+     */
+    public record BracketShare(BigDecimal from, BigDecimal to, BigDecimal rate, BigDecimal amount) {
+    }
+}
@@ -0,0 +1,7 @@
+package ee.tenman.automaks.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record TaxProjection(List<AnnualTaxProjection> years, BigDecimal totalAnnualTax) {
+}
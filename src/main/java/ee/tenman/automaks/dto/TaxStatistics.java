@@ -0,0 +1,4 @@
+package ee.tenman.automaks.dto;
+
+public record TaxStatistics(long count, AmountStatistics registrationTax, AmountStatistics annualTax) {
+}
@@ -0,0 +1,85 @@
+package ee.tenman.automaks.fleet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Growable ASCII output buffer. Numbers are written digit by digit so no {@link String} is built per value.
+ */
+final class AsciiBuffer {
+
+    private byte[] bytes;
+    private int size;
+
+    AsciiBuffer(int initialCapacity) {
+        this.bytes = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    AsciiBuffer writeByte(int b) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) b;
+        return this;
+    }
+
+    AsciiBuffer writeAscii(String text) {
+        ensureCapacity(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            bytes[size++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+
+    AsciiBuffer writeLong(long value) {
+        if (value < 0) {
+            writeByte('-');
+            if (value == Long.MIN_VALUE) {
+                return writeAscii("9223372036854775808");
+            }
+            value = -value;
+        }
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = size + digits - 1; i >= size; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+        return this;
+    }
+
+    /**
+     * Writes an amount given in cents with exactly two decimals, the same text {@code BigDecimal.toPlainString()}
+     * produces at scale 2.
+     */
+    AsciiBuffer writeCents(long cents) {
+        if (cents < 0) {
+            writeByte('-');
+            cents = -cents;
+        }
+        writeLong(cents / 100).writeByte('.');
+        long fraction = cents % 100;
+        return writeByte((int) ('0' + fraction / 10)).writeByte((int) ('0' + fraction % 10));
+    }
+
+    int size() {
+        return size;
+    }
+
+    void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, size);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void ensureCapacity(int additional) {
+        if (size + additional > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ee.tenman.automaks.fleet;
+
+import java.time.Duration;
+
+public record FleetBatchResult(long rows, long rejectedRows, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : rows * 1e9 / nanos;
+    }
+}
@@ -0,0 +1,237 @@
+package ee.tenman.automaks.fleet;
+
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.TaxResponse;
+import ee.tenman.automaks.service.CarDetailsValidationService;
+import ee.tenman.automaks.service.TaxCalculationMetrics;
+import ee.tenman.automaks.service.TaxCalculation;
+import ee.tenman.automaks.service.TaxCalculatorRegistry;
+import ee.tenman.automaks.service.TaxContext;
+import ee.tenman.automaks.service.TaxContextProvider;
+import ee.tenman.automaks.service.UnsupportedCarTypeException;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Prices a fleet CSV (see {@link FleetRowParser} for the columns) in parallel. The input is split into chunks on line
+ * boundaries, each chunk is memory-mapped and processed by a worker into its own byte buffer, and the buffers are
+ * written out in input order.
+ * <p>
+ * The output has one {@code registrationTax,annualTax} line per input line, so line numbers match; rows that are
+ * rejected leave both columns empty and get one {@code line,field,message} entry per problem in the reject file.
+ * The whole file is priced under the rule set and tax year in force when processing starts.
+ */
+@Service
+@Slf4j
+public class FleetFileProcessor {
+
+    private static final String OUTPUT_HEADER = "registrationTax,annualTax";
+    private static final String REJECTS_HEADER = "line,field,message";
+    private static final String MALFORMED_ROW = "Malformed row: ";
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final long MAX_CHUNK_SIZE = 1 << 30;
+    private static final int OUTPUT_BYTES_PER_ROW = 24;
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    @Resource
+    private TaxCalculatorRegistry taxCalculatorRegistry;
+
+    @Resource
+    private CarDetailsValidationService carDetailsValidationService;
+
+    @Resource
+    private TaxContextProvider taxContextProvider;
+
+    @Value("${automaks.fleet.workers:0}")
+    private int workers;
+
+    public FleetBatchResult process(Path input, Path output, Path rejects) throws IOException {
+        long startTime = System.nanoTime();
+        TaxContext context = taxContextProvider.current();
+        int parallelism = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        long rows = 0;
+        long rejectedRows = 0;
+
+        try (FileChannel inputChannel = FileChannel.open(input, READ);
+             FileChannel outputChannel = FileChannel.open(output, WRITE, CREATE, TRUNCATE_EXISTING);
+             FileChannel rejectsChannel = FileChannel.open(rejects, WRITE, CREATE, TRUNCATE_EXISTING);
+             ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            List<Chunk> chunks = split(inputChannel, parallelism * CHUNKS_PER_WORKER);
+            List<Future<ChunkResult>> results = new ArrayList<>(chunks.size());
+            for (Chunk chunk : chunks) {
+                results.add(executor.submit(() -> processChunk(inputChannel, chunk, context)));
+            }
+
+            new AsciiBuffer(REJECTS_HEADER.length() + 1).writeAscii(REJECTS_HEADER).writeByte('\n').writeTo(rejectsChannel);
+            long linesBefore = 0;
+            for (Future<ChunkResult> future : results) {
+                ChunkResult result = await(future);
+                result.output().writeTo(outputChannel);
+                writeRejects(result.rejects(), linesBefore, rejectsChannel);
+                linesBefore += result.lines();
+                rows += result.rows();
+                rejectedRows += result.rejectedRows();
+            }
+        }
+
+        FleetBatchResult result = new FleetBatchResult(rows, rejectedRows, Duration.ofNanos(System.nanoTime() - startTime));
+        log.info("Priced {} fleet rows ({} rejected) from {} in {} ms, {} rows/s", result.rows(), result.rejectedRows(),
+                input, result.elapsed().toMillis(), Math.round(result.rowsPerSecond()));
+        return result;
+    }
+
+    private ChunkResult processChunk(FileChannel channel, Chunk chunk, TaxContext context) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(), chunk.length());
+        int length = (int) chunk.length();
+        AsciiBuffer output = new AsciiBuffer(length / 2 + OUTPUT_BYTES_PER_ROW);
+        List<Reject> rejects = new ArrayList<>();
+        long lines = 0;
+        long rows = 0;
+        long rejectedRows = 0;
+
+        int lineStart = 0;
+        while (lineStart < length) {
+            int newline = lineStart;
+            while (newline < length && buffer.get(newline) != '\n') {
+                newline++;
+            }
+            int lineEnd = newline > lineStart && buffer.get(newline - 1) == '\r' ? newline - 1 : newline;
+            lines++;
+
+            if (lineEnd == lineStart) {
+                output.writeByte('\n');
+            } else if (chunk.index() == 0 && lines == 1 && FleetRowParser.isHeader(buffer, lineStart, lineEnd)) {
+                output.writeAscii(OUTPUT_HEADER).writeByte('\n');
+            } else {
+                rows++;
+                int rejectCount = rejects.size();
+                processRow(buffer, lineStart, lineEnd, lines, context, output, rejects);
+                if (rejects.size() > rejectCount) {
+                    rejectedRows++;
+                }
+            }
+            lineStart = newline + 1;
+        }
+        return new ChunkResult(output, rejects, lines, rows, rejectedRows);
+    }
+
+    private void processRow(ByteBuffer buffer, int start, int end, long line, TaxContext context, AsciiBuffer output,
+                            List<Reject> rejects) {
+        try {
+            CarDetails carDetails = FleetRowParser.parse(buffer, start, end);
+            Map<String, String> validationErrors = carDetailsValidationService.validate(carDetails, TaxCalculationMetrics.SOURCE_FLEET);
+            if (!validationErrors.isEmpty()) {
+                validationErrors.forEach((field, message) -> rejects.add(new Reject(line, field, message)));
+            } else {
+                TaxCalculation calculation = taxCalculatorRegistry.getTaxCalculator(carDetails.getCarType()).calculate(carDetails, context);
+                TaxResponse taxResponse = new TaxResponse(calculation.registrationTax(), calculation.annualTax());
+                output.writeCents(taxResponse.registrationTax().unscaledValue().longValueExact())
+                        .writeByte(',')
+                        .writeCents(taxResponse.annualTax().unscaledValue().longValueExact())
+                        .writeByte('\n');
+                return;
+            }
+        } catch (FleetRowParser.MalformedRowException e) {
+            rejects.add(new Reject(line, "", MALFORMED_ROW + e.getMessage()));
+        } catch (UnsupportedCarTypeException e) {
+            rejects.add(new Reject(line, "carType", e.getMessage()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to price fleet line {}: {}", line, e.getMessage());
+            rejects.add(new Reject(line, "", String.valueOf(e.getMessage())));
+        }
+        output.writeByte(',').writeByte('\n');
+    }
+
+    private static void writeRejects(List<Reject> rejects, long linesBefore, FileChannel channel) throws IOException {
+        if (rejects.isEmpty()) {
+            return;
+        }
+        AsciiBuffer buffer = new AsciiBuffer(rejects.size() * 64);
+        for (Reject reject : rejects) {
+            buffer.writeLong(linesBefore + reject.line()).writeByte(',')
+                    .writeAscii(reject.field()).writeByte(',')
+                    .writeByte('"').writeAscii(reject.message().replace("\"", "\"\"")).writeByte('"')
+                    .writeByte('\n');
+        }
+        buffer.writeTo(channel);
+    }
+
+    private static List<Chunk> split(FileChannel channel, int chunkCount) throws IOException {
+        long size = channel.size();
+        long targetSize = Math.min(MAX_CHUNK_SIZE, Math.max(1, (size + chunkCount - 1) / chunkCount));
+        List<Chunk> chunks = new ArrayList<>(chunkCount);
+        long start = 0;
+        while (start < size) {
+            long end = start + targetSize >= size ? size : nextLineStart(channel, start + targetSize);
+            chunks.add(new Chunk(chunks.size(), start, end - start));
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long offset = position - 1;
+        while (true) {
+            scan.clear();
+            int read = channel.read(scan, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    private static ChunkResult await(Future<ChunkResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while pricing fleet file", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            throw new IllegalStateException("Failed to price fleet file", e.getCause());
+        }
+    }
+
+    private record Chunk(int index, long start, long length) {
+    }
+
+    private record Reject(long line, String field, String message) {
+    }
+
+    private record ChunkResult(AsciiBuffer output, List<Reject> rejects, long lines, long rows, long rejectedRows) {
+    }
+}
@@ -0,0 +1,171 @@
+package ee.tenman.automaks.fleet;
+
+import ee.tenman.automaks.dto.CarDetails;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Parses one fleet CSV row straight from the mapped bytes. Numbers and enum names are decoded in place, so the only
+ * objects created for a well-formed row are the {@link CarDetails} and its boxed fields.
+ * <p>
+ * Columns: {@code carType,year,fullMass,co2Emissions,co2Type,electric,engineCapacity,enginePower}. Empty fields are
+ * {@code null}, an empty {@code electric} is {@code false}.
+ */
+@NoArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+final class FleetRowParser {
+
+    static final String HEADER = "carType,year,fullMass,co2Emissions,co2Type,electric,engineCapacity,enginePower";
+
+    private static final int COLUMN_COUNT = 8;
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final byte[] HEADER_BYTES = HEADER.getBytes(US_ASCII);
+    private static final CarDetails.CarType[] CAR_TYPES = CarDetails.CarType.values();
+    private static final byte[][] CAR_TYPE_NAMES = names(CAR_TYPES);
+    private static final CarDetails.CO2Type[] CO2_TYPES = CarDetails.CO2Type.values();
+    private static final byte[][] CO2_TYPE_NAMES = names(CO2_TYPES);
+    private static final byte[] TRUE = "true".getBytes(US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(US_ASCII);
+
+    static boolean isHeader(ByteBuffer buffer, int start, int end) {
+        return matches(buffer, start, end, HEADER_BYTES);
+    }
+
+    static CarDetails parse(ByteBuffer buffer, int start, int end) {
+        int[] bounds = new int[COLUMN_COUNT + 1];
+        bounds[0] = start;
+        int column = 1;
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == ',') {
+                if (column == COLUMN_COUNT) {
+                    throw new MalformedRowException("Expected " + COLUMN_COUNT + " columns");
+                }
+                bounds[column++] = i + 1;
+            }
+        }
+        if (column != COLUMN_COUNT) {
+            throw new MalformedRowException("Expected " + COLUMN_COUNT + " columns but found " + column);
+        }
+        bounds[COLUMN_COUNT] = end + 1;
+
+        return CarDetails.builder()
+                .carType(parseEnum(buffer, bounds[0], bounds[1] - 1, CAR_TYPES, CAR_TYPE_NAMES, "carType"))
+                .year(parseInteger(buffer, bounds[1], bounds[2] - 1, "year"))
+                .fullMass(parseInteger(buffer, bounds[2], bounds[3] - 1, "fullMass"))
+                .co2Emissions(parseDecimal(buffer, bounds[3], bounds[4] - 1))
+                .co2Type(parseEnum(buffer, bounds[4], bounds[5] - 1, CO2_TYPES, CO2_TYPE_NAMES, "co2Type"))
+                .electric(parseBoolean(buffer, bounds[5], bounds[6] - 1))
+                .engineCapacity(parseInteger(buffer, bounds[6], bounds[7] - 1, "engineCapacity"))
+                .enginePower(parseInteger(buffer, bounds[7], bounds[8] - 1, "enginePower"))
+                .build();
+    }
+
+    private static Integer parseInteger(ByteBuffer buffer, int start, int end, String column) {
+        if (start == end) {
+            return null;
+        }
+        boolean negative = buffer.get(start) == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end || end - i > 9) {
+            throw new MalformedRowException("Invalid " + column);
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new MalformedRowException("Invalid " + column);
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private static BigDecimal parseDecimal(ByteBuffer buffer, int start, int end) {
+        if (start == end) {
+            return null;
+        }
+        boolean negative = buffer.get(start) == '-';
+        int i = negative ? start + 1 : start;
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9) {
+                throw new MalformedRowException("Invalid co2Emissions");
+            }
+            unscaled = unscaled * 10 + digit;
+            digits++;
+            if (scale >= 0) {
+                scale++;
+            }
+        }
+        if (digits == 0) {
+            throw new MalformedRowException("Invalid co2Emissions");
+        }
+        if (digits > MAX_LONG_DIGITS) {
+            byte[] text = new byte[end - start];
+            buffer.get(start, text);
+            return new BigDecimal(new String(text, US_ASCII));
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    private static boolean parseBoolean(ByteBuffer buffer, int start, int end) {
+        if (start == end || matches(buffer, start, end, FALSE)) {
+            return false;
+        }
+        if (matches(buffer, start, end, TRUE)) {
+            return true;
+        }
+        throw new MalformedRowException("Invalid electric");
+    }
+
+    private static <E extends Enum<E>> E parseEnum(ByteBuffer buffer, int start, int end, E[] values, byte[][] names,
+                                                   String column) {
+        if (start == end) {
+            return null;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (matches(buffer, start, end, names[i])) {
+                return values[i];
+            }
+        }
+        throw new MalformedRowException("Invalid " + column);
+    }
+
+    private static boolean matches(ByteBuffer buffer, int start, int end, byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[][] names(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name().getBytes(US_ASCII);
+        }
+        return names;
+    }
+
+    static final class MalformedRowException extends RuntimeException {
+
+        MalformedRowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ee.tenman.automaks.service;
+
+/**
+ * The rule sets requests are priced with. A reload replaces the whole immutable {@link TaxRuleSets} through this one
+ * volatile reference, so a reader sees either the old or the new version and never a mix, without taking a lock.
+ */
+public class ActiveTaxRules {
+
+    private volatile TaxRuleSets taxRuleSets;
+
+    public ActiveTaxRules(TaxRuleSets taxRuleSets) {
+        this.taxRuleSets = taxRuleSets;
+    }
+
+    public TaxRuleSets get() {
+        return taxRuleSets;
+    }
+
+    void set(TaxRuleSets taxRuleSets) {
+        this.taxRuleSets = taxRuleSets;
+    }
+}
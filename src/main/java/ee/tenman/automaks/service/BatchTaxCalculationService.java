@@ -0,0 +1,73 @@
+package ee.tenman.automaks.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.tenman.automaks.dto.BatchTaxResponse;
+import ee.tenman.automaks.dto.CarDetails;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class BatchTaxCalculationService {
+
+    private static final String VALIDATION_ERROR = "Validation error";
+    private static final String MISSING_CAR_DETAILS = "Missing car details";
+
+    @Resource
+    private TaxCalculationService taxCalculationService;
+
+    @Resource
+    private CarDetailsValidationService carDetailsValidationService;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    public Flux<BatchTaxResponse> calculateTaxes(Flux<String> lines) {
+        return lines.index()
+                .filter(indexedLine -> !indexedLine.getT2().isBlank())
+                .concatMap(indexedLine -> calculateTax(indexedLine.getT1() + 1, indexedLine.getT2()));
+    }
+
+    /**
+     * Same as the line-based variant for cars that are already decoded, numbered by their position from 1.
+     */
+    public Flux<BatchTaxResponse> calculateTaxes(List<CarDetails> cars) {
+        return Flux.range(0, cars.size())
+                .concatMap(index -> calculateTax(index + 1, cars.get(index)));
+    }
+
+    private Mono<BatchTaxResponse> calculateTax(long lineNumber, String line) {
+        CarDetails carDetails;
+        try {
+            carDetails = objectMapper.readValue(line, CarDetails.class);
+        } catch (JsonProcessingException e) {
+            return Mono.just(BatchTaxResponse.failure(lineNumber, "Malformed car details: " + e.getOriginalMessage()));
+        }
+        return calculateTax(lineNumber, carDetails);
+    }
+
+    private Mono<BatchTaxResponse> calculateTax(long lineNumber, CarDetails carDetails) {
+        if (carDetails == null) {
+            return Mono.just(BatchTaxResponse.failure(lineNumber, MISSING_CAR_DETAILS));
+        }
+
+        Map<String, String> validationErrors = carDetailsValidationService.validate(carDetails, TaxCalculationMetrics.SOURCE_BATCH);
+        if (!validationErrors.isEmpty()) {
+            return Mono.just(BatchTaxResponse.failure(lineNumber, VALIDATION_ERROR, validationErrors));
+        }
+
+        return Mono.defer(() -> taxCalculationService.calculateTax(carDetails))
+                .map(taxResponse -> BatchTaxResponse.success(lineNumber, taxResponse))
+                .onErrorResume(RuntimeException.class, e -> {
+                    log.warn("Failed to calculate tax for batch line {}: {}", lineNumber, e.getMessage());
+                    return Mono.just(BatchTaxResponse.failure(lineNumber, e.getLocalizedMessage()));
+                });
+    }
+}
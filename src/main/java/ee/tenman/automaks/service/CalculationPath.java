@@ -0,0 +1,16 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+
+public enum CalculationPath {
+    ELECTRIC,
+    CO2,
+    DISPLACEMENT_AND_POWER;
+
+    public static CalculationPath of(CarDetails carDetails) {
+        if (carDetails.isElectric()) {
+            return ELECTRIC;
+        }
+        return carDetails.getCo2Emissions() != null ? CO2 : DISPLACEMENT_AND_POWER;
+    }
+}
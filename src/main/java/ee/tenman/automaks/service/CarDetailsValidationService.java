@@ -0,0 +1,71 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.config.aspect.LoggingAspect;
+import ee.tenman.automaks.config.jfr.ValidationEvent;
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.CompiledCarDetailsValidator;
+import jakarta.annotation.Resource;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates car details for every entry point. The {@link ValidationEngine#COMPILED compiled} engine is the default;
+ * {@link ValidationEngine#BEAN_VALIDATION} runs the annotated constraints through Hibernate Validator instead and
+ * gives the same field paths and messages.
+ */
+@Service
+public class CarDetailsValidationService {
+
+    @Resource
+    private Validator validator;
+
+    @Resource
+    private TaxCalculationMetrics taxCalculationMetrics;
+
+    @Value("${automaks.validation.engine:compiled}")
+    private ValidationEngine validationEngine;
+
+    public Map<String, String> validate(CarDetails carDetails, String source) {
+        ValidationEvent event = new ValidationEvent();
+        event.begin();
+        Map<String, String> errors = validationEngine == ValidationEngine.COMPILED
+                ? CompiledCarDetailsValidator.validate(carDetails)
+                : validateWithBeanValidation(carDetails);
+        if (!errors.isEmpty()) {
+            taxCalculationMetrics.recordValidationFailures(errors.keySet(), source);
+        }
+        if (event.shouldCommit()) {
+            event.commit(carDetails, LoggingAspect.currentTransactionId(), source, errors.size());
+        }
+        return errors;
+    }
+
+    /**
+     * @throws InvalidCarDetailsException if the car is not valid
+     */
+    public void requireValid(CarDetails carDetails, String source) {
+        Map<String, String> errors = validate(carDetails, source);
+        if (!errors.isEmpty()) {
+            throw new InvalidCarDetailsException(errors);
+        }
+    }
+
+    private Map<String, String> validateWithBeanValidation(CarDetails carDetails) {
+        Set<ConstraintViolation<CarDetails>> violations = validator.validate(carDetails);
+        if (violations.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<CarDetails> violation : violations) {
+            errors.putIfAbsent(violation.getPropertyPath().toString(),
+                    violation.getMessage() != null ? violation.getMessage() : "Invalid value");
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,238 @@
+package ee.tenman.automaks.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ee.tenman.automaks.dto.CarDetails;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static ee.tenman.automaks.dto.CarDetails.CO2Type.NEDC;
+import static ee.tenman.automaks.dto.CarDetails.CarType.M1;
+import static ee.tenman.automaks.dto.CarDetails.CarType.M1G;
+
+/**
+ * Same rules as {@link StandardCarTaxCalculator}, evaluated in scaled longs so that the only allocation per call is
+ * the returned {@link BigDecimal}. Each {@link TaxRules} set is compiled to those scales the first time it is used and
+ * held weakly, so sets replaced by a reload are dropped with their compiled form.
+ * <p>
+ * CO2 is kept in units of 10<sup>-5</sup> g/km (milligrams times the NEDC factor of 1.24), money before the age
+ * discount in micro-euros and the discounted result in 10<sup>-8</sup> euros, which keeps every intermediate exact.
+ * Inputs that do not fit that grid (more than three CO2 decimals, absurd magnitudes) and rule sets whose rates do not
+ * are delegated to the {@link BigDecimal} engine.
+ */
+@Component
+@ConditionalOnProperty(name = "automaks.calculation.engine", havingValue = "fixed-point")
+public class FixedPointCarTaxCalculator implements TaxCalculator {
+
+    private static final Set<CarDetails.CarType> SUPPORTED_CAR_TYPES = Set.of(M1, M1G);
+
+    private static final StandardCarTaxCalculator FALLBACK = new StandardCarTaxCalculator();
+
+    private static final long OUT_OF_RANGE = Long.MIN_VALUE;
+    private static final int MAX_CO2_SCALE = 3;
+    private static final double MAX_CO2_GRAMS = 1_000_000;
+    private static final int MAX_ENGINE_VALUE = 1_000_000;
+
+    private static final long CO2_UNITS_PER_MILLIGRAM = 100;
+    private static final int CO2_SCALE = 5;
+    private static final int AMOUNT_SCALE = 6;
+    private static final int PERCENTAGE_SCALE = 2;
+    private static final int RESULT_SCALE = AMOUNT_SCALE + PERCENTAGE_SCALE;
+    private static final long NO_AGE_DISCOUNT = 100;
+
+    private final Cache<TaxRules, Optional<CompiledRules>> compiledRules = Caffeine.newBuilder().weakKeys().build();
+
+    @Override
+    public Set<CarDetails.CarType> supportedCarTypes() {
+        return SUPPORTED_CAR_TYPES;
+    }
+
+    @Override
+    public BigDecimal calculateRegistrationTax(CarDetails carDetails, TaxContext context) {
+        CompiledRules rules = compile(context.rules());
+        long co2Component = rules == null ? OUT_OF_RANGE : calculateCO2Component(carDetails, rules);
+        if (co2Component == OUT_OF_RANGE) {
+            return FALLBACK.calculateRegistrationTax(carDetails, context);
+        }
+        long massComponent = rules.massTax(carDetails.isElectric()).apply(carDetails.getFullMass());
+        long discountedCO2AndMass = (co2Component + massComponent)
+                * rules.ageDiscountPercentage(context.vehicleAge(carDetails.getYear()));
+        return BigDecimal.valueOf(rules.baseRegistrationAmount() + discountedCO2AndMass, RESULT_SCALE);
+    }
+
+    @Override
+    public BigDecimal calculateAnnualTax(CarDetails carDetails, TaxContext context) {
+        CompiledRules rules = compile(context.rules());
+        long co2AndMass = rules == null ? OUT_OF_RANGE : calculateAnnualCO2AndMass(carDetails, rules);
+        if (co2AndMass == OUT_OF_RANGE) {
+            return FALLBACK.calculateAnnualTax(carDetails, context);
+        }
+        long discountedCO2AndMass = co2AndMass * rules.ageDiscountPercentage(context.vehicleAge(carDetails.getYear()));
+        return BigDecimal.valueOf(rules.baseAnnualAmount() + discountedCO2AndMass, RESULT_SCALE);
+    }
+
+    /**
+     * Compiled rules, vehicle age and age discount are looked up once for both taxes. A breakdown is explained by the
+     * {@link BigDecimal} engine, which arrives at the same amounts.
+     */
+    @Override
+    public TaxCalculation calculate(CarDetails carDetails, TaxContext context, boolean breakdown) {
+        CompiledRules rules = breakdown ? null : compile(context.rules());
+        long co2Component = rules == null ? OUT_OF_RANGE : calculateCO2Component(carDetails, rules);
+        long annualCO2AndMass = co2Component == OUT_OF_RANGE ? OUT_OF_RANGE : calculateAnnualCO2AndMass(carDetails, rules);
+        if (annualCO2AndMass == OUT_OF_RANGE) {
+            return FALLBACK.calculate(carDetails, context, breakdown);
+        }
+        long massComponent = rules.massTax(carDetails.isElectric()).apply(carDetails.getFullMass());
+        long ageDiscountPercentage = rules.ageDiscountPercentage(context.vehicleAge(carDetails.getYear()));
+        return new TaxCalculation(
+                BigDecimal.valueOf(rules.baseRegistrationAmount() + (co2Component + massComponent) * ageDiscountPercentage, RESULT_SCALE),
+                BigDecimal.valueOf(rules.baseAnnualAmount() + annualCO2AndMass * ageDiscountPercentage, RESULT_SCALE),
+                null);
+    }
+
+    @Override
+    public List<BigDecimal> projectAnnualTax(CarDetails carDetails, TaxContext context, int years) {
+        CompiledRules rules = compile(context.rules());
+        long co2AndMass = rules == null ? OUT_OF_RANGE : calculateAnnualCO2AndMass(carDetails, rules);
+        if (co2AndMass == OUT_OF_RANGE) {
+            return FALLBACK.projectAnnualTax(carDetails, context, years);
+        }
+        int vehicleAge = context.vehicleAge(carDetails.getYear());
+
+        List<BigDecimal> annualTaxes = new ArrayList<>(years);
+        long ageDiscountPercentage = -1;
+        BigDecimal annualTax = null;
+        for (int i = 0; i < years; i++) {
+            long yearAgeDiscountPercentage = rules.ageDiscountPercentage(vehicleAge + i);
+            if (yearAgeDiscountPercentage != ageDiscountPercentage) {
+                ageDiscountPercentage = yearAgeDiscountPercentage;
+                annualTax = BigDecimal.valueOf(rules.baseAnnualAmount() + co2AndMass * ageDiscountPercentage, RESULT_SCALE);
+            }
+            annualTaxes.add(annualTax);
+        }
+        return annualTaxes;
+    }
+
+    private CompiledRules compile(TaxRules rules) {
+        return compiledRules.get(rules, CompiledRules::compile).orElse(null);
+    }
+
+    private static long calculateCO2Component(CarDetails carDetails, CompiledRules rules) {
+        if (carDetails.isElectric()) {
+            return 0;
+        }
+
+        if (carDetails.getCo2Emissions() == null) {
+            int engineCapacity = carDetails.getEngineCapacity();
+            int enginePower = carDetails.getEnginePower();
+            if (Math.abs(engineCapacity) > MAX_ENGINE_VALUE || Math.abs(enginePower) > MAX_ENGINE_VALUE) {
+                return OUT_OF_RANGE;
+            }
+            return engineCapacity * rules.displacementRate() + enginePower * rules.powerRate();
+        }
+        long co2Milligrams = toMilligrams(carDetails.getCo2Emissions());
+        if (co2Milligrams == OUT_OF_RANGE) {
+            return OUT_OF_RANGE;
+        }
+        long unitsPerMilligram = NEDC == carDetails.getCo2Type() ? rules.nedcCo2UnitsPerMilligram() : CO2_UNITS_PER_MILLIGRAM;
+        return rules.registrationCo2Tax().apply(co2Milligrams * unitsPerMilligram);
+    }
+
+    private static long calculateAnnualCO2AndMass(CarDetails carDetails, CompiledRules rules) {
+        long co2Component = 0;
+        if (carDetails.getCo2Emissions() != null) {
+            long co2Milligrams = toMilligrams(carDetails.getCo2Emissions());
+            if (co2Milligrams == OUT_OF_RANGE) {
+                return OUT_OF_RANGE;
+            }
+            co2Component = rules.annualCo2Tax().apply(co2Milligrams * CO2_UNITS_PER_MILLIGRAM);
+        }
+        return co2Component + rules.annualMassTax(carDetails.isElectric()).apply(carDetails.getFullMass());
+    }
+
+    /**
+     * {@link BigDecimal#doubleValue()} does not allocate for compact values, and with at most three decimals below
+     * {@link #MAX_CO2_GRAMS} the rounded double is exactly the milligram count.
+     */
+    private static long toMilligrams(BigDecimal co2Emissions) {
+        if (co2Emissions.scale() > MAX_CO2_SCALE) {
+            return OUT_OF_RANGE;
+        }
+        double grams = co2Emissions.doubleValue();
+        if (!(Math.abs(grams) <= MAX_CO2_GRAMS)) {
+            return OUT_OF_RANGE;
+        }
+        return Math.round(grams * 1000);
+    }
+
+    private record CompiledRules(
+            long baseRegistrationAmount,
+            long baseAnnualAmount,
+            long displacementRate,
+            long powerRate,
+            long nedcCo2UnitsPerMilligram,
+            PiecewiseLinearFunction.Scaled registrationCo2Tax,
+            PiecewiseLinearFunction.Scaled annualCo2Tax,
+            PiecewiseLinearFunction.Scaled electricMassTax,
+            PiecewiseLinearFunction.Scaled nonElectricMassTax,
+            PiecewiseLinearFunction.Scaled electricAnnualMassTax,
+            PiecewiseLinearFunction.Scaled nonElectricAnnualMassTax,
+            int[] ageDiscountThresholds,
+            long[] ageDiscountPercentages
+    ) {
+
+        /**
+         * Empty if any rate is not exact on the fixed-point grid.
+         */
+        static Optional<CompiledRules> compile(TaxRules rules) {
+            try {
+                List<TaxRules.AgeDiscount> ageDiscounts = rules.getAgeDiscounts();
+                return Optional.of(new CompiledRules(
+                        toScaledLong(rules.getBaseRegistrationAmount(), RESULT_SCALE),
+                        toScaledLong(rules.getBaseAnnualAmount(), RESULT_SCALE),
+                        toScaledLong(rules.getDisplacementRate(), AMOUNT_SCALE),
+                        toScaledLong(rules.getPowerRate(), AMOUNT_SCALE),
+                        toScaledLong(rules.getNedcConversionFactor(), CO2_SCALE - MAX_CO2_SCALE),
+                        rules.registrationCo2Tax().scaled(CO2_SCALE, AMOUNT_SCALE),
+                        rules.annualCo2Tax().scaled(CO2_SCALE, AMOUNT_SCALE),
+                        rules.massTax(true).scaled(0, AMOUNT_SCALE),
+                        rules.massTax(false).scaled(0, AMOUNT_SCALE),
+                        rules.annualMassTax(true).scaled(0, AMOUNT_SCALE),
+                        rules.annualMassTax(false).scaled(0, AMOUNT_SCALE),
+                        ageDiscounts.stream().mapToInt(TaxRules.AgeDiscount::olderThan).toArray(),
+                        ageDiscounts.stream().mapToLong(ageDiscount -> toScaledLong(ageDiscount.factor(), PERCENTAGE_SCALE)).toArray()));
+            } catch (ArithmeticException e) {
+                return Optional.empty();
+            }
+        }
+
+        PiecewiseLinearFunction.Scaled massTax(boolean electric) {
+            return electric ? electricMassTax : nonElectricMassTax;
+        }
+
+        PiecewiseLinearFunction.Scaled annualMassTax(boolean electric) {
+            return electric ? electricAnnualMassTax : nonElectricAnnualMassTax;
+        }
+
+        long ageDiscountPercentage(int vehicleAge) {
+            for (int i = 0; i < ageDiscountThresholds.length; i++) {
+                if (vehicleAge > ageDiscountThresholds[i]) {
+                    return ageDiscountPercentages[i];
+                }
+            }
+            return NO_AGE_DISCOUNT;
+        }
+
+        private static long toScaledLong(BigDecimal value, int scale) {
+            return value.movePointRight(scale).setScale(0, RoundingMode.UNNECESSARY).longValueExact();
+        }
+    }
+}
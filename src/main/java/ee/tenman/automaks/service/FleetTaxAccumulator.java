@@ -0,0 +1,127 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.AgeBand;
+import ee.tenman.automaks.dto.AmountStatistics;
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.FleetTaxSummary;
+import ee.tenman.automaks.dto.TaxStatistics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mutable container for the fleet reduction. Each fork/join leaf fills its own instance, siblings are merged pairwise.
+ * Amounts are kept as cents in primitive arrays so neither per-car responses nor boxed values are retained.
+ */
+final class FleetTaxAccumulator {
+
+    private static final int CENTS_SCALE = 2;
+
+    private final Group total = new Group();
+    private final Map<CarDetails.CarType, Group> byCarType = new EnumMap<>(CarDetails.CarType.class);
+    private final Map<AgeBand, Group> byAgeBand = new HashMap<>();
+    private long rejectedCars;
+
+    void add(CarDetails.CarType carType, AgeBand ageBand, long registrationTaxCents, long annualTaxCents) {
+        total.add(registrationTaxCents, annualTaxCents);
+        byCarType.computeIfAbsent(carType, ignored -> new Group()).add(registrationTaxCents, annualTaxCents);
+        byAgeBand.computeIfAbsent(ageBand, ignored -> new Group()).add(registrationTaxCents, annualTaxCents);
+    }
+
+    void reject() {
+        rejectedCars++;
+    }
+
+    FleetTaxAccumulator merge(FleetTaxAccumulator other) {
+        total.merge(other.total);
+        other.byCarType.forEach((carType, group) -> byCarType.merge(carType, group, Group::merge));
+        other.byAgeBand.forEach((ageBand, group) -> byAgeBand.merge(ageBand, group, Group::merge));
+        rejectedCars += other.rejectedCars;
+        return this;
+    }
+
+    FleetTaxSummary summarize() {
+        Map<CarDetails.CarType, TaxStatistics> carTypeStatistics = new EnumMap<>(CarDetails.CarType.class);
+        byCarType.forEach((carType, group) -> carTypeStatistics.put(carType, group.statistics()));
+        Map<AgeBand, TaxStatistics> ageBandStatistics = new TreeMap<>();
+        byAgeBand.forEach((ageBand, group) -> ageBandStatistics.put(ageBand, group.statistics()));
+        return new FleetTaxSummary(total.statistics(), carTypeStatistics, ageBandStatistics, rejectedCars);
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.setScale(CENTS_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static final class Group {
+
+        private final LongList registrationTaxes = new LongList();
+        private final LongList annualTaxes = new LongList();
+
+        void add(long registrationTaxCents, long annualTaxCents) {
+            registrationTaxes.add(registrationTaxCents);
+            annualTaxes.add(annualTaxCents);
+        }
+
+        Group merge(Group other) {
+            registrationTaxes.addAll(other.registrationTaxes);
+            annualTaxes.addAll(other.annualTaxes);
+            return this;
+        }
+
+        TaxStatistics statistics() {
+            return new TaxStatistics(registrationTaxes.size, registrationTaxes.statistics(), annualTaxes.statistics());
+        }
+    }
+
+    private static final class LongList {
+
+        private long[] values = new long[16];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(LongList other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        AmountStatistics statistics() {
+            if (size == 0) {
+                return new AmountStatistics(toAmount(0), null, null, null, null, null);
+            }
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            long sum = 0;
+            for (long value : sorted) {
+                sum = Math.addExact(sum, value);
+            }
+            return new AmountStatistics(toAmount(sum), toAmount(sorted[0]), toAmount(sorted[size - 1]),
+                    toAmount(percentile(sorted, 50)), toAmount(percentile(sorted, 90)), toAmount(percentile(sorted, 99)));
+        }
+
+        /**
+         * Nearest-rank percentile: the smallest value with at least {@code percent}% of the values at or below it.
+         */
+        private static long percentile(long[] sorted, int percent) {
+            int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+            return sorted[Math.max(rank, 1) - 1];
+        }
+
+        private static BigDecimal toAmount(long cents) {
+            return BigDecimal.valueOf(cents, CENTS_SCALE);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.FleetTaxSummary;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@Slf4j
+public class FleetTaxAggregationService {
+
+    @Resource
+    private TaxCalculatorRegistry taxCalculatorRegistry;
+
+    @Resource
+    private CarDetailsValidationService carDetailsValidationService;
+
+    @Resource
+    private TaxContextProvider taxContextProvider;
+
+    public FleetTaxSummary aggregate(List<CarDetails> cars) {
+        TaxContext current = taxContextProvider.current();
+        return cars.parallelStream()
+                .collect(FleetTaxAccumulator::new,
+                        (accumulator, carDetails) -> accumulate(accumulator, carDetails, current),
+                        FleetTaxAccumulator::merge)
+                .summarize();
+    }
+
+    private void accumulate(FleetTaxAccumulator accumulator, CarDetails carDetails, TaxContext current) {
+        if (carDetails == null
+                || !carDetailsValidationService.validate(carDetails, TaxCalculationMetrics.SOURCE_AGGREGATE).isEmpty()
+                || !taxCalculatorRegistry.isSupported(carDetails.getCarType())) {
+            accumulator.reject();
+            return;
+        }
+        TaxCalculator taxCalculator = taxCalculatorRegistry.getTaxCalculator(carDetails.getCarType());
+        TaxContext context = taxContextProvider.resolve(carDetails, current);
+        TaxCalculation calculation = taxCalculator.calculate(carDetails, context);
+        accumulator.add(carDetails.getCarType(),
+                context.rules().ageBand(context.vehicleAge(carDetails.getYear())),
+                FleetTaxAccumulator.toCents(calculation.registrationTax()),
+                FleetTaxAccumulator.toCents(calculation.annualTax()));
+    }
+}
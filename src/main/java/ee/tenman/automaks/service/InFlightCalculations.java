@@ -0,0 +1,96 @@
+package ee.tenman.automaks.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.tenman.automaks.dto.EncodedTaxResponse;
+import ee.tenman.automaks.dto.TaxResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Singleflight for identical calculations. The first caller for a {@link TaxCalculationKey} publishes a shared,
+ * cached {@link Mono} that computes the response and encodes its JSON; callers arriving with the same key before that
+ * {@link Mono} terminates get it instead of computing and encoding again. The entry is removed when the {@link Mono}
+ * terminates, so this only joins requests that overlap in time and holds nothing afterwards, with or without
+ * {@link TaxResponseCache}.
+ * <p>
+ * Joining is a {@link ConcurrentHashMap#putIfAbsent}, so no caller blocks on another one. The calculation runs when
+ * the first caller subscribes, and a failure reaches every caller as an error signal.
+ */
+@Component
+@Slf4j
+public class InFlightCalculations {
+
+    static final String REQUESTS = "tax.calculation.coalescing.requests";
+    static final String IN_FLIGHT = "tax.calculation.coalescing.in.flight";
+
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final Map<TaxCalculationKey, Mono<EncodedTaxResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+
+    public InFlightCalculations(
+            @Value("${automaks.calculation.coalesce:true}") boolean enabled,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+        if (!enabled) {
+            log.info("Coalescing of identical in-flight calculations is disabled");
+        }
+        this.leaders = Counter.builder(REQUESTS)
+                .description("Calculations by whether they computed the response or joined an identical one in flight")
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.followers = Counter.builder(REQUESTS)
+                .description("Calculations by whether they computed the response or joined an identical one in flight")
+                .tag("role", "follower")
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT, inFlight, Map::size)
+                .description("Distinct calculations currently in flight")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Mono<EncodedTaxResponse> coalesce(TaxCalculationKey key, Supplier<TaxResponse> calculation) {
+        Flight flight = new Flight(key, calculation);
+        Mono<EncodedTaxResponse> leader = inFlight.putIfAbsent(key, flight.response);
+        if (leader != null) {
+            followers.increment();
+            return leader;
+        }
+        leaders.increment();
+        return flight.response;
+    }
+
+    private final class Flight {
+
+        private final TaxCalculationKey key;
+        private final Mono<EncodedTaxResponse> response;
+
+        private Flight(TaxCalculationKey key, Supplier<TaxResponse> calculation) {
+            this.key = key;
+            this.response = Mono.fromSupplier(calculation)
+                    .map(taxResponse -> EncodedTaxResponse.of(taxResponse, objectMapper))
+                    .doFinally(signal -> land())
+                    .cache();
+        }
+
+        private void land() {
+            inFlight.remove(key, response);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ee.tenman.automaks.service;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+public class InvalidCarDetailsException extends RuntimeException {
+
+    private final transient Map<String, String> validationErrors;
+
+    public InvalidCarDetailsException(Map<String, String> validationErrors) {
+        super("Invalid car details: " + validationErrors.keySet(), null, false, false);
+        this.validationErrors = validationErrors;
+    }
+}
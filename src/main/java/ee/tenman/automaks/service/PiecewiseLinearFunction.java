@@ -0,0 +1,176 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.TaxBreakdown;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Continuous piecewise-linear tax curve compiled from brackets. Each bracket starts at a breakpoint and has its own
+ * slope, the first bracket also extends below its breakpoint. The value at the first breakpoint is zero. An optional
+ * cap limits the result, whatever the rates; it is applied as a minimum rather than as a zero-slope bracket, because
+ * the point where a rate such as 0.3 reaches the cap has no exact decimal representation.
+ * <p>
+ * Intercepts are folded into one offset per bracket at build time, so evaluation is a binary search followed by a
+ * single multiply-add.
+ */
+final class PiecewiseLinearFunction {
+
+    private final BigDecimal[] breakpoints;
+    private final BigDecimal[] slopes;
+    private final BigDecimal[] offsets;
+    private final BigDecimal maximum;
+
+    private PiecewiseLinearFunction(BigDecimal[] breakpoints, BigDecimal[] slopes, BigDecimal[] offsets, BigDecimal maximum) {
+        this.breakpoints = breakpoints;
+        this.slopes = slopes;
+        this.offsets = offsets;
+        this.maximum = maximum;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    BigDecimal apply(BigDecimal x) {
+        int bracket = bracketOf(x);
+        BigDecimal value = x.multiply(slopes[bracket]).add(offsets[bracket]);
+        return maximum != null && value.compareTo(maximum) > 0 ? maximum : value;
+    }
+
+    int bracketOf(BigDecimal x) {
+        return toBracket(Arrays.binarySearch(breakpoints, x));
+    }
+
+    int bracketCount() {
+        return breakpoints.length;
+    }
+
+    BigDecimal breakpoint(int bracket) {
+        return breakpoints[bracket];
+    }
+
+    /**
+     * What each bracket up to the one {@code x} falls into contributes to {@link #apply(BigDecimal)}, lowest first.
+     * The shares add up to the value at {@code x}. Once the cap is reached, the share that reaches it is cut short and
+     * the rest up to {@code x} is listed at rate zero; the point where the cap is reached is rounded for display.
+     */
+    List<TaxBreakdown.BracketShare> shares(BigDecimal x) {
+        int bracket = bracketOf(x);
+        List<TaxBreakdown.BracketShare> shares = new ArrayList<>(bracket + 2);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i <= bracket; i++) {
+            BigDecimal to = i == bracket ? x : breakpoints[i + 1];
+            BigDecimal amount = to.subtract(breakpoints[i]).multiply(slopes[i]);
+            if (maximum != null && total.add(amount).compareTo(maximum) > 0) {
+                BigDecimal capped = maximum.subtract(total);
+                BigDecimal capPoint = breakpoints[i].add(capped.divide(slopes[i], MathContext.DECIMAL64));
+                shares.add(new TaxBreakdown.BracketShare(breakpoints[i], capPoint, slopes[i], capped));
+                shares.add(new TaxBreakdown.BracketShare(capPoint, x, BigDecimal.ZERO, BigDecimal.ZERO));
+                return shares;
+            }
+            shares.add(new TaxBreakdown.BracketShare(breakpoints[i], to, slopes[i], amount));
+            total = total.add(amount);
+        }
+        return shares;
+    }
+
+    Scaled scaled(int argumentScale, int valueScale) {
+        long[] scaledBreakpoints = new long[breakpoints.length];
+        long[] scaledSlopes = new long[slopes.length];
+        long[] scaledOffsets = new long[offsets.length];
+        for (int i = 0; i < breakpoints.length; i++) {
+            scaledBreakpoints[i] = toScaledLong(breakpoints[i], argumentScale);
+            scaledSlopes[i] = toScaledLong(slopes[i], valueScale - argumentScale);
+            scaledOffsets[i] = toScaledLong(offsets[i], valueScale);
+        }
+        long scaledMaximum = maximum != null ? toScaledLong(maximum, valueScale) : Long.MAX_VALUE;
+        return new Scaled(scaledBreakpoints, scaledSlopes, scaledOffsets, scaledMaximum);
+    }
+
+    private static long toScaledLong(BigDecimal value, int scale) {
+        return value.movePointRight(scale).setScale(0, RoundingMode.UNNECESSARY).longValueExact();
+    }
+
+    private static int toBracket(int searchResult) {
+        return searchResult >= 0 ? searchResult : Math.max(0, -searchResult - 2);
+    }
+
+    /**
+     * The same curve over scaled longs: arguments are multiplied by 10<sup>argumentScale</sup> and values by
+     * 10<sup>valueScale</sup>. Building fails if any breakpoint, slope or offset is not exact at those scales.
+     */
+    static final class Scaled {
+
+        private final long[] breakpoints;
+        private final long[] slopes;
+        private final long[] offsets;
+        private final long maximum;
+
+        private Scaled(long[] breakpoints, long[] slopes, long[] offsets, long maximum) {
+            this.breakpoints = breakpoints;
+            this.slopes = slopes;
+            this.offsets = offsets;
+            this.maximum = maximum;
+        }
+
+        long apply(long x) {
+            int bracket = toBracket(Arrays.binarySearch(breakpoints, x));
+            return Math.min(x * slopes[bracket] + offsets[bracket], maximum);
+        }
+    }
+
+    static final class Builder {
+
+        private final List<BigDecimal> breakpoints = new ArrayList<>();
+        private final List<BigDecimal> slopes = new ArrayList<>();
+        private BigDecimal maximum;
+
+        private Builder() {
+        }
+
+        Builder bracket(BigDecimal breakpoint, BigDecimal slope) {
+            if (!breakpoints.isEmpty() && breakpoint.compareTo(breakpoints.getLast()) <= 0) {
+                throw new IllegalArgumentException("Bracket breakpoints must be ascending: " + breakpoint);
+            }
+            breakpoints.add(breakpoint);
+            slopes.add(slope);
+            return this;
+        }
+
+        /**
+         * Limits the result to {@code maximum}, which must not be negative.
+         */
+        Builder capAt(BigDecimal maximum) {
+            if (maximum.signum() < 0) {
+                throw new IllegalArgumentException("Cap must not be negative: " + maximum);
+            }
+            this.maximum = maximum;
+            return this;
+        }
+
+        PiecewiseLinearFunction build() {
+            int size = breakpoints.size();
+            if (size == 0) {
+                throw new IllegalStateException("At least one bracket is required");
+            }
+            BigDecimal[] offsets = new BigDecimal[size];
+            BigDecimal intercept = BigDecimal.ZERO;
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    intercept = intercept.add(breakpoints.get(i).subtract(breakpoints.get(i - 1)).multiply(slopes.get(i - 1)));
+                }
+                offsets[i] = intercept.subtract(breakpoints.get(i).multiply(slopes.get(i)));
+            }
+            return new PiecewiseLinearFunction(
+                    breakpoints.toArray(BigDecimal[]::new),
+                    slopes.toArray(BigDecimal[]::new),
+                    offsets,
+                    maximum);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ee.tenman.automaks.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * The tax table file named by {@code automaks.tax-table.location}, generated by {@code TaxTableGenerator}. A table is
+ * only handed out for a {@link TaxRules} set whose fingerprint it was generated from, and only while the file's rule
+ * set version is the active one; a reload that changes the rates therefore falls back to computing until a new file
+ * is generated. A missing or corrupt file is logged and ignored.
+ */
+@Component
+@Slf4j
+public class PrecomputedTaxTables {
+
+    private final ActiveTaxRules activeTaxRules;
+    private final TaxTableFile.Contents contents;
+    private final Cache<TaxRules, Optional<TaxTable>> tables = Caffeine.newBuilder().weakKeys().build();
+    private volatile Binding last;
+
+    public PrecomputedTaxTables(@Value("${automaks.tax-table.location:}") String location, ActiveTaxRules activeTaxRules) {
+        this.activeTaxRules = activeTaxRules;
+        this.contents = location.isBlank() ? null : map(Path.of(location));
+    }
+
+    /**
+     * Writes the table file for {@code ruleSets}. Fails if a rate is not exact at the table's precision.
+     */
+    public static void write(Path file, TaxRuleSets ruleSets) throws IOException {
+        TaxTableFile.write(file, ruleSets);
+    }
+
+    /**
+     * Nearly every call asks for the rule set in force, so the last answer is kept in front of the weak-keyed cache.
+     */
+    TaxTable tableFor(TaxRules rules) {
+        if (contents == null) {
+            return null;
+        }
+        Binding binding = last;
+        if (binding == null || binding.rules() != rules) {
+            binding = new Binding(rules, tables.get(rules, this::bind).orElse(null));
+            last = binding;
+        }
+        return binding.table();
+    }
+
+    private Optional<TaxTable> bind(TaxRules rules) {
+        String activeVersion = activeTaxRules.get().version();
+        if (!contents.version().equals(activeVersion)) {
+            log.warn("Tax table {} was generated for rule set version {}, active is {}; computing instead",
+                    contents.source(), contents.version(), activeVersion);
+            return Optional.empty();
+        }
+        TaxTable table = contents.tables().get(TaxTableFile.fingerprint(rules));
+        if (table == null || !table.effectiveFrom().equals(rules.getEffectiveFrom())) {
+            log.warn("Tax table {} has no entry for {}; computing instead", contents.source(), rules);
+            return Optional.empty();
+        }
+        return Optional.of(table);
+    }
+
+    private static TaxTableFile.Contents map(Path file) {
+        try {
+            TaxTableFile.Contents contents = TaxTableFile.map(file);
+            log.info("Mapped tax table {} for rule set version {} with {} rule sets",
+                    file, contents.version(), contents.tables().size());
+            return contents;
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Tax table {} is not used: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private record Binding(TaxRules rules, TaxTable table) {
+    }
+}
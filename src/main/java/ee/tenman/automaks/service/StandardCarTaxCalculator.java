@@ -1,133 +1,193 @@
 package ee.tenman.automaks.service;
 
 import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.TaxBreakdown;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import static ee.tenman.automaks.dto.CarDetails.CO2Type.NEDC;
-import static org.apache.commons.lang3.compare.ComparableUtils.is;
+import static ee.tenman.automaks.dto.CarDetails.CarType.M1;
+import static ee.tenman.automaks.dto.CarDetails.CarType.M1G;
 
+@Component
+@ConditionalOnProperty(name = "automaks.calculation.engine", havingValue = "big-decimal", matchIfMissing = true)
 public class StandardCarTaxCalculator implements TaxCalculator {
 
-    private static final BigDecimal DISPLACEMENT_RATE = BigDecimal.valueOf(0.05);
-    private static final BigDecimal POWER_RATE = BigDecimal.valueOf(8.00);
-    private static final BigDecimal BASE_REGISTRATION_AMOUNT = BigDecimal.valueOf(300);
-    private static final BigDecimal CO2_CONVERSION_FACTOR_NEDC = BigDecimal.valueOf(1.24);
-    private static final BigDecimal ANNUAL_MASS_TAX_RATE = BigDecimal.valueOf(0.4);
-    private static final BigDecimal ELECTRIC_MASS_TAX_CAP = BigDecimal.valueOf(4400);
-    private static final BigDecimal NON_ELECTRIC_MASS_TAX_CAP = BigDecimal.valueOf(4000);
-    private static final int VEHICLE_AGE_DISCOUNT_THRESHOLD_20 = 20;
-    private static final int VEHICLE_AGE_DISCOUNT_THRESHOLD_15 = 15;
-    private static final int VEHICLE_AGE_DISCOUNT_THRESHOLD_10 = 10;
-    private static final int VEHICLE_AGE_DISCOUNT_THRESHOLD_5 = 5;
-    private static final BigDecimal AGE_DISCOUNT_OVER_15 = new BigDecimal("0.10");
-    private static final BigDecimal AGE_DISCOUNT_OVER_10 = new BigDecimal("0.50");
-    private static final BigDecimal AGE_DISCOUNT_OVER_5 = new BigDecimal("0.75");
-    private static final BigDecimal CO2_THRESHOLD_200 = BigDecimal.valueOf(200D);
-    private static final BigDecimal CO2_THRESHOLD_150 = BigDecimal.valueOf(150D);
-    private static final BigDecimal CO2_THRESHOLD_117 = BigDecimal.valueOf(117D);
-    private static final int EMISSION_RATE_200_PLUS = 80;
-    private static final int EMISSION_RATE_150_TO_200 = 60;
-    private static final int EMISSION_RATE_117_TO_150 = 40;
-    private static final int EMISSION_RATE_UP_TO_117 = 5;
-    private static final BigDecimal CO2_LOW_EMISSION_RATE = BigDecimal.valueOf(3);
-    private static final BigDecimal CO2_MEDIUM_EMISSION_RATE = BigDecimal.valueOf(3.5);
-    private static final BigDecimal CO2_HIGH_EMISSION_RATE = BigDecimal.valueOf(4);
+    private static final Set<CarDetails.CarType> SUPPORTED_CAR_TYPES = Set.of(M1, M1G);
+
+    private final PrecomputedTaxTables precomputedTaxTables;
+
+    public StandardCarTaxCalculator() {
+        this(null);
+    }
+
+    /**
+     * Answers from the precomputed table where the table covers the rule set and the input, and computes otherwise.
+     */
+    @Autowired
+    public StandardCarTaxCalculator(PrecomputedTaxTables precomputedTaxTables) {
+        this.precomputedTaxTables = precomputedTaxTables;
+    }
 
     @Override
-    public BigDecimal calculateRegistrationTax(CarDetails carDetails) {
-        BigDecimal co2Component = calculateCO2Component(carDetails);
-        BigDecimal massComponent = calculateMassComponent(carDetails.getFullMass(), carDetails.isElectric());
-        BigDecimal ageDiscountFactor = getAgeDiscountFactor(carDetails.getYear());
-        BigDecimal discountedCO2AndMass = co2Component.add(massComponent).multiply(ageDiscountFactor);
-        return BASE_REGISTRATION_AMOUNT.add(discountedCO2AndMass);
+    public Set<CarDetails.CarType> supportedCarTypes() {
+        return SUPPORTED_CAR_TYPES;
     }
 
     @Override
-    public BigDecimal calculateAnnualTax(CarDetails carDetails) {
-        BigDecimal co2Component = calculateAnnualCO2Component(carDetails.getCo2Emissions());
-        BigDecimal massComponent = calculateAnnualMassComponent(carDetails.getFullMass(), carDetails.isElectric());
-        BigDecimal ageDiscountFactor = getAgeDiscountFactor(carDetails.getYear());
+    public BigDecimal calculateRegistrationTax(CarDetails carDetails, TaxContext context) {
+        TaxTable table = taxTable(context);
+        BigDecimal precomputed = table != null ? table.registrationTax(carDetails, context.vehicleAge(carDetails.getYear())) : null;
+        if (precomputed != null) {
+            return precomputed;
+        }
+        TaxRules rules = context.rules();
+        BigDecimal co2Component = calculateCO2Component(carDetails, registrationCo2Basis(carDetails, rules), rules);
+        BigDecimal massComponent = calculateMassComponent(carDetails.getFullMass(), carDetails.isElectric(), rules);
+        BigDecimal ageDiscountFactor = rules.ageDiscountFactor(context.vehicleAge(carDetails.getYear()));
         BigDecimal discountedCO2AndMass = co2Component.add(massComponent).multiply(ageDiscountFactor);
-        return BASE_ANNUAL_AMOUNT.add(discountedCO2AndMass);
+        return rules.getBaseRegistrationAmount().add(discountedCO2AndMass);
     }
 
-    private BigDecimal calculateCO2Component(CarDetails carDetails) {
-        if (carDetails.isElectric()) {
-            return BigDecimal.ZERO;
+    @Override
+    public BigDecimal calculateAnnualTax(CarDetails carDetails, TaxContext context) {
+        TaxTable table = taxTable(context);
+        BigDecimal precomputed = table != null ? table.annualTax(carDetails, context.vehicleAge(carDetails.getYear())) : null;
+        if (precomputed != null) {
+            return precomputed;
         }
+        TaxRules rules = context.rules();
+        BigDecimal co2Component = calculateAnnualCO2Component(carDetails.getCo2Emissions(), rules);
+        BigDecimal massComponent = calculateAnnualMassComponent(carDetails.getFullMass(), carDetails.isElectric(), rules);
+        BigDecimal ageDiscountFactor = rules.ageDiscountFactor(context.vehicleAge(carDetails.getYear()));
+        BigDecimal discountedCO2AndMass = co2Component.add(massComponent).multiply(ageDiscountFactor);
+        return rules.getBaseAnnualAmount().add(discountedCO2AndMass);
+    }
 
-        if (carDetails.getCo2Emissions() == null) {
-            BigDecimal displacementComponent = BigDecimal.valueOf(carDetails.getEngineCapacity()).multiply(DISPLACEMENT_RATE);
-            BigDecimal powerComponent = BigDecimal.valueOf(carDetails.getEnginePower()).multiply(POWER_RATE);
-            return displacementComponent.add(powerComponent);
+    /**
+     * Vehicle age, age discount, mass and the precomputed table are looked up once for both taxes. The breakdown is
+     * always computed, so it never comes from the table.
+     */
+    @Override
+    public TaxCalculation calculate(CarDetails carDetails, TaxContext context, boolean breakdown) {
+        int vehicleAge = context.vehicleAge(carDetails.getYear());
+        TaxTable table = breakdown ? null : taxTable(context);
+        if (table != null) {
+            BigDecimal registrationTax = table.registrationTax(carDetails, vehicleAge);
+            BigDecimal annualTax = table.annualTax(carDetails, vehicleAge);
+            if (registrationTax != null && annualTax != null) {
+                return new TaxCalculation(registrationTax, annualTax, null);
+            }
         }
-        BigDecimal co2Emissions = carDetails.getCo2Emissions();
-        if (NEDC == carDetails.getCo2Type()) {
-            co2Emissions = co2Emissions.multiply(CO2_CONVERSION_FACTOR_NEDC);
+        TaxRules rules = context.rules();
+        BigDecimal ageDiscountFactor = rules.ageDiscountFactor(vehicleAge);
+        BigDecimal fullMass = BigDecimal.valueOf(carDetails.getFullMass());
+        boolean electric = carDetails.isElectric();
+
+        BigDecimal registrationCo2Basis = registrationCo2Basis(carDetails, rules);
+        BigDecimal registrationCo2 = calculateCO2Component(carDetails, registrationCo2Basis, rules);
+        BigDecimal registrationMass = rules.massTax(electric).apply(fullMass);
+        BigDecimal registrationTax = rules.getBaseRegistrationAmount()
+                .add(registrationCo2.add(registrationMass).multiply(ageDiscountFactor));
+
+        BigDecimal annualCo2Basis = carDetails.getCo2Emissions();
+        BigDecimal annualCo2 = calculateAnnualCO2Component(annualCo2Basis, rules);
+        BigDecimal annualMass = rules.annualMassTax(electric).apply(fullMass);
+        BigDecimal annualTax = rules.getBaseAnnualAmount().add(annualCo2.add(annualMass).multiply(ageDiscountFactor));
+        if (!breakdown) {
+            return new TaxCalculation(registrationTax, annualTax, null);
         }
-        return calculateTaxBasedOnEmissions(co2Emissions);
+
+        TaxBreakdown.Component registration = new TaxBreakdown.Component(rules.getBaseRegistrationAmount(),
+                registrationCo2Basis, registrationCo2, shares(rules.registrationCo2Tax(), registrationCo2Basis),
+                registrationMass, rules.massTax(electric).shares(fullMass));
+        TaxBreakdown.Component annual = new TaxBreakdown.Component(rules.getBaseAnnualAmount(),
+                annualCo2Basis, annualCo2, shares(rules.annualCo2Tax(), annualCo2Basis),
+                annualMass, rules.annualMassTax(electric).shares(fullMass));
+        return new TaxCalculation(registrationTax, annualTax, new TaxBreakdown(registrationTax, annualTax, vehicleAge,
+                ageDiscountFactor, CalculationPath.of(carDetails).name(), registration, annual));
     }
-    
-    private BigDecimal calculateTaxBasedOnEmissions(BigDecimal co2Emissions) {
-        BigDecimal tax = BigDecimal.ZERO;
-        if (is(co2Emissions).greaterThan(CO2_THRESHOLD_200)) {
-            tax = tax.add(calculateTaxForEmissionRange(co2Emissions.subtract(CO2_THRESHOLD_200), EMISSION_RATE_200_PLUS));
-            co2Emissions = CO2_THRESHOLD_200;
-        }
-        if (is(co2Emissions).greaterThan(CO2_THRESHOLD_150)) {
-            tax = tax.add(calculateTaxForEmissionRange(co2Emissions.subtract(CO2_THRESHOLD_150), EMISSION_RATE_150_TO_200));
-            co2Emissions = CO2_THRESHOLD_150;
-        }
-        if (is(co2Emissions).greaterThan(CO2_THRESHOLD_117)) {
-            tax = tax.add(calculateTaxForEmissionRange(co2Emissions.subtract(CO2_THRESHOLD_117), EMISSION_RATE_117_TO_150));
-            co2Emissions = CO2_THRESHOLD_117;
+
+    /**
+     * The CO2 and mass components do not depend on the tax year, so they are computed once; the discounted amount is
+     * only recomputed when the car crosses an age threshold.
+     */
+    @Override
+    public List<BigDecimal> projectAnnualTax(CarDetails carDetails, TaxContext context, int years) {
+        TaxRules rules = context.rules();
+        BigDecimal co2Component = calculateAnnualCO2Component(carDetails.getCo2Emissions(), rules);
+        BigDecimal massComponent = calculateAnnualMassComponent(carDetails.getFullMass(), carDetails.isElectric(), rules);
+        BigDecimal co2AndMass = co2Component.add(massComponent);
+        int vehicleAge = context.vehicleAge(carDetails.getYear());
+
+        List<BigDecimal> annualTaxes = new ArrayList<>(years);
+        BigDecimal ageDiscountFactor = null;
+        BigDecimal annualTax = null;
+        for (int i = 0; i < years; i++) {
+            BigDecimal yearAgeDiscountFactor = rules.ageDiscountFactor(vehicleAge + i);
+            if (yearAgeDiscountFactor != ageDiscountFactor) {
+                ageDiscountFactor = yearAgeDiscountFactor;
+                annualTax = rules.getBaseAnnualAmount().add(co2AndMass.multiply(ageDiscountFactor));
+            }
+            annualTaxes.add(annualTax);
         }
-        tax = tax.add(calculateTaxForEmissionRange(co2Emissions, EMISSION_RATE_UP_TO_117));
-        return tax;
+        return annualTaxes;
     }
-    
-    private BigDecimal calculateTaxForEmissionRange(BigDecimal emissionDifference, int rate) {
-        return emissionDifference.multiply(BigDecimal.valueOf(rate));
+
+    private TaxTable taxTable(TaxContext context) {
+        return precomputedTaxTables != null ? precomputedTaxTables.tableFor(context.rules()) : null;
     }
 
-    private BigDecimal calculateMassComponent(int fullMass, boolean isElectric) {
-        int massThreshold = isElectric ? ELECTRIC_MASS_THRESHOLD : NON_ELECTRIC_MASS_THRESHOLD;
-        if (fullMass <= massThreshold) {
-            return BigDecimal.ZERO;
+    /**
+     * Emissions the registration CO2 brackets apply to, or {@code null} if the component is not priced from emissions.
+     */
+    private static BigDecimal registrationCo2Basis(CarDetails carDetails, TaxRules rules) {
+        BigDecimal co2Emissions = carDetails.getCo2Emissions();
+        if (carDetails.isElectric() || co2Emissions == null) {
+            return null;
         }
-        BigDecimal excessMass = BigDecimal.valueOf(fullMass - massThreshold);
-        return excessMass.multiply(MASS_TAX_RATE);
+        return NEDC == carDetails.getCo2Type() ? co2Emissions.multiply(rules.getNedcConversionFactor()) : co2Emissions;
     }
-    
-    private BigDecimal calculateAnnualCO2Component(BigDecimal co2Emissions) {
-        if (co2Emissions == null || is(co2Emissions).lessThanOrEqualTo(CO2_THRESHOLD_117)) {
+
+    private BigDecimal calculateCO2Component(CarDetails carDetails, BigDecimal co2Basis, TaxRules rules) {
+        if (carDetails.isElectric()) {
             return BigDecimal.ZERO;
-        } else if (is(co2Emissions).lessThanOrEqualTo(CO2_THRESHOLD_150)) {
-            return (co2Emissions.subtract(CO2_THRESHOLD_117)).multiply(CO2_LOW_EMISSION_RATE);
-        } else if (is(co2Emissions).lessThanOrEqualTo(CO2_THRESHOLD_200)) {
-            return (co2Emissions.subtract(CO2_THRESHOLD_150))
-                    .multiply(CO2_MEDIUM_EMISSION_RATE).add(calculateAnnualCO2Component(CO2_THRESHOLD_150));
         }
-        return (co2Emissions.subtract(CO2_THRESHOLD_200))
-                .multiply(CO2_HIGH_EMISSION_RATE).add(calculateAnnualCO2Component(CO2_THRESHOLD_200));
+
+        if (co2Basis == null) {
+            BigDecimal displacementComponent = BigDecimal.valueOf(carDetails.getEngineCapacity()).multiply(rules.getDisplacementRate());
+            BigDecimal powerComponent = BigDecimal.valueOf(carDetails.getEnginePower()).multiply(rules.getPowerRate());
+            return displacementComponent.add(powerComponent);
+        }
+        return calculateTaxBasedOnEmissions(co2Basis, rules);
+    }
+
+    private static List<TaxBreakdown.BracketShare> shares(PiecewiseLinearFunction curve, BigDecimal x) {
+        return x != null ? curve.shares(x) : null;
+    }
+
+    private BigDecimal calculateTaxBasedOnEmissions(BigDecimal co2Emissions, TaxRules rules) {
+        return rules.registrationCo2Tax().apply(co2Emissions);
     }
 
-    private BigDecimal calculateAnnualMassComponent(int fullMass, boolean isElectric) {
-        int massThreshold = isElectric ? ELECTRIC_MASS_THRESHOLD : NON_ELECTRIC_MASS_THRESHOLD;
-        BigDecimal excessMass = BigDecimal.valueOf(Math.max(0, fullMass - massThreshold));
-        BigDecimal massTaxCap = isElectric ? ELECTRIC_MASS_TAX_CAP : NON_ELECTRIC_MASS_TAX_CAP;
-        BigDecimal massComponentTax = excessMass.multiply(ANNUAL_MASS_TAX_RATE);
-        return massComponentTax.min(massTaxCap);
+    private BigDecimal calculateMassComponent(int fullMass, boolean isElectric, TaxRules rules) {
+        return rules.massTax(isElectric).apply(BigDecimal.valueOf(fullMass));
+    }
+
+    private BigDecimal calculateAnnualCO2Component(BigDecimal co2Emissions, TaxRules rules) {
+        if (co2Emissions == null) {
+            return BigDecimal.ZERO;
+        }
+        return rules.annualCo2Tax().apply(co2Emissions);
     }
 
-    private BigDecimal getAgeDiscountFactor(int year) {
-        int vehicleAge = LocalDate.now().getYear() - year;
-        if (vehicleAge > VEHICLE_AGE_DISCOUNT_THRESHOLD_20) return BigDecimal.ZERO;
-        if (vehicleAge > VEHICLE_AGE_DISCOUNT_THRESHOLD_15) return AGE_DISCOUNT_OVER_15;
-        if (vehicleAge > VEHICLE_AGE_DISCOUNT_THRESHOLD_10) return AGE_DISCOUNT_OVER_10;
-        if (vehicleAge > VEHICLE_AGE_DISCOUNT_THRESHOLD_5) return AGE_DISCOUNT_OVER_5;
-        return BigDecimal.ONE;
+    private BigDecimal calculateAnnualMassComponent(int fullMass, boolean isElectric, TaxRules rules) {
+        return rules.annualMassTax(isElectric).apply(BigDecimal.valueOf(fullMass));
     }
 }
@@ -0,0 +1,11 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.TaxBreakdown;
+
+import java.math.BigDecimal;
+
+/**
+ * Both taxes of one car, unrounded, and how they were made up if that was asked for and the calculator can tell.
+ */
+public record TaxCalculation(BigDecimal registrationTax, BigDecimal annualTax, TaxBreakdown breakdown) {
+}
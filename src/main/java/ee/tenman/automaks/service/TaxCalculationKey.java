@@ -0,0 +1,46 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+
+import java.math.BigDecimal;
+
+import static ee.tenman.automaks.dto.CarDetails.CO2Type.NEDC;
+
+/**
+ * Canonical form of a calculation input: CO2 scale is normalised and fields the calculation path does not read are
+ * dropped, so that equal results share one key. The rule set and tax year are part of the key because the rates and the
+ * age discount depend on them.
+ */
+public record TaxCalculationKey(
+        TaxRules rules,
+        int taxYear,
+        CarDetails.CarType carType,
+        int year,
+        Integer fullMass,
+        boolean electric,
+        BigDecimal co2Emissions,
+        boolean nedc,
+        Integer engineCapacity,
+        Integer enginePower
+) {
+
+    public static TaxCalculationKey of(CarDetails carDetails, TaxContext context) {
+        CalculationPath path = CalculationPath.of(carDetails);
+        BigDecimal co2Emissions = carDetails.getCo2Emissions() != null
+                ? carDetails.getCo2Emissions().stripTrailingZeros()
+                : null;
+        boolean displacementAndPower = path == CalculationPath.DISPLACEMENT_AND_POWER;
+        return new TaxCalculationKey(
+                context.rules(),
+                context.taxYear(),
+                carDetails.getCarType(),
+                carDetails.getYear(),
+                carDetails.getFullMass(),
+                carDetails.isElectric(),
+                co2Emissions,
+                path == CalculationPath.CO2 && NEDC == carDetails.getCo2Type(),
+                displacementAndPower ? carDetails.getEngineCapacity() : null,
+                displacementAndPower ? carDetails.getEnginePower() : null
+        );
+    }
+}
@@ -0,0 +1,77 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Meters for the calculation pipeline. Timers are registered lazily per tag combination and kept in a flat array so
+ * the hot path does not build a meter id per request.
+ */
+@Component
+public class TaxCalculationMetrics {
+
+    static final String CALCULATION_TIMER = "tax.calculation";
+    static final String VALIDATION_FAILURES = "tax.validation.failures";
+    static final String UNSUPPORTED_CAR_TYPES = "tax.unsupported.car.types";
+
+    public static final String SOURCE_REQUEST = "request";
+    public static final String SOURCE_BATCH = "batch";
+    public static final String SOURCE_FLEET = "fleet";
+    public static final String SOURCE_AGGREGATE = "aggregate";
+
+    private static final String NO_CO2_TYPE = "NONE";
+    private static final int CO2_TYPE_COUNT = CarDetails.CO2Type.values().length + 1;
+    private static final int PATH_COUNT = CalculationPath.values().length;
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicReferenceArray<Timer> timers;
+    private final Map<CarDetails.CarType, Counter> unsupportedCarTypeCounters = new EnumMap<>(CarDetails.CarType.class);
+
+    public TaxCalculationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.timers = new AtomicReferenceArray<>(CarDetails.CarType.values().length * 2 * CO2_TYPE_COUNT * PATH_COUNT);
+        for (CarDetails.CarType carType : CarDetails.CarType.values()) {
+            unsupportedCarTypeCounters.put(carType, Counter.builder(UNSUPPORTED_CAR_TYPES)
+                    .description("Calculations rejected because no calculator covers the car type")
+                    .tag("carType", carType.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    public Timer calculationTimer(CarDetails carDetails) {
+        CalculationPath path = CalculationPath.of(carDetails);
+        int co2TypeIndex = carDetails.getCo2Type() == null ? 0 : carDetails.getCo2Type().ordinal() + 1;
+        int index = ((carDetails.getCarType().ordinal() * 2 + (carDetails.isElectric() ? 1 : 0))
+                * CO2_TYPE_COUNT + co2TypeIndex) * PATH_COUNT + path.ordinal();
+        Timer timer = timers.get(index);
+        if (timer == null) {
+            timer = Timer.builder(CALCULATION_TIMER)
+                    .description("Time to produce a tax response, cache lookup included")
+                    .tag("carType", carDetails.getCarType().name())
+                    .tag("electric", Boolean.toString(carDetails.isElectric()))
+                    .tag("co2Type", carDetails.getCo2Type() == null ? NO_CO2_TYPE : carDetails.getCo2Type().name())
+                    .tag("path", path.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            timers.set(index, timer);
+        }
+        return timer;
+    }
+
+    public void recordUnsupportedCarType(CarDetails.CarType carType) {
+        unsupportedCarTypeCounters.get(carType).increment();
+    }
+
+    public void recordValidationFailures(Iterable<String> fields, String source) {
+        for (String field : fields) {
+            meterRegistry.counter(VALIDATION_FAILURES, "field", field, "source", source).increment();
+        }
+    }
+}
@@ -1,26 +1,131 @@
 package ee.tenman.automaks.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.tenman.automaks.config.aspect.LoggingAspect;
+import ee.tenman.automaks.config.jfr.CalculationEvent;
+import ee.tenman.automaks.dto.AnnualTaxProjection;
 import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.EncodedTaxResponse;
+import ee.tenman.automaks.dto.TaxBreakdown;
+import ee.tenman.automaks.dto.TaxProjection;
 import ee.tenman.automaks.dto.TaxResponse;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 @Slf4j
 public class TaxCalculationService {
+
+    public static final int MAX_PROJECTION_YEARS = 50;
+
+    @Resource
+    private TaxCalculatorRegistry taxCalculatorRegistry;
+
+    @Resource
+    private TaxResponseCache taxResponseCache;
+
+    @Resource
+    private TaxCalculationMetrics taxCalculationMetrics;
+
+    @Resource
+    private TaxContextProvider taxContextProvider;
+
+    @Resource
+    private InFlightCalculations inFlightCalculations;
+
+    @Resource
+    private ObjectMapper objectMapper;
     
     public Mono<TaxResponse> calculateTax(CarDetails carDetails) {
+        return calculateEncodedTax(carDetails).map(EncodedTaxResponse::taxResponse);
+    }
+
+    /**
+     * The response together with its JSON, which identical requests in flight at the same time share.
+     */
+    public Mono<EncodedTaxResponse> calculateEncodedTax(CarDetails carDetails) {
+        if (!taxCalculatorRegistry.isSupported(carDetails.getCarType())) {
+            taxCalculationMetrics.recordUnsupportedCarType(carDetails.getCarType());
+            return taxCalculatorRegistry.unsupportedCarTypeResponse(carDetails.getCarType()).cast(EncodedTaxResponse.class);
+        }
+        TaxContext context = taxContextProvider.resolve(carDetails);
+        Timer timer = taxCalculationMetrics.calculationTimer(carDetails);
+        String transactionId = LoggingAspect.currentTransactionId();
+        if (!inFlightCalculations.isEnabled()) {
+            return Mono.fromSupplier(() -> timer.record(() -> taxResponseCache.get(carDetails, context,
+                            (car, carContext) -> calculate(car, carContext, transactionId))))
+                    .map(taxResponse -> EncodedTaxResponse.of(taxResponse, objectMapper));
+        }
+        TaxCalculationKey key = TaxCalculationKey.of(carDetails, context);
+        return inFlightCalculations.coalesce(key,
+                () -> timer.record(() -> taxResponseCache.get(key, () -> calculate(carDetails, context, transactionId))));
+    }
+
+    /**
+     * Annual tax for each of the next {@code years} tax years, the current one (or the {@code asOf} one) included. The total is the sum of the
+     * rounded yearly amounts, so it matches what the owner would actually pay.
+     */
+    public Mono<TaxProjection> projectAnnualTax(CarDetails carDetails, int years) {
+        if (!taxCalculatorRegistry.isSupported(carDetails.getCarType())) {
+            taxCalculationMetrics.recordUnsupportedCarType(carDetails.getCarType());
+            return taxCalculatorRegistry.unsupportedCarTypeResponse(carDetails.getCarType()).cast(TaxProjection.class);
+        }
+        TaxCalculator taxCalculator = taxCalculatorRegistry.getTaxCalculator(carDetails.getCarType());
+        TaxContext context = taxContextProvider.resolve(carDetails);
+        List<BigDecimal> annualTaxes = taxCalculator.projectAnnualTax(carDetails, context, years);
 
-        TaxCalculator taxCalculator = TaxCalculatorFactory.getTaxCalculator(carDetails.getCarType());
-        BigDecimal registrationTax = taxCalculator.calculateRegistrationTax(carDetails);
-        BigDecimal annualTax = taxCalculator.calculateAnnualTax(carDetails);
+        int firstYear = context.taxYear();
+        List<AnnualTaxProjection> projections = new ArrayList<>(annualTaxes.size());
+        BigDecimal totalAnnualTax = BigDecimal.ZERO;
+        for (int i = 0; i < annualTaxes.size(); i++) {
+            AnnualTaxProjection projection = new AnnualTaxProjection(
+                    firstYear + i, context.vehicleAge(carDetails.getYear()) + i, annualTaxes.get(i));
+            projections.add(projection);
+            totalAnnualTax = totalAnnualTax.add(projection.annualTax());
+        }
+        return Mono.just(new TaxProjection(projections, totalAnnualTax));
+    }
+
+    /**
+     * Both taxes with their components, age discount and the brackets the car falls into. Not cached: it is asked for
+     * far less often than the taxes themselves.
+     */
+    public Mono<TaxBreakdown> explainTax(CarDetails carDetails) {
+        if (!taxCalculatorRegistry.isSupported(carDetails.getCarType())) {
+            taxCalculationMetrics.recordUnsupportedCarType(carDetails.getCarType());
+            return taxCalculatorRegistry.unsupportedCarTypeResponse(carDetails.getCarType()).cast(TaxBreakdown.class);
+        }
+        TaxCalculator taxCalculator = taxCalculatorRegistry.getTaxCalculator(carDetails.getCarType());
+        TaxContext context = taxContextProvider.resolve(carDetails);
+        TaxCalculation calculation = taxCalculator.calculate(carDetails, context, true);
+        if (calculation.breakdown() != null) {
+            return Mono.just(calculation.breakdown());
+        }
+        return Mono.just(new TaxBreakdown(calculation.registrationTax(), calculation.annualTax(),
+                context.vehicleAge(carDetails.getYear()), null, CalculationPath.of(carDetails).name(), null, null));
+    }
 
-        TaxResponse response = new TaxResponse(registrationTax, annualTax);
+    /**
+     * The calculation runs when the response is subscribed to, after the caller's transaction ID may have left the
+     * thread, so the ID is passed in.
+     */
+    private TaxResponse calculate(CarDetails carDetails, TaxContext context, String transactionId) {
+        CalculationEvent event = new CalculationEvent();
+        event.begin();
+        TaxCalculator taxCalculator = taxCalculatorRegistry.getTaxCalculator(carDetails.getCarType());
+        TaxCalculation calculation = taxCalculator.calculate(carDetails, context);
+        if (event.shouldCommit()) {
+            event.commit(carDetails, transactionId, taxCalculator.getClass().getSimpleName());
+        }
 
-        return Mono.just(response);
+        return new TaxResponse(calculation.registrationTax(), calculation.annualTax());
     }
 
 }
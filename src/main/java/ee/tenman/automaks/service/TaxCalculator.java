@@ -3,16 +3,44 @@ package ee.tenman.automaks.service;
 import ee.tenman.automaks.dto.CarDetails;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 public interface TaxCalculator {
 
-    BigDecimal BASE_ANNUAL_AMOUNT = BigDecimal.valueOf(50);
-    int ELECTRIC_MASS_THRESHOLD = 2400;
-    int NON_ELECTRIC_MASS_THRESHOLD = 2000;
-    BigDecimal MASS_TAX_RATE = BigDecimal.valueOf(4);
+    Set<CarDetails.CarType> supportedCarTypes();
 
-    BigDecimal calculateRegistrationTax(CarDetails carDetails);
+    BigDecimal calculateRegistrationTax(CarDetails carDetails, TaxContext context);
 
-    BigDecimal calculateAnnualTax(CarDetails carDetails);
-}
+    BigDecimal calculateAnnualTax(CarDetails carDetails, TaxContext context);
+
+    /**
+     * Both taxes at once, equal to {@link #calculateRegistrationTax(CarDetails, TaxContext)} and
+     * {@link #calculateAnnualTax(CarDetails, TaxContext)}. Calculators that share work between the two override this;
+     * with {@code breakdown} they also explain the result, otherwise the breakdown is {@code null}.
+     */
+    default TaxCalculation calculate(CarDetails carDetails, TaxContext context, boolean breakdown) {
+        return new TaxCalculation(calculateRegistrationTax(carDetails, context), calculateAnnualTax(carDetails, context), null);
+    }
 
+    /**
+     * Both taxes at once, without the breakdown.
+     */
+    default TaxCalculation calculate(CarDetails carDetails, TaxContext context) {
+        return calculate(carDetails, context, false);
+    }
+
+    /**
+     * Annual tax for {@code years} consecutive tax years starting with the context's, as the car keeps ageing under
+     * the context's rules. The first element equals {@link #calculateAnnualTax(CarDetails, TaxContext)}. By default
+     * every year is a full calculation; calculators that can reuse the components across years override this.
+     */
+    default List<BigDecimal> projectAnnualTax(CarDetails carDetails, TaxContext context, int years) {
+        List<BigDecimal> annualTaxes = new ArrayList<>(years);
+        for (int i = 0; i < years; i++) {
+            annualTaxes.add(calculateAnnualTax(carDetails, new TaxContext(context.rules(), context.taxYear() + i)));
+        }
+        return annualTaxes;
+    }
+}
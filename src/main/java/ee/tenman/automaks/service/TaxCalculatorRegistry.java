@@ -0,0 +1,56 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.TaxResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Slf4j
+public class TaxCalculatorRegistry {
+
+    private final Map<CarDetails.CarType, TaxCalculator> calculators = new EnumMap<>(CarDetails.CarType.class);
+    private final Map<CarDetails.CarType, UnsupportedCarTypeException> unsupportedCarTypes = new EnumMap<>(CarDetails.CarType.class);
+    private final Map<CarDetails.CarType, Mono<TaxResponse>> unsupportedCarTypeResponses = new EnumMap<>(CarDetails.CarType.class);
+
+    public TaxCalculatorRegistry(List<TaxCalculator> taxCalculators) {
+        for (TaxCalculator taxCalculator : taxCalculators) {
+            for (CarDetails.CarType carType : taxCalculator.supportedCarTypes()) {
+                TaxCalculator previous = calculators.putIfAbsent(carType, taxCalculator);
+                if (previous != null) {
+                    throw new IllegalStateException("Car type " + carType + " is covered by both "
+                            + previous.getClass().getSimpleName() + " and " + taxCalculator.getClass().getSimpleName());
+                }
+            }
+        }
+        for (CarDetails.CarType carType : CarDetails.CarType.values()) {
+            if (!calculators.containsKey(carType)) {
+                UnsupportedCarTypeException exception = new UnsupportedCarTypeException(carType);
+                unsupportedCarTypes.put(carType, exception);
+                unsupportedCarTypeResponses.put(carType, Mono.error(exception));
+            }
+        }
+        log.info("Tax calculators registered for {}, no calculator yet for {}", calculators.keySet(), unsupportedCarTypes.keySet());
+    }
+
+    public boolean isSupported(CarDetails.CarType carType) {
+        return calculators.containsKey(carType);
+    }
+
+    public TaxCalculator getTaxCalculator(CarDetails.CarType carType) {
+        TaxCalculator taxCalculator = calculators.get(carType);
+        if (taxCalculator == null) {
+            throw unsupportedCarTypes.get(carType);
+        }
+        return taxCalculator;
+    }
+
+    public Mono<TaxResponse> unsupportedCarTypeResponse(CarDetails.CarType carType) {
+        return unsupportedCarTypeResponses.get(carType);
+    }
+}
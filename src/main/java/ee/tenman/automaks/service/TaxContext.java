@@ -0,0 +1,12 @@
+package ee.tenman.automaks.service;
+
+/**
+ * Rule set and tax year a calculation runs under. Resolved once per request and handed to the calculators, so they
+ * never look at the clock themselves.
+ */
+public record TaxContext(TaxRules rules, int taxYear) {
+
+    public int vehicleAge(int year) {
+        return taxYear - year;
+    }
+}
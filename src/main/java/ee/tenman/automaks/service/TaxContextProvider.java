@@ -0,0 +1,78 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Resolves the {@link TaxContext} for a request. The current context is cached together with the instant range it
+ * is valid for, which ends at the next year boundary or rule set change in the clock's zone, and the rule sets it was
+ * built from, so the common case is one {@link Clock#millis()} call, two comparisons and an identity check that picks
+ * up a reload.
+ */
+@Component
+public class TaxContextProvider {
+
+    private final Clock clock;
+    private final ActiveTaxRules activeTaxRules;
+    private volatile CachedContext cachedContext;
+
+    public TaxContextProvider(Clock clock, ActiveTaxRules activeTaxRules) {
+        this.clock = clock;
+        this.activeTaxRules = activeTaxRules;
+        this.cachedContext = CachedContext.containing(clock.millis(), clock.getZone(), activeTaxRules.get());
+    }
+
+    public TaxContext current() {
+        long now = clock.millis();
+        TaxRuleSets taxRuleSets = activeTaxRules.get();
+        CachedContext context = cachedContext;
+        if (now < context.startMillis() || now >= context.endMillis() || context.taxRuleSets() != taxRuleSets) {
+            context = CachedContext.containing(now, clock.getZone(), taxRuleSets);
+            cachedContext = context;
+        }
+        return context.context();
+    }
+
+    public TaxContext asOf(LocalDate date) {
+        return new TaxContext(activeTaxRules.get().effectiveOn(date), date.getYear());
+    }
+
+    /**
+     * The context for the car's {@code asOf} date if it has one, otherwise {@code current}.
+     */
+    public TaxContext resolve(CarDetails carDetails, TaxContext current) {
+        return carDetails.getAsOf() != null ? asOf(carDetails.getAsOf()) : current;
+    }
+
+    public TaxContext resolve(CarDetails carDetails) {
+        return carDetails.getAsOf() != null ? asOf(carDetails.getAsOf()) : current();
+    }
+
+    private record CachedContext(TaxContext context, TaxRuleSets taxRuleSets, long startMillis, long endMillis) {
+
+        static CachedContext containing(long epochMillis, ZoneId zone, TaxRuleSets taxRuleSets) {
+            LocalDate today = Instant.ofEpochMilli(epochMillis).atZone(zone).toLocalDate();
+            TaxRules rules = taxRuleSets.effectiveOn(today);
+
+            LocalDate start = LocalDate.of(today.getYear(), 1, 1);
+            if (rules.getEffectiveFrom().isAfter(start) && !rules.getEffectiveFrom().isAfter(today)) {
+                start = rules.getEffectiveFrom();
+            }
+            LocalDate end = start.withDayOfYear(1).plusYears(1);
+            LocalDate nextChange = taxRuleSets.nextChangeAfter(today);
+            if (nextChange != null && nextChange.isBefore(end)) {
+                end = nextChange;
+            }
+            return new CachedContext(new TaxContext(rules, today.getYear()), taxRuleSets, startOf(start, zone), startOf(end, zone));
+        }
+
+        private static long startOf(LocalDate date, ZoneId zone) {
+            return date.atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ee.tenman.automaks.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.TaxResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class TaxResponseCache {
+
+    static final String CACHE_NAME = "taxResponses";
+
+    private final Cache<TaxCalculationKey, TaxResponse> cache;
+
+    public TaxResponseCache(
+            @Value("${automaks.cache.tax-responses.enabled:true}") boolean enabled,
+            @Value("${automaks.cache.tax-responses.maximum-size:10000}") long maximumSize,
+            MeterRegistry meterRegistry
+    ) {
+        if (!enabled) {
+            log.info("Tax response cache is disabled");
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public TaxResponse get(CarDetails carDetails, TaxContext context, BiFunction<CarDetails, TaxContext, TaxResponse> calculation) {
+        if (cache == null) {
+            return calculation.apply(carDetails, context);
+        }
+        TaxCalculationKey key = TaxCalculationKey.of(carDetails, context);
+        return cache.get(key, ignored -> calculation.apply(carDetails, context));
+    }
+
+    public TaxResponse get(TaxCalculationKey key, Supplier<TaxResponse> calculation) {
+        if (cache == null) {
+            return calculation.get();
+        }
+        return cache.get(key, ignored -> calculation.get());
+    }
+}
@@ -0,0 +1,75 @@
+package ee.tenman.automaks.service;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * One version of all known rule sets, keyed by the date they take effect. A date before the earliest set is priced
+ * with the earliest one, which keeps quotes for earlier dates possible without inventing rates that were never
+ * published. Instances are immutable; a reload builds a new one and swaps it into {@link ActiveTaxRules}.
+ */
+public final class TaxRuleSets {
+
+    static final String BUILT_IN_LOCATION = "tax-rules.yaml";
+
+    private static final TaxRuleSets BUILT_IN = TaxRulesLoader.loadClasspath(BUILT_IN_LOCATION);
+
+    static final TaxRules MOTOR_VEHICLE_TAX_2025 = BUILT_IN.effectiveOn(LocalDate.of(2025, 1, 1));
+
+    private final String version;
+    private final String source;
+    private final NavigableMap<LocalDate, TaxRules> rulesByEffectiveDate;
+
+    public TaxRuleSets(String version, String source, List<TaxRules> taxRules) {
+        if (version == null || version.isBlank()) {
+            throw new IllegalArgumentException("Rule sets need a version");
+        }
+        if (taxRules == null || taxRules.isEmpty()) {
+            throw new IllegalArgumentException("At least one rule set is required");
+        }
+        NavigableMap<LocalDate, TaxRules> rules = new TreeMap<>();
+        for (TaxRules ruleSet : taxRules) {
+            if (rules.putIfAbsent(ruleSet.getEffectiveFrom(), ruleSet) != null) {
+                throw new IllegalArgumentException("More than one rule set takes effect on " + ruleSet.getEffectiveFrom());
+            }
+        }
+        this.version = version;
+        this.source = source;
+        this.rulesByEffectiveDate = Collections.unmodifiableNavigableMap(rules);
+    }
+
+    /**
+     * The rule sets shipped in the jar, used when no external file is configured.
+     */
+    public static TaxRuleSets builtIn() {
+        return BUILT_IN;
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public List<LocalDate> effectiveDates() {
+        return List.copyOf(rulesByEffectiveDate.keySet());
+    }
+
+    public TaxRules effectiveOn(LocalDate date) {
+        Map.Entry<LocalDate, TaxRules> entry = rulesByEffectiveDate.floorEntry(date);
+        return entry != null ? entry.getValue() : rulesByEffectiveDate.firstEntry().getValue();
+    }
+
+    /**
+     * The first date after {@code date} on which a different rule set takes effect, or {@code null} if none is known.
+     */
+    public LocalDate nextChangeAfter(LocalDate date) {
+        return rulesByEffectiveDate.higherKey(date);
+    }
+}
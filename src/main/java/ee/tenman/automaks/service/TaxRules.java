@@ -0,0 +1,202 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.AgeBand;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable set of rates, in force from {@link #getEffectiveFrom()} until the next set in {@link TaxRuleSets} takes
+ * over. The bracket curves and the age discount steps are compiled once when the set is built, and building throws if
+ * a rate is missing or does not make sense.
+ */
+@Getter
+public final class TaxRules {
+
+    private final LocalDate effectiveFrom;
+    private final BigDecimal baseRegistrationAmount;
+    private final BigDecimal baseAnnualAmount;
+    private final BigDecimal displacementRate;
+    private final BigDecimal powerRate;
+    private final BigDecimal nedcConversionFactor;
+    private final List<Bracket> registrationCo2Brackets;
+    private final List<Bracket> annualCo2Brackets;
+    private final int electricMassThreshold;
+    private final int nonElectricMassThreshold;
+    private final BigDecimal massTaxRate;
+    private final BigDecimal annualMassTaxRate;
+    private final BigDecimal electricAnnualMassTaxCap;
+    private final BigDecimal nonElectricAnnualMassTaxCap;
+    private final List<AgeDiscount> ageDiscounts;
+
+    @Getter(AccessLevel.NONE)
+    private final PiecewiseLinearFunction registrationCo2Tax;
+    @Getter(AccessLevel.NONE)
+    private final PiecewiseLinearFunction annualCo2Tax;
+    @Getter(AccessLevel.NONE)
+    private final PiecewiseLinearFunction electricMassTax;
+    @Getter(AccessLevel.NONE)
+    private final PiecewiseLinearFunction nonElectricMassTax;
+    @Getter(AccessLevel.NONE)
+    private final PiecewiseLinearFunction electricAnnualMassTax;
+    @Getter(AccessLevel.NONE)
+    private final PiecewiseLinearFunction nonElectricAnnualMassTax;
+    @Getter(AccessLevel.NONE)
+    private final int[] ageDiscountThresholds;
+    @Getter(AccessLevel.NONE)
+    private final BigDecimal[] ageDiscountFactors;
+    @Getter(AccessLevel.NONE)
+    private final AgeBand[] ageBands;
+
+    @Builder(toBuilder = true)
+    @Jacksonized
+    private TaxRules(LocalDate effectiveFrom, BigDecimal baseRegistrationAmount, BigDecimal baseAnnualAmount,
+                     BigDecimal displacementRate, BigDecimal powerRate, BigDecimal nedcConversionFactor,
+                     List<Bracket> registrationCo2Brackets, List<Bracket> annualCo2Brackets,
+                     int electricMassThreshold, int nonElectricMassThreshold,
+                     BigDecimal massTaxRate, BigDecimal annualMassTaxRate,
+                     BigDecimal electricAnnualMassTaxCap, BigDecimal nonElectricAnnualMassTaxCap,
+                     List<AgeDiscount> ageDiscounts) {
+        this.effectiveFrom = Objects.requireNonNull(effectiveFrom, "effectiveFrom");
+        this.baseRegistrationAmount = requireNonNegative(baseRegistrationAmount, "baseRegistrationAmount");
+        this.baseAnnualAmount = requireNonNegative(baseAnnualAmount, "baseAnnualAmount");
+        this.displacementRate = requireNonNegative(displacementRate, "displacementRate");
+        this.powerRate = requireNonNegative(powerRate, "powerRate");
+        this.nedcConversionFactor = requireNonNegative(nedcConversionFactor, "nedcConversionFactor");
+        this.registrationCo2Brackets = List.copyOf(Objects.requireNonNull(registrationCo2Brackets, "registrationCo2Brackets"));
+        this.annualCo2Brackets = List.copyOf(Objects.requireNonNull(annualCo2Brackets, "annualCo2Brackets"));
+        this.electricMassThreshold = requirePositive(electricMassThreshold, "electricMassThreshold");
+        this.nonElectricMassThreshold = requirePositive(nonElectricMassThreshold, "nonElectricMassThreshold");
+        this.massTaxRate = requireNonNegative(massTaxRate, "massTaxRate");
+        this.annualMassTaxRate = requireNonNegative(annualMassTaxRate, "annualMassTaxRate");
+        this.electricAnnualMassTaxCap = requireNonNegative(electricAnnualMassTaxCap, "electricAnnualMassTaxCap");
+        this.nonElectricAnnualMassTaxCap = requireNonNegative(nonElectricAnnualMassTaxCap, "nonElectricAnnualMassTaxCap");
+        this.ageDiscounts = Objects.requireNonNull(ageDiscounts, "ageDiscounts").stream()
+                .sorted(Comparator.comparingInt(AgeDiscount::olderThan).reversed())
+                .toList();
+        for (AgeDiscount ageDiscount : this.ageDiscounts) {
+            if (ageDiscount.factor() == null || ageDiscount.factor().signum() < 0 || ageDiscount.factor().compareTo(BigDecimal.ONE) > 0) {
+                throw new IllegalArgumentException("Age discount factor must be between 0 and 1: " + ageDiscount);
+            }
+        }
+
+        this.registrationCo2Tax = curve(this.registrationCo2Brackets);
+        this.annualCo2Tax = curve(this.annualCo2Brackets);
+        this.electricMassTax = massTax(electricMassThreshold, massTaxRate).build();
+        this.nonElectricMassTax = massTax(nonElectricMassThreshold, massTaxRate).build();
+        this.electricAnnualMassTax = massTax(electricMassThreshold, annualMassTaxRate).capAt(electricAnnualMassTaxCap).build();
+        this.nonElectricAnnualMassTax = massTax(nonElectricMassThreshold, annualMassTaxRate).capAt(nonElectricAnnualMassTaxCap).build();
+        this.ageDiscountThresholds = this.ageDiscounts.stream().mapToInt(AgeDiscount::olderThan).toArray();
+        this.ageDiscountFactors = this.ageDiscounts.stream().map(AgeDiscount::factor).toArray(BigDecimal[]::new);
+        this.ageBands = ageBands(ageDiscountThresholds);
+    }
+
+    PiecewiseLinearFunction registrationCo2Tax() {
+        return registrationCo2Tax;
+    }
+
+    PiecewiseLinearFunction annualCo2Tax() {
+        return annualCo2Tax;
+    }
+
+    PiecewiseLinearFunction massTax(boolean electric) {
+        return electric ? electricMassTax : nonElectricMassTax;
+    }
+
+    PiecewiseLinearFunction annualMassTax(boolean electric) {
+        return electric ? electricAnnualMassTax : nonElectricAnnualMassTax;
+    }
+
+    /**
+     * Returns the same instance for every age within one discount step, so callers can detect a step change by
+     * identity.
+     */
+    BigDecimal ageDiscountFactor(int vehicleAge) {
+        for (int i = 0; i < ageDiscountThresholds.length; i++) {
+            if (vehicleAge > ageDiscountThresholds[i]) {
+                return ageDiscountFactors[i];
+            }
+        }
+        return BigDecimal.ONE;
+    }
+
+    /**
+     * The band between two age discount thresholds the car falls into, so the bands match the discount steps.
+     */
+    AgeBand ageBand(int vehicleAge) {
+        for (AgeBand ageBand : ageBands) {
+            if (ageBand.to() == null || vehicleAge <= ageBand.to()) {
+                return ageBand;
+            }
+        }
+        throw new IllegalStateException("The last age band has no upper bound");
+    }
+
+    @Override
+    public String toString() {
+        return "TaxRules[effectiveFrom=" + effectiveFrom + "]";
+    }
+
+    private static BigDecimal requireNonNegative(BigDecimal value, String name) {
+        if (Objects.requireNonNull(value, name).signum() < 0) {
+            throw new IllegalArgumentException(name + " must not be negative: " + value);
+        }
+        return value;
+    }
+
+    private static int requirePositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+        return value;
+    }
+
+    private static PiecewiseLinearFunction curve(List<Bracket> brackets) {
+        PiecewiseLinearFunction.Builder builder = PiecewiseLinearFunction.builder();
+        brackets.forEach(bracket -> builder.bracket(
+                Objects.requireNonNull(bracket.from(), "bracket from"), Objects.requireNonNull(bracket.rate(), "bracket rate")));
+        return builder.build();
+    }
+
+    /**
+     * Bands in ascending order from the thresholds, which are in descending order.
+     */
+    private static AgeBand[] ageBands(int[] descendingThresholds) {
+        int[] thresholds = Arrays.stream(descendingThresholds).distinct().sorted().toArray();
+        AgeBand[] ageBands = new AgeBand[thresholds.length + 1];
+        int from = 0;
+        for (int i = 0; i < thresholds.length; i++) {
+            ageBands[i] = new AgeBand(from, thresholds[i]);
+            from = thresholds[i] + 1;
+        }
+        ageBands[thresholds.length] = new AgeBand(from, null);
+        return ageBands;
+    }
+
+    private static PiecewiseLinearFunction.Builder massTax(int massThreshold, BigDecimal rate) {
+        return PiecewiseLinearFunction.builder()
+                .bracket(BigDecimal.ZERO, BigDecimal.ZERO)
+                .bracket(BigDecimal.valueOf(massThreshold), rate);
+    }
+
+    /**
+     * Marginal rate from {@code from} up to the next bracket.
+     */
+    public record Bracket(BigDecimal from, BigDecimal rate) {
+    }
+
+    /**
+     * The CO2 and mass components are multiplied by {@code factor} once the car is more than {@code olderThan} years
+     * old; the highest matching threshold wins.
+     */
+    public record AgeDiscount(int olderThan, BigDecimal factor) {
+    }
+}
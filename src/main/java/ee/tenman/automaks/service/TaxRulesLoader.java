@@ -0,0 +1,81 @@
+package ee.tenman.automaks.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads {@link TaxRuleSets} from a YAML or JSON document with a {@code version} and a list of {@code ruleSets}.
+ * Unknown properties are rejected so that a misspelt rate fails the load instead of silently defaulting, and every
+ * rule set is compiled before the document is accepted.
+ */
+public final class TaxRulesLoader {
+
+    private static final ObjectMapper JSON_MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
+            .build();
+
+    private static final ObjectMapper YAML_MAPPER = YAMLMapper.builder()
+            .addModule(new JavaTimeModule())
+            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
+            .build();
+
+    private TaxRulesLoader() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the file is not a valid rule document
+     * @throws UncheckedIOException     if the file cannot be read
+     */
+    public static TaxRuleSets load(Path path) {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            return read(inputStream, isJson(path), path.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read tax rules from " + path, e);
+        }
+    }
+
+    static TaxRuleSets loadClasspath(String location) {
+        try (InputStream inputStream = TaxRulesLoader.class.getClassLoader().getResourceAsStream(location)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Tax rules not found on the classpath: " + location);
+            }
+            return read(inputStream, false, "classpath:" + location);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read tax rules from classpath:" + location, e);
+        }
+    }
+
+    static TaxRuleSets read(InputStream inputStream, boolean json, String source) throws IOException {
+        try {
+            Document document = (json ? JSON_MAPPER : YAML_MAPPER).readValue(inputStream, Document.class);
+            if (document == null) {
+                throw new IllegalArgumentException("document is empty");
+            }
+            return new TaxRuleSets(document.version(), source, document.ruleSets());
+        } catch (JsonProcessingException | IllegalArgumentException | IllegalStateException e) {
+            throw new IllegalArgumentException("Invalid tax rules in " + source + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean isJson(Path path) {
+        return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json");
+    }
+
+    private record Document(String version, List<TaxRules> ruleSets) {
+    }
+}
@@ -0,0 +1,128 @@
+package ee.tenman.automaks.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.audit.listener.AuditApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Reloads the rule file when it changes. A new version is parsed and compiled completely on the watcher thread before
+ * it is swapped into {@link ActiveTaxRules}; a file that does not load is logged and the running version stays. Both
+ * outcomes are published as audit events, which the {@code auditevents} actuator endpoint lists. Without a path it
+ * does not watch anything.
+ */
+@Slf4j
+public class TaxRulesWatcher {
+
+    public static final String AUDIT_PRINCIPAL = "tax-rules";
+    public static final String RELOADED = "TAX_RULES_RELOADED";
+    public static final String RELOAD_FAILED = "TAX_RULES_RELOAD_FAILED";
+
+    private static final long SETTLE_MILLIS = 100;
+
+    private final Path path;
+    private final ActiveTaxRules activeTaxRules;
+    private final ApplicationEventPublisher eventPublisher;
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    public TaxRulesWatcher(Path path, ActiveTaxRules activeTaxRules, ApplicationEventPublisher eventPublisher) {
+        this.path = path != null ? path.toAbsolutePath() : null;
+        this.activeTaxRules = activeTaxRules;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (path == null) {
+            return;
+        }
+        Path directory = path.getParent();
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        watcherThread = Thread.ofPlatform().daemon().name("tax-rules-watcher").start(this::watch);
+        log.info("Watching {} for tax rule changes", path);
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        if (watcherThread == null) {
+            return;
+        }
+        watchService.close();
+        watcherThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Loads the file and swaps it in if it is valid.
+     *
+     * @return whether the new version is active
+     */
+    boolean reload() {
+        TaxRuleSets previous = activeTaxRules.get();
+        try {
+            TaxRuleSets taxRuleSets = TaxRulesLoader.load(path);
+            activeTaxRules.set(taxRuleSets);
+            log.info("Tax rules {} loaded from {}, replacing {}", taxRuleSets.version(), path, previous.version());
+            publish(RELOADED, taxRuleSets.version(), previous.version(), null);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Tax rules in {} were rejected, keeping {}", path, previous.version(), e);
+            publish(RELOAD_FAILED, previous.version(), previous.version(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                boolean changed = concernsRuleFile(watchService.take());
+                // Editors and deployment tools often write a file in several steps, so wait until it settles.
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= concernsRuleFile(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            log.debug("Stopped watching {}", path);
+        }
+    }
+
+    private boolean concernsRuleFile(WatchKey key) {
+        boolean concerns = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            concerns |= event.kind() == OVERFLOW || path.getFileName().equals(event.context());
+        }
+        key.reset();
+        return concerns;
+    }
+
+    private void publish(String type, String activeVersion, String previousVersion, String error) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("source", path.toString());
+        data.put("version", activeVersion);
+        data.put("previousVersion", previousVersion);
+        if (error != null) {
+            data.put("error", error);
+        }
+        eventPublisher.publishEvent(new AuditApplicationEvent(AUDIT_PRINCIPAL, type, data));
+    }
+}
@@ -0,0 +1,131 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+import static ee.tenman.automaks.dto.CarDetails.CO2Type.NEDC;
+
+/**
+ * Precomputed M1 components of one {@link TaxRules} set, read in place from a mapped {@link TaxTableFile}. Each tax
+ * is two absolute reads, one addition and the age discount, with the result at the same 10<sup>-8</sup> euro scale as
+ * {@link FixedPointCarTaxCalculator}. Inputs off the grid (CO2 finer than 0.1 g/km, beyond the grid, or priced from
+ * displacement and power) return {@code null} and are left to the caller.
+ */
+final class TaxTable {
+
+    private static final int MAX_CO2_SCALE = 3;
+    private static final long MILLIGRAMS_PER_STEP = 100;
+    private static final long NO_AGE_DISCOUNT = 100;
+
+    private final ByteBuffer buffer;
+    private final LocalDate effectiveFrom;
+    private final long baseRegistrationAmount;
+    private final long baseAnnualAmount;
+    private final int[] ageThresholds;
+    private final long[] agePercentages;
+    private final int co2Steps;
+    private final int massSteps;
+    private final int registrationCo2;
+    private final int registrationNedcCo2;
+    private final int annualCo2;
+    private final int massTables;
+
+    TaxTable(ByteBuffer buffer, LocalDate effectiveFrom, long baseRegistrationAmount, long baseAnnualAmount,
+             int[] ageThresholds, long[] agePercentages, int co2Steps, int co2Tables, int massSteps, int massTables) {
+        this.buffer = buffer;
+        this.effectiveFrom = effectiveFrom;
+        this.baseRegistrationAmount = baseRegistrationAmount;
+        this.baseAnnualAmount = baseAnnualAmount;
+        this.ageThresholds = ageThresholds;
+        this.agePercentages = agePercentages;
+        this.co2Steps = co2Steps;
+        this.massSteps = massSteps;
+        this.registrationCo2 = co2Tables;
+        this.registrationNedcCo2 = co2Tables + co2Steps * Long.BYTES;
+        this.annualCo2 = co2Tables + 2 * co2Steps * Long.BYTES;
+        this.massTables = massTables;
+    }
+
+    LocalDate effectiveFrom() {
+        return effectiveFrom;
+    }
+
+    BigDecimal registrationTax(CarDetails carDetails, int vehicleAge) {
+        int mass = massStep(carDetails.getFullMass());
+        if (mass < 0) {
+            return null;
+        }
+        long co2Component = 0;
+        if (!carDetails.isElectric()) {
+            int co2 = co2Step(carDetails.getCo2Emissions());
+            if (co2 < 0) {
+                return null;
+            }
+            co2Component = read(NEDC == carDetails.getCo2Type() ? registrationNedcCo2 : registrationCo2, co2);
+        }
+        long massComponent = read(massTable(carDetails.isElectric() ? 0 : 1), mass);
+        return BigDecimal.valueOf(baseRegistrationAmount
+                + (co2Component + massComponent) * ageDiscountPercentage(vehicleAge), TaxTableFile.RESULT_SCALE);
+    }
+
+    BigDecimal annualTax(CarDetails carDetails, int vehicleAge) {
+        int mass = massStep(carDetails.getFullMass());
+        if (mass < 0) {
+            return null;
+        }
+        long co2Component = 0;
+        if (carDetails.getCo2Emissions() != null) {
+            int co2 = co2Step(carDetails.getCo2Emissions());
+            if (co2 < 0) {
+                return null;
+            }
+            co2Component = read(annualCo2, co2);
+        }
+        long massComponent = read(massTable(carDetails.isElectric() ? 2 : 3), mass);
+        return BigDecimal.valueOf(baseAnnualAmount
+                + (co2Component + massComponent) * ageDiscountPercentage(vehicleAge), TaxTableFile.RESULT_SCALE);
+    }
+
+    private long read(int table, int step) {
+        return buffer.getLong(table + step * Long.BYTES);
+    }
+
+    private int massTable(int index) {
+        return massTables + index * massSteps * Long.BYTES;
+    }
+
+    private int massStep(Integer fullMass) {
+        return fullMass != null && fullMass >= 0 && fullMass < massSteps ? fullMass : -1;
+    }
+
+    /**
+     * Same exact double round trip as {@link FixedPointCarTaxCalculator}: with at most three decimals on the grid the
+     * rounded double is the milligram count, and only whole 0.1 g/km steps are in the table.
+     */
+    private int co2Step(BigDecimal co2Emissions) {
+        if (co2Emissions == null || co2Emissions.scale() > MAX_CO2_SCALE) {
+            return -1;
+        }
+        double grams = co2Emissions.doubleValue();
+        if (!(grams >= 0 && grams < co2Steps)) {
+            return -1;
+        }
+        long milligrams = Math.round(grams * 1000);
+        if (milligrams % MILLIGRAMS_PER_STEP != 0 || milligrams / MILLIGRAMS_PER_STEP >= co2Steps) {
+            return -1;
+        }
+        return (int) (milligrams / MILLIGRAMS_PER_STEP);
+    }
+
+    private long ageDiscountPercentage(int vehicleAge) {
+        for (int i = 0; i < ageThresholds.length; i++) {
+            if (vehicleAge > ageThresholds[i]) {
+                return agePercentages[i];
+            }
+        }
+        return NO_AGE_DISCOUNT;
+    }
+}
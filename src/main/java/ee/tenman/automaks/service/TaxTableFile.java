@@ -0,0 +1,233 @@
+package ee.tenman.automaks.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary format of the precomputed tax tables. All numbers are big-endian:
+ * <pre>
+ * int magic "ATAX", int format version, int CO2 grid size, int mass grid size,
+ * UTF rule set version, int section count, sections..., long CRC32 of everything before it
+ *
+ * section: long effective-from epoch day, long rules fingerprint,
+ *          long base registration amount and long base annual amount (10^-8 EUR),
+ *          int age step count, (int older-than, long percentage) per step,
+ *          long[CO2] registration WLTP, long[CO2] registration NEDC, long[CO2] annual,
+ *          long[mass] registration electric, long[mass] registration other,
+ *          long[mass] annual electric, long[mass] annual other (all 10^-6 EUR)
+ * </pre>
+ * The CO2 grid is in steps of 0.1 g/km from zero and the mass grid in steps of 1 kg from zero. A table is only
+ * generated if every entry is exact at that precision, so lookups give the same amounts as the {@link BigDecimal}
+ * engine.
+ */
+final class TaxTableFile {
+
+    static final int MAGIC = 0x41544158;
+    static final int FORMAT_VERSION = 1;
+    static final int CO2_STEPS = 10_001;
+    static final int MASS_STEPS = 10_001;
+    static final int AMOUNT_SCALE = 6;
+    static final int PERCENTAGE_SCALE = 2;
+    static final int RESULT_SCALE = AMOUNT_SCALE + PERCENTAGE_SCALE;
+
+    private static final int CO2_SCALE = 1;
+
+    private TaxTableFile() {
+    }
+
+    /**
+     * Writes to a temporary file next to {@code file} and moves it into place, so a replica mapping the file never
+     * sees it half written.
+     */
+    static void write(Path file, TaxRuleSets ruleSets) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(CO2_STEPS);
+        out.writeInt(MASS_STEPS);
+        out.writeUTF(ruleSets.version());
+        List<LocalDate> effectiveDates = ruleSets.effectiveDates();
+        out.writeInt(effectiveDates.size());
+        for (LocalDate effectiveDate : effectiveDates) {
+            writeSection(out, ruleSets.effectiveOn(effectiveDate));
+        }
+        out.flush();
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, bytes.toByteArray());
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Maps the file read-only. The pages live in the OS page cache, so replicas on one host mapping the same file share
+     * one copy. Throws {@link IllegalArgumentException} if the file is not a complete table of this format.
+     */
+    static Contents map(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            return read(buffer, file);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid tax table " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Contents read(ByteBuffer buffer, Path file) {
+        int payloadLength = buffer.capacity() - Long.BYTES;
+        if (payloadLength < 0) {
+            throw new IllegalArgumentException("file is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(payloadLength));
+        if (crc.getValue() != buffer.getLong(payloadLength)) {
+            throw new IllegalArgumentException("checksum mismatch");
+        }
+
+        ByteBuffer header = buffer.duplicate().limit(payloadLength);
+        if (header.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not a tax table");
+        }
+        int formatVersion = header.getInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IllegalArgumentException("unsupported format version " + formatVersion);
+        }
+        int co2Steps = header.getInt();
+        int massSteps = header.getInt();
+        byte[] version = new byte[Short.toUnsignedInt(header.getShort())];
+        header.get(version);
+        int sectionCount = header.getInt();
+
+        Map<Long, TaxTable> tables = new HashMap<>();
+        for (int i = 0; i < sectionCount; i++) {
+            LocalDate effectiveFrom = LocalDate.ofEpochDay(header.getLong());
+            long fingerprint = header.getLong();
+            long baseRegistrationAmount = header.getLong();
+            long baseAnnualAmount = header.getLong();
+            int ageSteps = header.getInt();
+            int[] ageThresholds = new int[ageSteps];
+            long[] agePercentages = new long[ageSteps];
+            for (int step = 0; step < ageSteps; step++) {
+                ageThresholds[step] = header.getInt();
+                agePercentages[step] = header.getLong();
+            }
+            int co2Tables = header.position();
+            int massTables = co2Tables + 3 * co2Steps * Long.BYTES;
+            header.position(massTables + 4 * massSteps * Long.BYTES);
+            tables.put(fingerprint, new TaxTable(buffer, effectiveFrom, baseRegistrationAmount, baseAnnualAmount,
+                    ageThresholds, agePercentages, co2Steps, co2Tables, massSteps, massTables));
+        }
+        if (header.hasRemaining()) {
+            throw new IllegalArgumentException(header.remaining() + " unexpected trailing bytes");
+        }
+        return new Contents(new String(version, StandardCharsets.UTF_8), file.toString(), Map.copyOf(tables));
+    }
+
+    private static void writeSection(DataOutputStream out, TaxRules rules) throws IOException {
+        out.writeLong(rules.getEffectiveFrom().toEpochDay());
+        out.writeLong(fingerprint(rules));
+        out.writeLong(toScaledLong(rules.getBaseRegistrationAmount(), RESULT_SCALE));
+        out.writeLong(toScaledLong(rules.getBaseAnnualAmount(), RESULT_SCALE));
+        out.writeInt(rules.getAgeDiscounts().size());
+        for (TaxRules.AgeDiscount ageDiscount : rules.getAgeDiscounts()) {
+            out.writeInt(ageDiscount.olderThan());
+            out.writeLong(toScaledLong(ageDiscount.factor(), PERCENTAGE_SCALE));
+        }
+
+        for (int i = 0; i < CO2_STEPS; i++) {
+            out.writeLong(toScaledLong(rules.registrationCo2Tax().apply(BigDecimal.valueOf(i, CO2_SCALE)), AMOUNT_SCALE));
+        }
+        for (int i = 0; i < CO2_STEPS; i++) {
+            BigDecimal nedcCo2 = BigDecimal.valueOf(i, CO2_SCALE).multiply(rules.getNedcConversionFactor());
+            out.writeLong(toScaledLong(rules.registrationCo2Tax().apply(nedcCo2), AMOUNT_SCALE));
+        }
+        for (int i = 0; i < CO2_STEPS; i++) {
+            out.writeLong(toScaledLong(rules.annualCo2Tax().apply(BigDecimal.valueOf(i, CO2_SCALE)), AMOUNT_SCALE));
+        }
+        for (PiecewiseLinearFunction massTax : List.of(rules.massTax(true), rules.massTax(false),
+                rules.annualMassTax(true), rules.annualMassTax(false))) {
+            for (int mass = 0; mass < MASS_STEPS; mass++) {
+                out.writeLong(toScaledLong(massTax.apply(BigDecimal.valueOf(mass)), AMOUNT_SCALE));
+            }
+        }
+    }
+
+    /**
+     * Identifies a rule set by its rates rather than by its version label, so a table is never used for rates it was
+     * not generated from.
+     */
+    static long fingerprint(TaxRules rules) {
+        StringBuilder text = new StringBuilder().append(rules.getEffectiveFrom());
+        for (BigDecimal value : List.of(rules.getBaseRegistrationAmount(), rules.getBaseAnnualAmount(),
+                rules.getDisplacementRate(), rules.getPowerRate(), rules.getNedcConversionFactor(),
+                rules.getMassTaxRate(), rules.getAnnualMassTaxRate(),
+                rules.getElectricAnnualMassTaxCap(), rules.getNonElectricAnnualMassTaxCap())) {
+            text.append('|').append(canonical(value));
+        }
+        text.append('|').append(rules.getElectricMassThreshold()).append('|').append(rules.getNonElectricMassThreshold());
+        for (List<TaxRules.Bracket> brackets : List.of(rules.getRegistrationCo2Brackets(), rules.getAnnualCo2Brackets())) {
+            text.append('|');
+            for (TaxRules.Bracket bracket : brackets) {
+                text.append(canonical(bracket.from())).append(':').append(canonical(bracket.rate())).append(';');
+            }
+        }
+        text.append('|');
+        for (TaxRules.AgeDiscount ageDiscount : rules.getAgeDiscounts()) {
+            text.append(ageDiscount.olderThan()).append(':').append(canonical(ageDiscount.factor())).append(';');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.toString().getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String canonical(BigDecimal value) {
+        return value.stripTrailingZeros().toPlainString();
+    }
+
+    private static long toScaledLong(BigDecimal value, int scale) {
+        try {
+            return value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Rate does not fit the table precision of " + scale + " decimals: " + value, e);
+        }
+    }
+
+    /**
+     * Tables of one file by rules fingerprint.
+     */
+    record Contents(String version, String source, Map<Long, TaxTable> tables) {
+    }
+}
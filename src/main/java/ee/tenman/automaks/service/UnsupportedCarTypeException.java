@@ -0,0 +1,15 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+import lombok.Getter;
+
+@Getter
+public class UnsupportedCarTypeException extends RuntimeException {
+
+    private final CarDetails.CarType carType;
+
+    public UnsupportedCarTypeException(CarDetails.CarType carType) {
+        super("Car type not supported yet: " + carType, null, false, false);
+        this.carType = carType;
+    }
+}
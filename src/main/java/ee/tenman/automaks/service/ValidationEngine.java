@@ -0,0 +1,6 @@
+package ee.tenman.automaks.service;
+
+public enum ValidationEngine {
+    COMPILED,
+    BEAN_VALIDATION
+}
@@ -3,17 +3,27 @@ package ee.tenman.automaks.service;
 import ee.tenman.automaks.dto.CarDetails;
 
 import java.math.BigDecimal;
+import java.util.Set;
+
+import static ee.tenman.automaks.dto.CarDetails.CarType.N1;
+import static ee.tenman.automaks.dto.CarDetails.CarType.N1G;
 
 public class VanTaxCalculator implements TaxCalculator {
 
+    private static final Set<CarDetails.CarType> SUPPORTED_CAR_TYPES = Set.of(N1, N1G);
+
+    @Override
+    public Set<CarDetails.CarType> supportedCarTypes() {
+        return SUPPORTED_CAR_TYPES;
+    }
+
     @Override
-    public BigDecimal calculateRegistrationTax(CarDetails carDetails) {
+    public BigDecimal calculateRegistrationTax(CarDetails carDetails, TaxContext context) {
         return null;
     }
 
     @Override
-    public BigDecimal calculateAnnualTax(CarDetails carDetails) {
+    public BigDecimal calculateAnnualTax(CarDetails carDetails, TaxContext context) {
         return null;
     }
 }
-
@@ -0,0 +1,151 @@
+package ee.tenman.automaks;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the packaged jar of the {@code aot} profile in child JVMs, once plainly and once with the AOT bean definitions
+ * and a class-data-sharing archive from a training run that served one calculation, the way the Dockerfile runs it.
+ * Measured are the time from launching the JVM to the first successful tax calculation, and how long that first
+ * calculation took once the application reported healthy. Runs are interleaved and compared by median so a noisy host
+ * affects both modes alike.
+ * Run with {@code mvn -Paot verify}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "automaks.jar", matches = ".+")
+class FastStartupIT {
+
+    private static final int RUNS = 3;
+    private static final double REQUIRED_STARTUP_RATIO = 0.9;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final String CAR_DETAILS = """
+            {"fullMass":2000,"carType":"M1","year":2021,"co2Emissions":150,"co2Type":"WLTP","electric":false}
+            """;
+
+    @TempDir
+    static Path directory;
+
+    private static Path jar;
+    private static Path archive;
+
+    @BeforeAll
+    static void extractAndTrain() throws Exception {
+        Path packaged = Path.of(System.getProperty("automaks.jar"));
+        run(List.of("-Djarmode=tools", "-jar", packaged.toString(), "extract", "--destination", "application"));
+        try (Stream<Path> files = Files.list(directory.resolve("application"))) {
+            jar = files.filter(file -> file.toString().endsWith(".jar")).findFirst().orElseThrow();
+        }
+        archive = directory.resolve("application.jsa");
+        start("-XX:ArchiveClassesAtExit=" + archive, "-Dspring.aot.enabled=true");
+        assertThat(archive).exists();
+    }
+
+    @Test
+    void aotWithClassDataSharing_servesFirstRequestSoonerThanPlainJar() throws Exception {
+        List<Startup> plain = new ArrayList<>();
+        List<Startup> fast = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            plain.add(start());
+            fast.add(start("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true"));
+        }
+
+        long plainReady = median(plain.stream().map(Startup::readyMillis).toList());
+        long fastReady = median(fast.stream().map(Startup::readyMillis).toList());
+        long plainFirstRequest = median(plain.stream().map(Startup::firstRequestMillis).toList());
+        long fastFirstRequest = median(fast.stream().map(Startup::firstRequestMillis).toList());
+        log.info("Median time to first calculation: plain {} ms, AOT+CDS {} ms; first calculation: plain {} ms, AOT+CDS {} ms",
+                plainReady, fastReady, plainFirstRequest, fastFirstRequest);
+
+        assertThat(fastReady)
+                .as("median ms to first calculation with AOT+CDS %s vs plain %s", fast, plain)
+                .isLessThan((long) (plainReady * REQUIRED_STARTUP_RATIO));
+        assertThat(fastFirstRequest)
+                .as("median ms of the first calculation with AOT+CDS %s vs plain %s", fast, plain)
+                .isLessThanOrEqualTo(plainFirstRequest);
+    }
+
+    private static Startup start(String... jvmOptions) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> arguments = new ArrayList<>(List.of(jvmOptions));
+        arguments.addAll(List.of("-jar", jar.toString(), "--server.port=" + port));
+
+        long launched = System.nanoTime();
+        Process process = launch(arguments);
+        try (HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build();
+            while (send(httpClient, health) != 200) {
+                assertThat(process.isAlive()).as("application exited during startup").isTrue();
+                assertThat(System.nanoTime() - launched).as("startup time").isLessThan(STARTUP_TIMEOUT.toNanos());
+                Thread.sleep(20);
+            }
+            long healthy = System.nanoTime();
+            HttpRequest calculation = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/tax/calculate"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(CAR_DETAILS))
+                    .build();
+            assertThat(send(httpClient, calculation)).isEqualTo(200);
+            long served = System.nanoTime();
+            return new Startup(TimeUnit.NANOSECONDS.toMillis(served - launched), TimeUnit.NANOSECONDS.toMillis(served - healthy));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static int send(HttpClient httpClient, HttpRequest request) throws IOException, InterruptedException {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (ConnectException e) {
+            return -1;
+        }
+    }
+
+    private static void run(List<String> arguments) throws Exception {
+        Process process = launch(arguments);
+        assertThat(process.waitFor(STARTUP_TIMEOUT.toSeconds(), TimeUnit.SECONDS)).as("%s finished", arguments).isTrue();
+        assertThat(process.exitValue()).as("exit code of %s", arguments).isZero();
+    }
+
+    private static Process launch(List<String> arguments) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(arguments);
+        return new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+    }
+
+    private static long median(List<Long> values) {
+        return values.stream().sorted().toList().get(values.size() / 2);
+    }
+
+    private record Startup(long readyMillis, long firstRequestMillis) {
+    }
+}
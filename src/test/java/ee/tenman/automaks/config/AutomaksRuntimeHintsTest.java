@@ -0,0 +1,40 @@
+package ee.tenman.automaks.config;
+
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.CarDetailsValidator;
+import ee.tenman.automaks.dto.TaxResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutomaksRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new AutomaksRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_coversRequestAndResponseBodies() throws NoSuchMethodException {
+        assertThat(RuntimeHintsPredicates.reflection().onType(CarDetails.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(CarDetails.class.getMethod("getCo2Emissions"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(TaxResponse.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(GlobalExceptionHandler.ApiError.class)).accepts(hints);
+    }
+
+    @Test
+    void registerHints_coversValidatorAndTaxRules() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(CarDetailsValidator.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(AutomaksRuntimeHints.TAX_RULES_DOCUMENT))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("tax-rules.yaml")).accepts(hints);
+    }
+}
@@ -0,0 +1,121 @@
+package ee.tenman.automaks.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.tenman.automaks.dto.BatchTaxResponse;
+import ee.tenman.automaks.dto.EncodedTaxResponse;
+import ee.tenman.automaks.dto.TaxResponse;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaxResponseJsonEncoderTest {
+
+    private static final ResolvableType TAX_RESPONSE = ResolvableType.forClass(TaxResponse.class);
+    private static final ResolvableType ENCODED_TAX_RESPONSE = ResolvableType.forClass(EncodedTaxResponse.class);
+    private static final ResolvableType BATCH_TAX_RESPONSE = ResolvableType.forClass(BatchTaxResponse.class);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .build();
+    private final DataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private final TaxResponseJsonEncoder encoder = new TaxResponseJsonEncoder(objectMapper);
+    private final Encoder<Object> jacksonEncoder = new Jackson2JsonEncoder(objectMapper);
+
+    @Test
+    void encodeValue_matchesJacksonForAmountsOfEveryShape() {
+        List<TaxResponse> responses = new ArrayList<>(List.of(
+                new TaxResponse(new BigDecimal("5485"), new BigDecimal("382")),
+                new TaxResponse(BigDecimal.ZERO, new BigDecimal("0.005")),
+                new TaxResponse(new BigDecimal("-0.05"), new BigDecimal("-1234.5")),
+                new TaxResponse(new BigDecimal("9999999999999.99"), new BigDecimal("123456789012345678901234.56")),
+                new TaxResponse(null, new BigDecimal("50")),
+                new TaxResponse(new BigDecimal("300"), null),
+                new TaxResponse(null, null)));
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000; i++) {
+            responses.add(new TaxResponse(
+                    BigDecimal.valueOf(random.nextLong(-1_000_000_000L, 1_000_000_000L), random.nextInt(0, 5)),
+                    BigDecimal.valueOf(random.nextLong(), 2)));
+        }
+
+        for (TaxResponse response : responses) {
+            assertThat(encode(encoder, Mono.just(response), TAX_RESPONSE, MediaType.APPLICATION_JSON))
+                    .isEqualTo(encode(jacksonEncoder, Mono.just(response), TAX_RESPONSE, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    @Test
+    void encodeValue_encodedResponse_writesItsJsonLikeJacksonWritesTheResponse() {
+        TaxResponse response = new TaxResponse(new BigDecimal("5485"), new BigDecimal("382"));
+        EncodedTaxResponse encoded = EncodedTaxResponse.of(response, objectMapper);
+        String expected = encode(jacksonEncoder, Mono.just(response), TAX_RESPONSE, MediaType.APPLICATION_JSON);
+
+        assertThat(encode(encoder, Mono.just(encoded), ENCODED_TAX_RESPONSE, MediaType.APPLICATION_JSON)).isEqualTo(expected);
+        assertThat(encode(jacksonEncoder, Mono.just(encoded), ENCODED_TAX_RESPONSE, MediaType.APPLICATION_JSON)).isEqualTo(expected);
+    }
+
+    @Test
+    void encode_ndjsonBatch_matchesJacksonIncludingFailedLines() {
+        List<BatchTaxResponse> lines = List.of(
+                BatchTaxResponse.success(1, new TaxResponse(new BigDecimal("5485"), new BigDecimal("382"))),
+                BatchTaxResponse.failure(2, "Malformed car details: \"quoted\"\n"),
+                BatchTaxResponse.failure(3, "Invalid car details", Map.of("year", "must not be null")),
+                BatchTaxResponse.success(12_345_678_901L, new TaxResponse(new BigDecimal("0.01"), BigDecimal.TEN)));
+
+        assertThat(encode(encoder, Flux.fromIterable(lines), BATCH_TAX_RESPONSE, MediaType.APPLICATION_NDJSON))
+                .isEqualTo(encode(jacksonEncoder, Flux.fromIterable(lines), BATCH_TAX_RESPONSE, MediaType.APPLICATION_NDJSON));
+    }
+
+    @Test
+    void encode_jsonArray_matchesJacksonIncludingEmpty() {
+        List<TaxResponse> responses = List.of(
+                new TaxResponse(new BigDecimal("5485"), new BigDecimal("382")),
+                new TaxResponse(new BigDecimal("300"), null));
+
+        assertThat(encode(encoder, Flux.fromIterable(responses), TAX_RESPONSE, MediaType.APPLICATION_JSON))
+                .isEqualTo(encode(jacksonEncoder, Flux.fromIterable(responses), TAX_RESPONSE, MediaType.APPLICATION_JSON));
+        assertThat(encode(encoder, Flux.empty(), TAX_RESPONSE, MediaType.APPLICATION_JSON))
+                .isEqualTo(encode(jacksonEncoder, Flux.empty(), TAX_RESPONSE, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void canEncode_onlyTaxResponsesAsUtf8Json() {
+        assertThat(encoder.canEncode(TAX_RESPONSE, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(encoder.canEncode(TAX_RESPONSE, null)).isTrue();
+        assertThat(encoder.canEncode(BATCH_TAX_RESPONSE, MediaType.APPLICATION_NDJSON)).isTrue();
+        assertThat(encoder.canEncode(TAX_RESPONSE, MediaType.APPLICATION_CBOR)).isFalse();
+        assertThat(encoder.canEncode(TAX_RESPONSE, new MimeType("application", "json", StandardCharsets.UTF_16))).isFalse();
+        assertThat(encoder.canEncode(ResolvableType.forClass(String.class), MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    private String encode(Encoder<Object> encoder, Publisher<?> input, ResolvableType type, MimeType mimeType) {
+        DataBuffer joined = DataBufferUtils.join(encoder.encode(input, bufferFactory, type, mimeType, Map.of())).block();
+        try {
+            return joined.toString(StandardCharsets.UTF_8);
+        } finally {
+            DataBufferUtils.release(joined);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ee.tenman.automaks.config.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final Duration LATENCY_TARGET = Duration.ofMillis(100);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 20, LATENCY_TARGET, 0.5);
+
+    @Test
+    void tryAcquire_rejectsOverLimitUntilReleased() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire(AdmissionPriority.INTERACTIVE)).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire(AdmissionPriority.INTERACTIVE)).isFalse();
+        limiter.release(-1);
+        assertThat(limiter.tryAcquire(AdmissionPriority.INTERACTIVE)).isTrue();
+        assertThat(limiter.inFlight()).isEqualTo(10);
+    }
+
+    @Test
+    void tryAcquire_bulkGetsOnlyItsShareAndLeavesRoomForInteractive() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(AdmissionPriority.BULK)).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire(AdmissionPriority.BULK)).isFalse();
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(AdmissionPriority.INTERACTIVE)).isTrue();
+        }
+        assertThat(limiter.tryAcquire(AdmissionPriority.INTERACTIVE)).isFalse();
+    }
+
+    @Test
+    void onSample_fastSamplesGrowLimitOnlyWhileItIsUsed() {
+        limiter.onSample(FAST, 2, 0);
+        assertThat(limiter.limit()).isEqualTo(10);
+
+        limiter.onSample(FAST, 5, 0);
+        limiter.onSample(FAST, 6, 0);
+        assertThat(limiter.limit()).isEqualTo(12);
+    }
+
+    @Test
+    void onSample_growthStopsAtMaxLimit() {
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(FAST, 20, 0);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void onSample_slowSamplesBackOffOncePerTargetInterval() {
+        long now = System.nanoTime();
+
+        limiter.onSample(SLOW, 10, now);
+        limiter.onSample(SLOW, 10, now + 1);
+        assertThat(limiter.limit()).isEqualTo(9);
+
+        limiter.onSample(SLOW, 10, now + LATENCY_TARGET.toNanos());
+        assertThat(limiter.limit()).isEqualTo(8);
+    }
+
+    @Test
+    void onSample_backOffStopsAtMinLimit() {
+        long now = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(SLOW, 10, now + i * LATENCY_TARGET.toNanos());
+        }
+
+        assertThat(limiter.limit()).isEqualTo(2);
+    }
+
+    @Test
+    void constructor_rejectsInconsistentLimits() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveConcurrencyLimiter(1, 2, 20, LATENCY_TARGET, 0.5));
+        assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveConcurrencyLimiter(10, 2, 20, LATENCY_TARGET, 0));
+    }
+}
@@ -0,0 +1,98 @@
+package ee.tenman.automaks.config.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlWebFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdmissionControlWebFilter filter = new AdmissionControlWebFilter();
+    private TaxAdmission taxAdmission;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        taxAdmission = new TaxAdmission(2, 2, 4, Duration.ofMillis(200), 0.5, Set.of("partner"), Duration.ofSeconds(3),
+                new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(filter, "taxAdmission", taxAdmission);
+    }
+
+    @Test
+    void overLimitRequestIsRejectedWith429AndRetryAfter() {
+        Sinks.Empty<Void> pending = Sinks.empty();
+        Disposable first = filter.filter(exchange("/tax/calculate", null), exchange -> pending.asMono()).subscribe();
+        Disposable second = filter.filter(exchange("/tax/calculate", null), exchange -> pending.asMono()).subscribe();
+
+        MockServerWebExchange rejected = exchange("/tax/calculate", null);
+        filter.filter(rejected, exchange -> Mono.error(new AssertionError("must not be admitted"))).block();
+
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(rejected.getResponse().getBodyAsString().block()).contains("TOO_MANY_REQUESTS");
+        assertThat(meterRegistry.get(TaxAdmission.REJECTIONS).tag("priority", "INTERACTIVE").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TaxAdmission.IN_FLIGHT_GAUGE).gauge().value()).isEqualTo(2);
+
+        pending.tryEmitEmpty();
+        first.dispose();
+        second.dispose();
+        assertThat(taxAdmission.limiter().inFlight()).isZero();
+    }
+
+    @Test
+    void bulkClientIsLimitedToItsShare() {
+        Sinks.Empty<Void> pending = Sinks.empty();
+        Disposable admitted = filter.filter(exchange("/tax/calculate", "partner"), exchange -> pending.asMono()).subscribe();
+
+        MockServerWebExchange rejected = exchange("/tax/calculate", "partner");
+        filter.filter(rejected, exchange -> Mono.empty()).block();
+        MockServerWebExchange interactive = exchange("/tax/calculate", "ui");
+        filter.filter(interactive, exchange -> Mono.empty()).block();
+
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(interactive.getResponse().getStatusCode()).isNull();
+        assertThat(meterRegistry.get(TaxAdmission.REJECTIONS).tag("priority", "BULK").counter().count()).isEqualTo(1);
+        admitted.dispose();
+    }
+
+    @Test
+    void cancelledRequestFreesItsSlot() {
+        Disposable cancelled = filter.filter(exchange("/tax/calculate", null), exchange -> Mono.never()).subscribe();
+        assertThat(taxAdmission.limiter().inFlight()).isEqualTo(1);
+
+        cancelled.dispose();
+
+        assertThat(taxAdmission.limiter().inFlight()).isZero();
+        assertThat(taxAdmission.limiter().limit()).isEqualTo(2);
+    }
+
+    @Test
+    void pathsOutsideTaxAreNotCounted() {
+        Disposable actuator = filter.filter(exchange("/actuator/health", null), exchange -> Mono.never()).subscribe();
+
+        assertThat(taxAdmission.limiter().inFlight()).isZero();
+        actuator.dispose();
+    }
+
+    private static MockServerWebExchange exchange(String path, String clientId) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.post(path);
+        if (clientId != null) {
+            request.header(TaxAdmission.CLIENT_ID_HEADER, clientId);
+        }
+        return MockServerWebExchange.from(request);
+    }
+}
@@ -0,0 +1,95 @@
+package ee.tenman.automaks.config.aspect;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferTest {
+
+    @Test
+    void capacity_isRoundedUpToPowerOfTwo() {
+        assertThat(new RingBuffer<>(1).capacity()).isEqualTo(1);
+        assertThat(new RingBuffer<>(8).capacity()).isEqualTo(8);
+        assertThat(new RingBuffer<>(1000).capacity()).isEqualTo(1024);
+    }
+
+    @Test
+    void offer_whenFull_rejectsWithoutBlocking() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.poll()).isZero();
+        assertThat(buffer.offer(4)).isTrue();
+    }
+
+    @Test
+    void poll_returnsElementsInOfferOrder() {
+        RingBuffer<String> buffer = new RingBuffer<>(2);
+
+        for (int round = 0; round < 10; round++) {
+            buffer.offer("a" + round);
+            buffer.offer("b" + round);
+            assertThat(buffer.poll()).isEqualTo("a" + round);
+            assertThat(buffer.poll()).isEqualTo("b" + round);
+            assertThat(buffer.poll()).isNull();
+        }
+    }
+
+    @Test
+    void offer_fromConcurrentProducers_deliversEveryAcceptedElementOnce() throws InterruptedException {
+        int producers = 8;
+        int elementsPerProducer = 10_000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int producer = 0; producer < producers; producer++) {
+            int offset = producer * elementsPerProducer;
+            executor.execute(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < elementsPerProducer; i++) {
+                    while (!buffer.offer(offset + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        List<Integer> received = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received.size() < producers * elementsPerProducer && System.nanoTime() < deadline) {
+            Integer element = buffer.poll();
+            if (element == null) {
+                Thread.yield();
+            } else {
+                received.add(element);
+            }
+        }
+        executor.shutdownNow();
+
+        Set<Integer> distinct = new HashSet<>(received);
+        assertThat(received).hasSize(producers * elementsPerProducer);
+        assertThat(distinct).hasSize(producers * elementsPerProducer);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
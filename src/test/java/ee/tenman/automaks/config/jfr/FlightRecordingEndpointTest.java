@@ -0,0 +1,23 @@
+package ee.tenman.automaks.config.jfr;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightRecordingEndpointTest {
+
+    @Test
+    void isNotExposedByDefault() throws IOException {
+        Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+
+        assertThat(StringUtils.commaDelimitedListToSet(properties.getProperty("management.endpoints.web.exposure.include")))
+                .isNotEmpty()
+                .doesNotContain("jfr", "*");
+    }
+}
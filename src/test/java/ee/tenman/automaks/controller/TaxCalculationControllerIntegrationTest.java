@@ -1,31 +1,78 @@
 package ee.tenman.automaks.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import ee.tenman.automaks.config.GlobalExceptionHandler;
+import ee.tenman.automaks.config.TaxClockConfiguration;
+import ee.tenman.automaks.config.jfr.FlightRecordingEndpoint;
+import ee.tenman.automaks.dto.BatchTaxResponse;
 import ee.tenman.automaks.dto.CarDetails;
 import ee.tenman.automaks.dto.TaxResponse;
 import jakarta.annotation.Resource;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "management.endpoints.web.exposure.include=health,info,metrics,prometheus,taxrules,auditevents,jfr",
+        "spring.threads.virtual.enabled=true"
+})
 @AutoConfigureWebTestClient
+@AutoConfigureObservability(tracing = false)
+@ExtendWith(OutputCaptureExtension.class)
 class TaxCalculationControllerIntegrationTest {
 
+    private static final CBORMapper CBOR_MAPPER = CBORMapper.builder().addModule(new JavaTimeModule()).build();
+
+    /**
+     * The expected amounts depend on the cars' age and were worked out in 2024.
+     */
+    private static final int TAX_YEAR = 2024;
+
     @Resource
     WebTestClient webTestClient;
 
+    @TestConfiguration
+    static class FixedTaxClock {
+
+        @Bean
+        @Primary
+        Clock fixedTaxClock() {
+            return Clock.fixed(LocalDate.of(TAX_YEAR, 6, 1).atStartOfDay(TaxClockConfiguration.TAX_ZONE).toInstant(),
+                    TaxClockConfiguration.TAX_ZONE);
+        }
+    }
+
     public static Stream<Arguments> provideCarData() {
         return Stream.of(
                 Arguments.of("Porsche Cayenne",
@@ -159,6 +206,49 @@ class TaxCalculationControllerIntegrationTest {
                 });
     }
 
+    /**
+     * Tomcat names its virtual request threads {@code tomcat-handler-N}; its platform pool threads are
+     * {@code http-nio-...-exec-N}.
+     */
+    @Test
+    void testCalculateTaxEndpoint_runsOnVirtualThreadWithTransactionId(CapturedOutput output) {
+        webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"fullMass\":1530,\"carType\":\"M1\",\"year\":2021,\"electric\":true}")
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(output.getOut().lines()
+                .filter(line -> line.contains("Entered method: TaxCalculationController.calculateTax")))
+                .as("@Loggable runs on virtual request threads with a transaction ID in the MDC")
+                .isNotEmpty()
+                .allMatch(line -> line.matches(".*\\[tomcat-handler-\\d+] .*LoggingAspect \\[[0-9a-f-]{36}] - Entered method.*"));
+    }
+
+    @Test
+    void testCalculateTaxEndpoint_whenAsOfGiven_usesThatTaxYear() {
+        CarDetails carDetails = CarDetails.builder()
+                .co2Emissions(BigDecimal.valueOf(299D))
+                .fullMass(2860)
+                .carType(CarDetails.CarType.M1)
+                .year(2019)
+                .co2Type(CarDetails.CO2Type.WLTP)
+                .asOf(LocalDate.of(2031, 3, 1))
+                .build();
+
+        webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(carDetails)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaxResponse.class)
+                .consumeWith(response -> {
+                    TaxResponse calculatedTax = response.getResponseBody();
+                    assertThat(calculatedTax.registrationTax()).isEqualByComparingTo("8432.50");
+                    assertThat(calculatedTax.annualTax()).isEqualByComparingTo("557");
+                });
+    }
+
     @Test
     void testCalculateTaxEndpoint_whenBadRequestWhenEngineCapacityMissing() {
         CarDetails carDetails = CarDetails.builder()
@@ -235,4 +325,411 @@ class TaxCalculationControllerIntegrationTest {
                 });
     }
     
+    @Test
+    void testCalculateTaxEndpoint_whenCarTypeNotSupported() {
+        CarDetails carDetails = CarDetails.builder()
+                .carType(CarDetails.CarType.L3e)
+                .fullMass(300)
+                .year(2021)
+                .electric(true)
+                .build();
+
+        webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(carDetails)
+                .exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody(GlobalExceptionHandler.ApiError.class)
+                .consumeWith(response -> {
+                    GlobalExceptionHandler.ApiError apiError = response.getResponseBody();
+                    assertThat(apiError.getMessage()).as("Message").isEqualTo("Car type not supported yet: L3e");
+                    assertThat(apiError.getValidationErrors()).as("Validation errors").isNull();
+                });
+    }
+
+    @Test
+    void testCalculateTaxBatchEndpoint_reportsErrorsPerLine() {
+        String body = """
+                {"fullMass":1530,"carType":"M1","year":2021,"electric":true}
+                {"carType":"M1","fullMass":2000,"year":2019,"co2Emissions":150}
+
+                {"fullMass":
+                {"fullMass":2000,"carType":"L3e","year":2021,"electric":true}
+                {"co2Emissions":0,"fullMass":2139,"carType":"M1","year":2021,"electric":true}
+                """;
+
+        webTestClient.post().uri("/tax/calculate/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BatchTaxResponse.class)
+                .consumeWith(response -> {
+                    List<BatchTaxResponse> results = response.getResponseBody();
+                    assertThat(results).extracting(BatchTaxResponse::line).containsExactly(1L, 2L, 4L, 5L, 6L);
+
+                    assertThat(results.get(0).registrationTax()).isEqualByComparingTo("300");
+                    assertThat(results.get(0).annualTax()).isEqualByComparingTo("50");
+                    assertThat(results.get(0).error()).isNull();
+
+                    assertThat(results.get(1).error()).isEqualTo("Validation error");
+                    assertThat(results.get(1).validationErrors())
+                            .containsOnly(Map.entry("co2Type", "Missing CO2Type for vehicle with co2Emissions."));
+
+                    assertThat(results.get(2).error()).startsWith("Malformed car details");
+                    assertThat(results.get(3).error()).isEqualTo("Car type not supported yet: L3e");
+
+                    assertThat(results.get(4).registrationTax()).isEqualByComparingTo("300");
+                    assertThat(results.get(4).annualTax()).isEqualByComparingTo("50");
+                });
+    }
+
+    @Test
+    void testAggregateTaxEndpoint_returnsTotalsByCarTypeAndAgeBand() {
+        String body = """
+                [{"fullMass":1530,"carType":"M1","year":%1$d,"electric":true},
+                 {"fullMass":2139,"carType":"M1G","year":%1$d,"electric":true},
+                 {"fullMass":2000,"carType":"L3e","year":%1$d,"electric":true}]
+                """.formatted(TAX_YEAR - 1);
+
+        webTestClient.post().uri("/tax/aggregate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.total.count").isEqualTo(2)
+                .jsonPath("$.total.registrationTax.sum").isEqualTo(600.0)
+                .jsonPath("$.total.annualTax.max").isEqualTo(50.0)
+                .jsonPath("$.byCarType.M1G.count").isEqualTo(1)
+                .jsonPath("$.byAgeBand['0-5'].count").isEqualTo(2)
+                .jsonPath("$.rejectedCars").isEqualTo(1);
+    }
+
+    @Test
+    void testProjectionEndpoint_appliesAgeDiscountAsCarAges() {
+        int currentYear = TAX_YEAR;
+        CarDetails carDetails = CarDetails.builder()
+                .co2Emissions(BigDecimal.valueOf(150D))
+                .fullMass(1990)
+                .carType(CarDetails.CarType.M1)
+                .year(currentYear - 4)
+                .co2Type(CarDetails.CO2Type.WLTP)
+                .build();
+
+        webTestClient.post().uri("/tax/projection?years=20")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(carDetails)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.years.length()").isEqualTo(20)
+                .jsonPath("$.years[0].year").isEqualTo(currentYear)
+                .jsonPath("$.years[0].vehicleAge").isEqualTo(4)
+                .jsonPath("$.years[0].annualTax").isEqualTo(149.0)
+                .jsonPath("$.years[2].annualTax").isEqualTo(124.25)
+                .jsonPath("$.years[7].annualTax").isEqualTo(99.5)
+                .jsonPath("$.years[12].annualTax").isEqualTo(59.9)
+                .jsonPath("$.years[17].annualTax").isEqualTo(50.0)
+                .jsonPath("$.totalAnnualTax").isEqualTo(1866.25);
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideInvalidProjectionYears")
+    void testProjectionEndpoint_whenYearsOutOfRange(String years) {
+        webTestClient.post().uri("/tax/projection?years=" + years)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(1530).year(2021).electric(true).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(GlobalExceptionHandler.ApiError.class)
+                .consumeWith(response -> assertThat(response.getResponseBody().getValidationErrors()).containsOnlyKeys("years"));
+    }
+
+    static Stream<String> provideInvalidProjectionYears() {
+        return Stream.of("0", "51", "", "ten");
+    }
+
+    @Test
+    void testProjectionEndpoint_whenCarDetailsInvalid() {
+        webTestClient.post().uri("/tax/projection?years=5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(2000).year(2019).co2Emissions(BigDecimal.TEN).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(GlobalExceptionHandler.ApiError.class)
+                .consumeWith(response -> assertThat(response.getResponseBody().getValidationErrors())
+                        .containsOnly(Map.entry("co2Type", "Missing CO2Type for vehicle with co2Emissions.")));
+    }
+
+    @Test
+    void testBreakdownEndpoint_explainsCalculatedTaxes() {
+        CarDetails carDetails = CarDetails.builder()
+                .co2Emissions(BigDecimal.valueOf(150D))
+                .fullMass(1990)
+                .carType(CarDetails.CarType.M1)
+                .year(TAX_YEAR - 4)
+                .co2Type(CarDetails.CO2Type.NEDC)
+                .build();
+        TaxResponse taxResponse = webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(carDetails)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaxResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        webTestClient.post().uri("/tax/breakdown")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(carDetails)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.registrationTax").isEqualTo(taxResponse.registrationTax().doubleValue())
+                .jsonPath("$.annualTax").isEqualTo(taxResponse.annualTax().doubleValue())
+                .jsonPath("$.vehicleAge").isEqualTo(4)
+                .jsonPath("$.calculationPath").isEqualTo("CO2")
+                .jsonPath("$.registration.co2Basis").isEqualTo(186.0)
+                .jsonPath("$.registration.co2Brackets[?(@.to == 186)]").exists()
+                .jsonPath("$.annual.co2Basis").isEqualTo(150.0)
+                .jsonPath("$.registration.massBrackets").isNotEmpty();
+    }
+
+    @Test
+    void testBreakdownEndpoint_whenCarDetailsInvalid() {
+        webTestClient.post().uri("/tax/breakdown")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(2000).year(2019).co2Emissions(BigDecimal.TEN).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(GlobalExceptionHandler.ApiError.class)
+                .consumeWith(response -> assertThat(response.getResponseBody().getValidationErrors())
+                        .containsOnly(Map.entry("co2Type", "Missing CO2Type for vehicle with co2Emissions.")));
+    }
+
+    @Test
+    void testPrometheusEndpoint_exposesCalculationMetrics() {
+        webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(1530).year(2021).electric(true).build())
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(2000).year(2019).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.get().uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .consumeWith(response -> assertThat(response.getResponseBody())
+                        .contains("tax_calculation_seconds_bucket{carType=\"M1\",co2Type=\"NONE\",electric=\"true\",path=\"ELECTRIC\"")
+                        .contains("tax_validation_failures_total{field=\"engineCapacity\",source=\"request\"}")
+                        .contains("tax_unsupported_car_types_total{carType=\"L3e\"}"));
+    }
+
+    @Test
+    void testPrometheusEndpoint_exposesAdmissionMetrics() {
+        webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Priority", "bulk")
+                .bodyValue(CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(1530).year(2021).electric(true).build())
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .consumeWith(response -> assertThat(response.getResponseBody())
+                        .contains("tax_admission_limit ")
+                        .contains("tax_admission_in_flight ")
+                        .contains("tax_admission_rejections_total{priority=\"BULK\"} 0.0")
+                        .contains("tax_admission_rejections_total{priority=\"INTERACTIVE\"} 0.0"));
+    }
+
+    @Test
+    void taxRulesEndpoint_reportsActiveVersion() {
+        webTestClient.get().uri("/actuator/taxrules")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.version").isEqualTo("2025.1")
+                .jsonPath("$.source").isEqualTo("classpath:tax-rules.yaml")
+                .jsonPath("$.effectiveDates[0]").isEqualTo("2025-01-01")
+                .jsonPath("$.inForceFrom").isEqualTo("2025-01-01");
+    }
+
+    @Test
+    void testCalculateTax_negotiatesCbor() throws IOException {
+        CarDetails carDetails = CarDetails.builder()
+                .fullMass(2139)
+                .carType(CarDetails.CarType.M1)
+                .year(2021)
+                .electric(true)
+                .build();
+
+        byte[] body = webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .bodyValue(CBOR_MAPPER.writeValueAsBytes(carDetails))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        JsonNode taxResponse = CBOR_MAPPER.readTree(body);
+        assertThat(taxResponse.get("registrationTax").isBigDecimal()).isTrue();
+        assertThat(taxResponse.get("registrationTax").decimalValue()).isEqualByComparingTo("300");
+        assertThat(taxResponse.get("annualTax").decimalValue()).isEqualByComparingTo("50");
+    }
+
+    @Test
+    void testCalculateTax_cborResponseIsSmallerThanJson() throws IOException {
+        CarDetails carDetails = CarDetails.builder()
+                .co2Emissions(new BigDecimal("188.0"))
+                .fullMass(2250)
+                .carType(CarDetails.CarType.M1)
+                .year(2018)
+                .co2Type(CarDetails.CO2Type.WLTP)
+                .build();
+
+        byte[] json = calculateTax(carDetails, MediaType.APPLICATION_JSON);
+        byte[] cbor = calculateTax(carDetails, MediaType.APPLICATION_CBOR);
+
+        JsonNode jsonResponse = new ObjectMapper().readTree(json);
+        JsonNode cborResponse = CBOR_MAPPER.readTree(cbor);
+        assertThat(cborResponse.get("registrationTax").decimalValue()).isEqualByComparingTo(jsonResponse.get("registrationTax").decimalValue());
+        assertThat(cborResponse.get("annualTax").decimalValue()).isEqualByComparingTo(jsonResponse.get("annualTax").decimalValue());
+        assertThat(cbor).hasSizeLessThan(json.length);
+    }
+
+    @Test
+    void testCalculateTax_cborValidationErrorIsCbor() throws IOException {
+        byte[] body = webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .bodyValue(CBOR_MAPPER.writeValueAsBytes(CarDetails.builder().carType(CarDetails.CarType.M1).year(2021).electric(true).build()))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        assertThat(CBOR_MAPPER.readTree(body).get("validationErrors").has("fullMass")).isTrue();
+    }
+
+    @Test
+    void testCalculateTaxBatch_cborArray() throws IOException {
+        List<CarDetails> cars = Arrays.asList(
+                CarDetails.builder().fullMass(1530).carType(CarDetails.CarType.M1).year(2021).electric(true).build(),
+                CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(2000).year(2019).co2Emissions(BigDecimal.valueOf(150)).build(),
+                null);
+
+        byte[] body = webTestClient.post().uri("/tax/calculate/batch")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .bodyValue(CBOR_MAPPER.writeValueAsBytes(cars))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        List<BatchTaxResponse> results = CBOR_MAPPER.readValue(body, new TypeReference<>() {
+        });
+        assertThat(results).extracting(BatchTaxResponse::line).containsExactly(1L, 2L, 3L);
+        assertThat(results.get(0).registrationTax()).isEqualByComparingTo("300");
+        assertThat(results.get(1).validationErrors()).containsOnlyKeys("co2Type");
+        assertThat(results.get(2).error()).isEqualTo("Missing car details");
+    }
+
+    @Test
+    void jfrEndpoint_recordsTaxStagesOfOneRequest() throws IOException {
+        webTestClient.post().uri("/actuator/jfr")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("duration", "1m"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("RUNNING")
+                .jsonPath("$.duration").isEqualTo("PT1M");
+        webTestClient.post().uri("/actuator/jfr")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of())
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        webTestClient.post().uri("/tax/calculate")
+                .bodyValue(CarDetails.builder()
+                        .co2Emissions(new BigDecimal("143.7"))
+                        .fullMass(2213)
+                        .carType(CarDetails.CarType.M1)
+                        .year(2020)
+                        .co2Type(CarDetails.CO2Type.WLTP)
+                        .build())
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.delete().uri("/actuator/jfr")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("STOPPED");
+        byte[] recording = webTestClient.mutate()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(64 * 1024 * 1024))
+                .build()
+                .get().uri("/actuator/jfr/recording.jfr")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        Path file = Files.createTempFile("automaks-test-", ".jfr");
+        try {
+            Files.write(file, recording);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertThat(events).extracting(event -> event.getEventType().getName())
+                    .doesNotContainAnyElementsOf(FlightRecordingEndpoint.SECRET_EVENTS);
+            List<RecordedEvent> stages = events.stream()
+                    .filter(event -> event.getEventType().getName().startsWith("ee.tenman.automaks."))
+                    .toList();
+            String transactionId = stages.stream()
+                    .filter(event -> event.getEventType().getName().equals("ee.tenman.automaks.Calculation"))
+                    .map(event -> event.getString("transactionId"))
+                    .findFirst().orElseThrow();
+            List<RecordedEvent> request = stages.stream()
+                    .filter(event -> transactionId.equals(event.getString("transactionId")))
+                    .toList();
+
+            assertThat(request).extracting(event -> event.getEventType().getName()).contains(
+                    "ee.tenman.automaks.Validation", "ee.tenman.automaks.Logging", "ee.tenman.automaks.Calculation",
+                    "ee.tenman.automaks.ResponseEncoding");
+            assertThat(request).filteredOn(event -> !event.getEventType().getName().endsWith("ResponseEncoding"))
+                    .allSatisfy(event -> {
+                        assertThat(event.getString("carType")).isEqualTo("M1");
+                        assertThat(event.getString("calculationPath")).isEqualTo("CO2");
+                    });
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private byte[] calculateTax(CarDetails carDetails, MediaType responseType) {
+        return webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(responseType)
+                .bodyValue(carDetails)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(responseType)
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+    }
 }
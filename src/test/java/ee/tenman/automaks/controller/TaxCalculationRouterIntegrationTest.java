@@ -0,0 +1,340 @@
+package ee.tenman.automaks.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import ee.tenman.automaks.config.GlobalExceptionHandler;
+import ee.tenman.automaks.dto.BatchTaxResponse;
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.TaxResponse;
+import jakarta.annotation.Resource;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.main.web-application-type=reactive",
+                "management.endpoints.web.exposure.include=health,info,metrics,prometheus,taxrules,auditevents,jfr"})
+@AutoConfigureWebTestClient
+class TaxCalculationRouterIntegrationTest {
+
+    private static final CBORMapper CBOR_MAPPER = CBORMapper.builder().addModule(new JavaTimeModule()).build();
+
+    @Resource
+    WebTestClient webTestClient;
+
+    @Resource
+    ApplicationContext applicationContext;
+
+    @Test
+    void runsOnNettyWithoutAnnotatedController() {
+        assertThat(applicationContext).isInstanceOf(ReactiveWebServerApplicationContext.class);
+        assertThat(((ReactiveWebServerApplicationContext) applicationContext).getWebServer()).isInstanceOf(NettyWebServer.class);
+        assertThat(applicationContext.getBeansOfType(TaxCalculationController.class)).isEmpty();
+        assertThat(applicationContext.getBeansOfType(TaxCalculationHandler.class)).hasSize(1);
+    }
+
+    @Test
+    void testCalculateTaxRoute() {
+        CarDetails carDetails = CarDetails.builder()
+                .co2Emissions(BigDecimal.ZERO)
+                .fullMass(2139)
+                .carType(CarDetails.CarType.M1)
+                .year(2021)
+                .electric(true)
+                .build();
+
+        webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(carDetails)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TaxResponse.class)
+                .consumeWith(response -> {
+                    TaxResponse calculatedTax = response.getResponseBody();
+                    assertThat(calculatedTax.registrationTax()).isEqualByComparingTo("300");
+                    assertThat(calculatedTax.annualTax()).isEqualByComparingTo("50");
+                });
+    }
+
+    @Test
+    void testProjectionRoute() {
+        CarDetails carDetails = CarDetails.builder()
+                .fullMass(2139)
+                .carType(CarDetails.CarType.M1)
+                .year(2021)
+                .electric(true)
+                .build();
+
+        webTestClient.post().uri("/tax/projection?years=30")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(carDetails)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.years.length()").isEqualTo(30)
+                .jsonPath("$.totalAnnualTax").isEqualTo(1500.0);
+    }
+
+    @Test
+    void testBreakdownRoute() {
+        CarDetails carDetails = CarDetails.builder()
+                .co2Emissions(BigDecimal.ZERO)
+                .fullMass(2139)
+                .carType(CarDetails.CarType.M1)
+                .year(2021)
+                .electric(true)
+                .build();
+
+        webTestClient.post().uri("/tax/breakdown")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(carDetails)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.registrationTax").isEqualTo(300.0)
+                .jsonPath("$.annualTax").isEqualTo(50.0)
+                .jsonPath("$.calculationPath").isEqualTo("ELECTRIC")
+                .jsonPath("$.registration.co2Basis").doesNotExist()
+                .jsonPath("$.registration.co2Brackets").doesNotExist()
+                .jsonPath("$.registration.massBrackets").isNotEmpty();
+    }
+
+    @Test
+    void testBreakdownRoute_whenUnsupportedCarType() {
+        webTestClient.post().uri("/tax/breakdown")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CarDetails.builder().carType(CarDetails.CarType.L3e).fullMass(300).year(2021).electric(true).build())
+                .exchange()
+                .expectStatus().isEqualTo(422);
+    }
+
+    @Test
+    void testProjectionRoute_whenYearsMissing() {
+        webTestClient.post().uri("/tax/projection")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CarDetails.builder().fullMass(2139).carType(CarDetails.CarType.M1).year(2021).electric(true).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(GlobalExceptionHandler.ApiError.class)
+                .consumeWith(response -> assertThat(response.getResponseBody().getValidationErrors()).containsOnlyKeys("years"));
+    }
+
+    @Test
+    void testCalculateTaxRoute_whenBadRequestAndCO2TypeMissing() {
+        CarDetails carDetails = CarDetails.builder()
+                .carType(CarDetails.CarType.M1)
+                .fullMass(2000)
+                .year(2019)
+                .co2Emissions(BigDecimal.valueOf(150D))
+                .build();
+
+        webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(carDetails)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(GlobalExceptionHandler.ApiError.class)
+                .consumeWith(response -> {
+                    GlobalExceptionHandler.ApiError apiError = response.getResponseBody();
+                    assertThat(apiError.getMessage()).as("Message").isEqualTo("Validation error");
+                    assertThat(apiError.getDebugMessage()).as("Debug message").isEqualTo("One or more fields have an error");
+                    assertThat(apiError.getValidationErrors()).as("Validation errors")
+                            .containsOnly(Map.entry("co2Type", "Missing CO2Type for vehicle with co2Emissions."));
+                });
+    }
+
+    @Test
+    void testCalculateTaxRoute_whenRequiredFieldsMissing() {
+        webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"fullMass\":2000,\"electric\":true}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(GlobalExceptionHandler.ApiError.class)
+                .consumeWith(response -> assertThat(response.getResponseBody().getValidationErrors())
+                        .containsOnlyKeys("year", "carType"));
+    }
+
+    @Test
+    void testCalculateTaxRoute_whenBodyMalformed() {
+        webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"fullMass\":")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(GlobalExceptionHandler.ApiError.class)
+                .consumeWith(response -> assertThat(response.getResponseBody().getMessage()).isEqualTo("Malformed car details"));
+    }
+
+    @Test
+    void testCalculateTaxRoute_whenCarTypeNotSupported() {
+        CarDetails carDetails = CarDetails.builder()
+                .carType(CarDetails.CarType.L3e)
+                .fullMass(300)
+                .year(2021)
+                .electric(true)
+                .build();
+
+        webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(carDetails)
+                .exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody(GlobalExceptionHandler.ApiError.class)
+                .consumeWith(response -> assertThat(response.getResponseBody().getMessage())
+                        .isEqualTo("Car type not supported yet: L3e"));
+    }
+
+    @Test
+    void testCalculateTaxBatchRoute_reportsErrorsPerLine() {
+        String body = """
+                {"fullMass":1530,"carType":"M1","year":2021,"electric":true}
+                {"carType":"M1","fullMass":2000,"year":2019,"co2Emissions":150}
+
+                {"fullMass":
+                {"fullMass":2000,"carType":"L3e","year":2021,"electric":true}
+                """;
+
+        webTestClient.post().uri("/tax/calculate/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BatchTaxResponse.class)
+                .consumeWith(response -> {
+                    List<BatchTaxResponse> results = response.getResponseBody();
+                    assertThat(results).extracting(BatchTaxResponse::line).containsExactly(1L, 2L, 4L, 5L);
+                    assertThat(results.get(0).registrationTax()).isEqualByComparingTo("300");
+                    assertThat(results.get(1).error()).isEqualTo("Validation error");
+                    assertThat(results.get(2).error()).startsWith("Malformed car details");
+                    assertThat(results.get(3).error()).isEqualTo("Car type not supported yet: L3e");
+                });
+    }
+
+    @Test
+    void testCalculateTax_negotiatesCbor() throws IOException {
+        CarDetails carDetails = CarDetails.builder()
+                .fullMass(2139)
+                .carType(CarDetails.CarType.M1)
+                .year(2021)
+                .electric(true)
+                .build();
+
+        byte[] body = webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .bodyValue(CBOR_MAPPER.writeValueAsBytes(carDetails))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        JsonNode taxResponse = CBOR_MAPPER.readTree(body);
+        assertThat(taxResponse.get("registrationTax").isBigDecimal()).isTrue();
+        assertThat(taxResponse.get("registrationTax").decimalValue()).isEqualByComparingTo("300");
+        assertThat(taxResponse.get("annualTax").decimalValue()).isEqualByComparingTo("50");
+    }
+
+    @Test
+    void testCalculateTax_cborValidationErrorIsCbor() throws IOException {
+        byte[] body = webTestClient.post().uri("/tax/calculate")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .bodyValue(CBOR_MAPPER.writeValueAsBytes(CarDetails.builder().carType(CarDetails.CarType.M1).year(2021).electric(true).build()))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        assertThat(CBOR_MAPPER.readTree(body).get("validationErrors").has("fullMass")).isTrue();
+    }
+
+    @Test
+    void testCalculateTaxBatch_cborArray() throws IOException {
+        List<CarDetails> cars = Arrays.asList(
+                CarDetails.builder().fullMass(1530).carType(CarDetails.CarType.M1).year(2021).electric(true).build(),
+                CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(2000).year(2019).co2Emissions(BigDecimal.valueOf(150)).build(),
+                null);
+
+        byte[] body = webTestClient.post().uri("/tax/calculate/batch")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .bodyValue(CBOR_MAPPER.writeValueAsBytes(cars))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+
+        List<BatchTaxResponse> results = CBOR_MAPPER.readValue(body, new TypeReference<>() {
+        });
+        assertThat(results).extracting(BatchTaxResponse::line).containsExactly(1L, 2L, 3L);
+        assertThat(results.get(0).registrationTax()).isEqualByComparingTo("300");
+        assertThat(results.get(1).validationErrors()).containsOnlyKeys("co2Type");
+        assertThat(results.get(2).error()).isEqualTo("Missing car details");
+    }
+
+    @Test
+    void jfrEndpoint_recordsTaxStagesUnderRequestId() throws IOException {
+        webTestClient.post().uri("/actuator/jfr")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("duration", "1m"))
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.post().uri("/tax/calculate")
+                .bodyValue(CarDetails.builder().fullMass(2317).carType(CarDetails.CarType.M1).year(2022).electric(true).build())
+                .exchange()
+                .expectStatus().isOk();
+
+        byte[] recording = webTestClient.mutate()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(64 * 1024 * 1024))
+                .build()
+                .get().uri("/actuator/jfr/recording.jfr")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+        webTestClient.delete().uri("/actuator/jfr").exchange().expectStatus().isOk();
+
+        Path file = Files.createTempFile("automaks-test-", ".jfr");
+        try {
+            Files.write(file, recording);
+            List<RecordedEvent> stages = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().startsWith("ee.tenman.automaks."))
+                    .toList();
+            RecordedEvent calculation = stages.stream()
+                    .filter(event -> event.getEventType().getName().equals("ee.tenman.automaks.Calculation"))
+                    .findFirst().orElseThrow();
+            assertThat(calculation.getString("carType")).isEqualTo("M1");
+            assertThat(calculation.getString("calculationPath")).isEqualTo("ELECTRIC");
+            assertThat(stages)
+                    .filteredOn(event -> calculation.getString("transactionId").equals(event.getString("transactionId")))
+                    .extracting(event -> event.getEventType().getName())
+                    .contains("ee.tenman.automaks.Validation", "ee.tenman.automaks.ResponseEncoding");
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ee.tenman.automaks.controller;
+
+import ee.tenman.automaks.AutomaksApplication;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every request blocks for {@link #BLOCKING_TIME} in a servlet filter, standing in for synchronous appenders or I/O.
+ * The platform-thread pool is scaled down to {@link #PLATFORM_THREADS} so the saturation point is reached with a small
+ * number of requests. It boots the application twice and compares timings, so it runs with {@code mvn verify} rather
+ * than with the unit tests; {@link VirtualThreadRequestTest} checks that requests run on virtual threads at all.
+ */
+class VirtualThreadThroughputIT {
+
+    private static final Duration BLOCKING_TIME = Duration.ofMillis(500);
+    private static final int PLATFORM_THREADS = 5;
+    private static final int CONCURRENT_REQUESTS = 100;
+    private static final String CAR_DETAILS = """
+            {"fullMass":1530,"carType":"M1","year":2021,"electric":true}
+            """;
+
+    @Test
+    void virtualThreads_serveBlockingRequestsFasterThanPlatformThreadPool() throws Exception {
+        double platformThroughput = measureThroughput(false);
+        double virtualThroughput = measureThroughput(true);
+
+        assertThat(virtualThroughput)
+                .as("requests/s on virtual threads vs %.1f requests/s on %d platform threads", platformThroughput, PLATFORM_THREADS)
+                .isGreaterThan(2 * platformThroughput);
+    }
+
+    private static double measureThroughput(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AutomaksApplication.class, BlockingFilterConfiguration.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "--automaks.admission.enabled=false",
+                        "--spring.devtools.restart.enabled=false");
+             HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(
+                            "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/tax/calculate"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(CAR_DETAILS))
+                    .build();
+            httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+
+            long start = System.nanoTime();
+            List<CompletableFuture<HttpResponse<String>>> responses = IntStream.range(0, CONCURRENT_REQUESTS)
+                    .mapToObj(i -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                    .toList();
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+            long elapsedNanos = System.nanoTime() - start;
+
+            assertThat(responses).allSatisfy(response -> assertThat(response.join().statusCode()).isEqualTo(200));
+            return CONCURRENT_REQUESTS * 1e9 / elapsedNanos;
+        }
+    }
+
+    @Configuration
+    static class BlockingFilterConfiguration {
+
+        @Bean
+        FilterRegistrationBean<Filter> blockingFilter() {
+            FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>((request, response, chain) -> {
+                try {
+                    Thread.sleep(BLOCKING_TIME);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                chain.doFilter(request, response);
+            });
+            registration.addUrlPatterns("/tax/*");
+            return registration;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ee.tenman.automaks.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledCarDetailsValidatorTest {
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void validate_matchesBeanValidationForEveryFieldCombination() {
+        List<CarDetails> cars = everyCombination();
+
+        for (CarDetails carDetails : cars) {
+            assertThat(CompiledCarDetailsValidator.validate(carDetails)).as(carDetails.toString())
+                    .isEqualTo(beanValidation(carDetails));
+        }
+        assertThat(cars).hasSize((CarDetails.CarType.values().length + 1) * 128);
+    }
+
+    @Test
+    void validate_returnsSharedEmptyMapForValidCar() {
+        CarDetails carDetails = CarDetails.builder()
+                .carType(CarDetails.CarType.M1).year(2020).fullMass(2000)
+                .co2Emissions(BigDecimal.valueOf(120)).co2Type(CarDetails.CO2Type.WLTP)
+                .build();
+
+        assertThat(CompiledCarDetailsValidator.validate(carDetails)).isSameAs(Map.of());
+    }
+
+    @Test
+    void validate_missingCarTypeAndFullMass_reportsBothInsteadOfFailing() {
+        CarDetails carDetails = CarDetails.builder().year(2020).electric(true).build();
+
+        assertThat(CompiledCarDetailsValidator.validate(carDetails)).containsOnly(
+                Map.entry("carType", "must not be null"),
+                Map.entry("fullMass", "Invalid car type for missing fullMass. Car type must be one of [N1, N1G]"));
+        assertThat(beanValidation(carDetails)).isEqualTo(CompiledCarDetailsValidator.validate(carDetails));
+    }
+
+    private static Map<String, String> beanValidation(CarDetails carDetails) {
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<CarDetails> violation : validator.validate(carDetails)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private static List<CarDetails> everyCombination() {
+        List<CarDetails.CarType> carTypes = new ArrayList<>(Arrays.asList(CarDetails.CarType.values()));
+        carTypes.add(null);
+        List<CarDetails> cars = new ArrayList<>();
+        for (CarDetails.CarType carType : carTypes) {
+            for (int mask = 0; mask < 128; mask++) {
+                cars.add(CarDetails.builder()
+                        .carType(carType)
+                        .year(bit(mask, 0) ? 2020 : null)
+                        .electric(bit(mask, 1))
+                        .co2Emissions(bit(mask, 2) ? BigDecimal.valueOf(120) : null)
+                        .co2Type(bit(mask, 3) ? CarDetails.CO2Type.NEDC : null)
+                        .engineCapacity(bit(mask, 4) ? 1998 : null)
+                        .enginePower(bit(mask, 5) ? 150 : null)
+                        .fullMass(bit(mask, 6) ? 2000 : null)
+                        .build());
+            }
+        }
+        return cars;
+    }
+
+    private static boolean bit(int mask, int index) {
+        return (mask & (1 << index)) != 0;
+    }
+}
@@ -0,0 +1,108 @@
+package ee.tenman.automaks.fleet;
+
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.TaxResponse;
+import ee.tenman.automaks.service.TaxCalculator;
+import ee.tenman.automaks.service.TaxCalculatorRegistry;
+import ee.tenman.automaks.service.TaxContext;
+import ee.tenman.automaks.service.TaxContextProvider;
+import jakarta.annotation.Resource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "automaks.fleet.workers=3")
+class FleetFileProcessorTest {
+
+    @Resource
+    FleetFileProcessor fleetFileProcessor;
+
+    @Resource
+    TaxCalculatorRegistry taxCalculatorRegistry;
+
+    @Resource
+    TaxContextProvider taxContextProvider;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void process_writesOneOutputLinePerInputLineAndRejectsInvalidRows() throws IOException {
+        List<String> input = new ArrayList<>();
+        input.add(FleetRowParser.HEADER);
+        for (int i = 0; i < 500; i++) {
+            input.add("M1," + (2005 + i % 20) + "," + (1500 + i) + "," + (100 + i % 150) + ".5,WLTP,false,,");
+        }
+        input.add("M1G,2019,2250,,,false,1995,150\r");
+        input.add("");
+        input.add("M1,2019,2000,150,,false,,");
+        input.add("M1,2019,2000,,,false,,150");
+        input.add("M1,2019,2000");
+        input.add("L3e,2021,300,,,true,,");
+        input.add("M1,2021,2139,0,,true,,");
+        Path inputFile = Files.writeString(directory.resolve("fleet.csv"), String.join("\n", input));
+        Path outputFile = directory.resolve("taxes.csv");
+        Path rejectsFile = directory.resolve("rejects.csv");
+
+        FleetBatchResult result = fleetFileProcessor.process(inputFile, outputFile, rejectsFile);
+
+        List<String> output = Files.readAllLines(outputFile);
+        assertThat(output).hasSize(input.size());
+        assertThat(output.getFirst()).isEqualTo("registrationTax,annualTax");
+        for (int line = 2; line <= 502; line++) {
+            assertThat(output.get(line - 1)).as("line %d", line).isEqualTo(expectedTaxes(input.get(line - 1)));
+        }
+        assertThat(output.subList(502, 508)).containsExactly("", ",", ",", ",", ",", expectedTaxes(input.get(507)));
+
+        assertThat(Files.readAllLines(rejectsFile)).containsExactly(
+                "line,field,message",
+                "504,co2Type,\"Missing CO2Type for vehicle with co2Emissions.\"",
+                "505,engineCapacity,\"Missing engineCapacity or/and enginePower for non-electric vehicle.\"",
+                "506,,\"Malformed row: Expected 8 columns but found 3\"",
+                "507,carType,\"Car type not supported yet: L3e\"");
+        assertThat(result.rows()).isEqualTo(506);
+        assertThat(result.rejectedRows()).isEqualTo(4);
+        assertThat(result.rowsPerSecond()).isPositive();
+    }
+
+    @Test
+    void process_whenInputIsEmpty_writesEmptyOutput() throws IOException {
+        Path inputFile = Files.createFile(directory.resolve("empty.csv"));
+        Path outputFile = directory.resolve("taxes.csv");
+        Path rejectsFile = directory.resolve("rejects.csv");
+
+        FleetBatchResult result = fleetFileProcessor.process(inputFile, outputFile, rejectsFile);
+
+        assertThat(result.rows()).isZero();
+        assertThat(outputFile).isEmptyFile();
+        assertThat(Files.readAllLines(rejectsFile)).containsExactly("line,field,message");
+    }
+
+    private String expectedTaxes(String row) {
+        String[] columns = row.strip().split(",", -1);
+        CarDetails carDetails = CarDetails.builder()
+                .carType(CarDetails.CarType.valueOf(columns[0]))
+                .year(Integer.valueOf(columns[1]))
+                .fullMass(Integer.valueOf(columns[2]))
+                .co2Emissions(columns[3].isEmpty() ? null : new BigDecimal(columns[3]))
+                .co2Type(columns[4].isEmpty() ? null : CarDetails.CO2Type.valueOf(columns[4]))
+                .electric(Boolean.parseBoolean(columns[5]))
+                .engineCapacity(columns[6].isEmpty() ? null : Integer.valueOf(columns[6]))
+                .enginePower(columns[7].isEmpty() ? null : Integer.valueOf(columns[7]))
+                .build();
+        TaxCalculator taxCalculator = taxCalculatorRegistry.getTaxCalculator(carDetails.getCarType());
+        TaxContext context = taxContextProvider.current();
+        TaxResponse taxResponse = new TaxResponse(taxCalculator.calculateRegistrationTax(carDetails, context),
+                taxCalculator.calculateAnnualTax(carDetails, context));
+        return taxResponse.registrationTax().toPlainString() + "," + taxResponse.annualTax().toPlainString();
+    }
+}
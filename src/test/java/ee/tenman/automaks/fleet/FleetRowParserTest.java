@@ -0,0 +1,75 @@
+package ee.tenman.automaks.fleet;
+
+import ee.tenman.automaks.dto.CarDetails;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FleetRowParserTest {
+
+    @Test
+    void parse_readsEveryColumn() {
+        CarDetails carDetails = parse("M1G,2019,2250,188.50,NEDC,false,1995,150");
+
+        assertThat(carDetails.getCarType()).isEqualTo(CarDetails.CarType.M1G);
+        assertThat(carDetails.getYear()).isEqualTo(2019);
+        assertThat(carDetails.getFullMass()).isEqualTo(2250);
+        assertThat(carDetails.getCo2Emissions()).isEqualByComparingTo("188.5");
+        assertThat(carDetails.getCo2Emissions().scale()).isEqualTo(2);
+        assertThat(carDetails.getCo2Type()).isEqualTo(CarDetails.CO2Type.NEDC);
+        assertThat(carDetails.isElectric()).isFalse();
+        assertThat(carDetails.getEngineCapacity()).isEqualTo(1995);
+        assertThat(carDetails.getEnginePower()).isEqualTo(150);
+    }
+
+    @Test
+    void parse_treatsEmptyColumnsAsMissing() {
+        CarDetails carDetails = parse("M1,2021,1530,,,true,,");
+
+        assertThat(carDetails.getCo2Emissions()).isNull();
+        assertThat(carDetails.getCo2Type()).isNull();
+        assertThat(carDetails.isElectric()).isTrue();
+        assertThat(carDetails.getEngineCapacity()).isNull();
+        assertThat(carDetails.getEnginePower()).isNull();
+    }
+
+    @Test
+    void parse_fallsBackToBigDecimalParsingForLongNumbers() {
+        assertThat(parse("M1,2021,1530,1234567890.1234567890123,WLTP,,,").getCo2Emissions())
+                .isEqualByComparingTo("1234567890.1234567890123");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "M1,2021,1530,,,true,",
+            "M1,2021,1530,,,true,,,",
+            "X9,2021,1530,,,true,,",
+            "M1,20x1,1530,,,true,,",
+            "M1,2021,1530,1.2.3,WLTP,,,",
+            "M1,2021,1530,,,yes,,",
+            "M1,2021,99999999999,,,true,,"
+    })
+    void parse_whenRowIsMalformed_throws(String row) {
+        assertThatThrownBy(() -> parse(row)).isInstanceOf(FleetRowParser.MalformedRowException.class);
+    }
+
+    @Test
+    void isHeader_matchesOnlyTheExactHeader() {
+        ByteBuffer header = ByteBuffer.wrap(FleetRowParser.HEADER.getBytes(US_ASCII));
+        ByteBuffer row = ByteBuffer.wrap("M1,2021,1530,,,true,,".getBytes(US_ASCII));
+
+        assertThat(FleetRowParser.isHeader(header, 0, header.limit())).isTrue();
+        assertThat(FleetRowParser.isHeader(row, 0, row.limit())).isFalse();
+    }
+
+    private static CarDetails parse(String row) {
+        byte[] bytes = ("\n" + row + "\n").getBytes(US_ASCII);
+        return FleetRowParser.parse(ByteBuffer.wrap(bytes), 1, bytes.length - 1);
+    }
+}
@@ -0,0 +1,43 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "automaks.validation.engine=bean-validation")
+class CarDetailsValidationServiceTest {
+
+    private static final CarDetails MISSING_CO2_TYPE = CarDetails.builder()
+            .carType(CarDetails.CarType.M1).year(2020).fullMass(2000).co2Emissions(BigDecimal.valueOf(120))
+            .build();
+
+    @Resource
+    CarDetailsValidationService carDetailsValidationService;
+
+    @Resource
+    MeterRegistry meterRegistry;
+
+    @Test
+    void validate_withBeanValidationFallback_matchesCompiledEngine() {
+        Map<String, String> errors = carDetailsValidationService.validate(MISSING_CO2_TYPE, TaxCalculationMetrics.SOURCE_FLEET);
+
+        assertThat(errors).containsOnly(Map.entry("co2Type", "Missing CO2Type for vehicle with co2Emissions."));
+        assertThat(meterRegistry.get("tax.validation.failures").tag("field", "co2Type").tag("source", "fleet")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void requireValid_throwsWithValidationErrors() {
+        assertThatThrownBy(() -> carDetailsValidationService.requireValid(MISSING_CO2_TYPE, TaxCalculationMetrics.SOURCE_BATCH))
+                .isInstanceOfSatisfying(InvalidCarDetailsException.class, e -> assertThat(e.getValidationErrors())
+                        .containsOnlyKeys("co2Type"));
+    }
+}
@@ -0,0 +1,173 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FixedPointCarTaxCalculatorTest {
+
+    private static final int[] VEHICLE_AGES = {0, 5, 6, 10, 11, 15, 16, 20, 21, 30};
+
+    private static final TaxContext CONTEXT = new TaxContext(TaxRuleSets.MOTOR_VEHICLE_TAX_2025, currentYear());
+
+    private final StandardCarTaxCalculator bigDecimalCalculator = new StandardCarTaxCalculator();
+    private final FixedPointCarTaxCalculator fixedPointCalculator = new FixedPointCarTaxCalculator();
+
+    @Test
+    void matchesBigDecimalEngineForEveryCO2TenthOfGram() {
+        for (int co2Tenths = 0; co2Tenths <= 6000; co2Tenths++) {
+            BigDecimal co2Emissions = BigDecimal.valueOf(co2Tenths, 1);
+            for (CarDetails.CO2Type co2Type : CarDetails.CO2Type.values()) {
+                for (boolean electric : new boolean[]{false, true}) {
+                    for (int age : VEHICLE_AGES) {
+                        assertEquivalent(CarDetails.builder()
+                                .co2Emissions(co2Emissions)
+                                .co2Type(co2Type)
+                                .fullMass(2100)
+                                .year(currentYear() - age)
+                                .electric(electric)
+                                .carType(CarDetails.CarType.M1)
+                                .build());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesBigDecimalEngineForEveryMilligramAroundThresholds() {
+        IntStream.of(0, 117_000, 150_000, 200_000)
+                .flatMap(threshold -> IntStream.rangeClosed(threshold - 1_000, threshold + 1_000))
+                .forEach(co2Milligrams -> {
+                    for (CarDetails.CO2Type co2Type : CarDetails.CO2Type.values()) {
+                        assertEquivalent(CarDetails.builder()
+                                .co2Emissions(BigDecimal.valueOf(co2Milligrams, 3))
+                                .co2Type(co2Type)
+                                .fullMass(1800)
+                                .year(currentYear() - 7)
+                                .carType(CarDetails.CarType.M1)
+                                .build());
+                    }
+                });
+    }
+
+    @Test
+    void matchesBigDecimalEngineForEveryFullMass() {
+        for (int fullMass = 0; fullMass <= 20_000; fullMass++) {
+            for (boolean electric : new boolean[]{false, true}) {
+                for (int age : VEHICLE_AGES) {
+                    assertEquivalent(CarDetails.builder()
+                            .co2Emissions(electric ? BigDecimal.ZERO : BigDecimal.valueOf(150))
+                            .co2Type(electric ? null : CarDetails.CO2Type.WLTP)
+                            .fullMass(fullMass)
+                            .year(currentYear() - age)
+                            .electric(electric)
+                            .carType(CarDetails.CarType.M1G)
+                            .build());
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesBigDecimalEngineForEngineCapacityAndPower() {
+        for (int engineCapacity = 0; engineCapacity <= 8000; engineCapacity++) {
+            for (int enginePower = 0; enginePower <= 800; enginePower += 40) {
+                assertEquivalent(CarDetails.builder()
+                        .engineCapacity(engineCapacity)
+                        .enginePower(enginePower)
+                        .fullMass(2250)
+                        .year(currentYear() - (engineCapacity % 25))
+                        .carType(CarDetails.CarType.M1)
+                        .build());
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"188", "188.0", "188.000", "1.88E+2", "188.0001", "-12.5", "12345678.9"})
+    void matchesBigDecimalEngineForAnyCO2Representation(String co2Emissions) {
+        for (CarDetails.CO2Type co2Type : CarDetails.CO2Type.values()) {
+            assertEquivalent(CarDetails.builder()
+                    .co2Emissions(new BigDecimal(co2Emissions))
+                    .co2Type(co2Type)
+                    .fullMass(2250)
+                    .year(currentYear() - 3)
+                    .carType(CarDetails.CarType.M1)
+                    .build());
+        }
+    }
+
+    @Test
+    void projectionMatchesBigDecimalEngine() {
+        for (int age : VEHICLE_AGES) {
+            for (String co2Emissions : new String[]{"0", "117.5", "188", "250.125", "188.0001"}) {
+                CarDetails carDetails = CarDetails.builder()
+                        .co2Emissions(new BigDecimal(co2Emissions))
+                        .co2Type(CarDetails.CO2Type.NEDC)
+                        .fullMass(2450)
+                        .year(currentYear() - age)
+                        .carType(CarDetails.CarType.M1)
+                        .build();
+                assertThat(fixedPointCalculator.projectAnnualTax(carDetails, CONTEXT, 25))
+                        .as("Projection for %s", carDetails)
+                        .usingElementComparator(BigDecimal::compareTo)
+                        .isEqualTo(bigDecimalCalculator.projectAnnualTax(carDetails, CONTEXT, 25));
+            }
+        }
+    }
+
+    @Test
+    void matchesBigDecimalEngineForRatesOffTheFixedPointGrid() {
+        TaxRules rules = TaxRuleSets.MOTOR_VEHICLE_TAX_2025.toBuilder()
+                .displacementRate(new BigDecimal("0.0500001"))
+                .nedcConversionFactor(new BigDecimal("1.2345"))
+                .build();
+        TaxContext context = new TaxContext(rules, currentYear());
+        for (CarDetails.CO2Type co2Type : CarDetails.CO2Type.values()) {
+            assertEquivalent(CarDetails.builder()
+                    .co2Emissions(BigDecimal.valueOf(188))
+                    .co2Type(co2Type)
+                    .fullMass(2250)
+                    .year(currentYear() - 3)
+                    .carType(CarDetails.CarType.M1)
+                    .build(), context);
+        }
+        assertEquivalent(CarDetails.builder()
+                .engineCapacity(1995)
+                .enginePower(150)
+                .fullMass(2250)
+                .year(currentYear() - 3)
+                .carType(CarDetails.CarType.M1)
+                .build(), context);
+    }
+
+    private void assertEquivalent(CarDetails carDetails) {
+        assertEquivalent(carDetails, CONTEXT);
+    }
+
+    private void assertEquivalent(CarDetails carDetails, TaxContext context) {
+        assertThat(fixedPointCalculator.calculateRegistrationTax(carDetails, context))
+                .as("Registration Tax for %s", carDetails)
+                .isEqualByComparingTo(bigDecimalCalculator.calculateRegistrationTax(carDetails, context));
+        assertThat(fixedPointCalculator.calculateAnnualTax(carDetails, context))
+                .as("Annual Tax for %s", carDetails)
+                .isEqualByComparingTo(bigDecimalCalculator.calculateAnnualTax(carDetails, context));
+        TaxCalculation calculation = fixedPointCalculator.calculate(carDetails, context, false);
+        assertThat(calculation.registrationTax()).as("Combined Registration Tax for %s", carDetails)
+                .isEqualByComparingTo(bigDecimalCalculator.calculateRegistrationTax(carDetails, context));
+        assertThat(calculation.annualTax()).as("Combined Annual Tax for %s", carDetails)
+                .isEqualByComparingTo(bigDecimalCalculator.calculateAnnualTax(carDetails, context));
+    }
+
+    private static int currentYear() {
+        return LocalDate.now().getYear();
+    }
+}
@@ -0,0 +1,123 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.AgeBand;
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.FleetTaxSummary;
+import ee.tenman.automaks.dto.TaxResponse;
+import ee.tenman.automaks.dto.TaxStatistics;
+import jakarta.annotation.Resource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class FleetTaxAggregationServiceTest {
+
+    @Resource
+    FleetTaxAggregationService fleetTaxAggregationService;
+
+    @Resource
+    TaxCalculatorRegistry taxCalculatorRegistry;
+
+    @Resource
+    TaxContextProvider taxContextProvider;
+
+    @Test
+    void aggregate_matchesPerCarCalculation() {
+        List<CarDetails> fleet = randomFleet(20_000);
+
+        FleetTaxSummary summary = fleetTaxAggregationService.aggregate(fleet);
+
+        List<TaxResponse> responses = fleet.stream().map(this::calculate).toList();
+        assertThat(summary.rejectedCars()).isZero();
+        assertStatistics(summary.total(), responses);
+        assertStatistics(summary.byCarType().get(CarDetails.CarType.M1G), responses(fleet, car -> car.getCarType() == CarDetails.CarType.M1G));
+        AgeBand elevenToFifteen = new AgeBand(11, 15);
+        assertStatistics(summary.byAgeBand().get(elevenToFifteen), responses(fleet,
+                car -> TaxRuleSets.MOTOR_VEHICLE_TAX_2025.ageBand(LocalDate.now().getYear() - car.getYear()).equals(elevenToFifteen)));
+        assertThat(summary.byCarType()).containsOnlyKeys(CarDetails.CarType.M1, CarDetails.CarType.M1G);
+        assertThat(summary.byAgeBand().keySet()).extracting(AgeBand::getLabel)
+                .containsExactly("0-5", "6-10", "11-15", "16-20", "21+");
+    }
+
+    @Test
+    void aggregate_countsInvalidAndUnsupportedCarsAsRejected() {
+        List<CarDetails> fleet = new ArrayList<>();
+        fleet.add(CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(1530).year(2021).electric(true).build());
+        fleet.add(CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(2000).year(2019).co2Emissions(BigDecimal.TEN).build());
+        fleet.add(CarDetails.builder().carType(CarDetails.CarType.L3e).fullMass(300).year(2021).electric(true).build());
+        fleet.add(null);
+
+        FleetTaxSummary summary = fleetTaxAggregationService.aggregate(fleet);
+
+        assertThat(summary.rejectedCars()).isEqualTo(3);
+        assertThat(summary.total().count()).isEqualTo(1);
+        assertThat(summary.total().registrationTax().sum()).isEqualByComparingTo("300");
+        assertThat(summary.total().annualTax().p99()).isEqualByComparingTo("50");
+    }
+
+    @Test
+    void aggregate_whenFleetIsEmpty_returnsZeroTotals() {
+        FleetTaxSummary summary = fleetTaxAggregationService.aggregate(List.of());
+
+        assertThat(summary.total().count()).isZero();
+        assertThat(summary.total().registrationTax().sum()).isEqualByComparingTo("0");
+        assertThat(summary.total().registrationTax().p50()).isNull();
+        assertThat(summary.byCarType()).isEmpty();
+    }
+
+    private void assertStatistics(TaxStatistics statistics, List<TaxResponse> responses) {
+        long[] registrationTaxes = cents(responses.stream().map(TaxResponse::registrationTax).toList());
+        long[] annualTaxes = cents(responses.stream().map(TaxResponse::annualTax).toList());
+        assertThat(statistics.count()).isEqualTo(responses.size());
+        assertThat(statistics.registrationTax().sum()).isEqualByComparingTo(BigDecimal.valueOf(Arrays.stream(registrationTaxes).sum(), 2));
+        assertThat(statistics.registrationTax().min()).isEqualByComparingTo(BigDecimal.valueOf(registrationTaxes[0], 2));
+        assertThat(statistics.registrationTax().max()).isEqualByComparingTo(BigDecimal.valueOf(registrationTaxes[registrationTaxes.length - 1], 2));
+        assertThat(statistics.registrationTax().p90()).isEqualByComparingTo(BigDecimal.valueOf(registrationTaxes[(int) Math.ceil(0.9 * registrationTaxes.length) - 1], 2));
+        assertThat(statistics.annualTax().sum()).isEqualByComparingTo(BigDecimal.valueOf(Arrays.stream(annualTaxes).sum(), 2));
+        assertThat(statistics.annualTax().p50()).isEqualByComparingTo(BigDecimal.valueOf(annualTaxes[(int) Math.ceil(0.5 * annualTaxes.length) - 1], 2));
+    }
+
+    private List<TaxResponse> responses(List<CarDetails> fleet, Predicate<CarDetails> filter) {
+        return fleet.stream().filter(filter).map(this::calculate).toList();
+    }
+
+    private TaxResponse calculate(CarDetails carDetails) {
+        TaxCalculator taxCalculator = taxCalculatorRegistry.getTaxCalculator(carDetails.getCarType());
+        TaxContext context = taxContextProvider.resolve(carDetails);
+        return new TaxResponse(taxCalculator.calculateRegistrationTax(carDetails, context), taxCalculator.calculateAnnualTax(carDetails, context));
+    }
+
+    private static long[] cents(List<BigDecimal> amounts) {
+        return amounts.stream().mapToLong(amount -> amount.unscaledValue().longValueExact()).sorted().toArray();
+    }
+
+    private static List<CarDetails> randomFleet(int size) {
+        Random random = new Random(42);
+        int currentYear = LocalDate.now().getYear();
+        List<CarDetails> fleet = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            CarDetails.CarDetailsBuilder car = CarDetails.builder()
+                    .carType(random.nextBoolean() ? CarDetails.CarType.M1 : CarDetails.CarType.M1G)
+                    .year(currentYear - random.nextInt(30))
+                    .fullMass(1200 + random.nextInt(2000));
+            switch (random.nextInt(3)) {
+                case 0 -> car.electric(true);
+                case 1 -> car.engineCapacity(900 + random.nextInt(3000)).enginePower(50 + random.nextInt(400));
+                default -> car.co2Emissions(BigDecimal.valueOf(800 + random.nextInt(2500), 1))
+                        .co2Type(random.nextBoolean() ? CarDetails.CO2Type.WLTP : CarDetails.CO2Type.NEDC);
+            }
+            fleet.add(car.build());
+        }
+        return fleet;
+    }
+}
@@ -0,0 +1,128 @@
+package ee.tenman.automaks.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.EncodedTaxResponse;
+import ee.tenman.automaks.dto.TaxResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InFlightCalculationsTest {
+
+    private static final TaxContext CONTEXT = new TaxContext(TaxRuleSets.MOTOR_VEHICLE_TAX_2025, LocalDate.now().getYear());
+    private static final TaxCalculationKey KEY = TaxCalculationKey.of(CarDetails.builder()
+            .carType(CarDetails.CarType.M1).fullMass(1800).year(2021).electric(true).build(), CONTEXT);
+    private static final int FOLLOWERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InFlightCalculations inFlightCalculations = new InFlightCalculations(true, objectMapper, meterRegistry);
+    private final AtomicInteger calculations = new AtomicInteger();
+    private final Supplier<TaxResponse> calculation = () -> {
+        calculations.incrementAndGet();
+        return new TaxResponse(BigDecimal.TEN, BigDecimal.ONE);
+    };
+
+    @Test
+    void coalesce_callersOverlappingInTime_shareOneCalculationAndEncoding() throws Exception {
+        Mono<EncodedTaxResponse> leader = inFlightCalculations.coalesce(KEY, calculation);
+        List<Mono<EncodedTaxResponse>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(inFlightCalculations.coalesce(KEY, calculation));
+        }
+        assertThat(meterRegistry.get(InFlightCalculations.IN_FLIGHT).gauge().value()).isEqualTo(1);
+
+        List<CompletableFuture<EncodedTaxResponse>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Mono<EncodedTaxResponse> caller : followers) {
+                responses.add(CompletableFuture.supplyAsync(caller::block, executor));
+            }
+            responses.add(CompletableFuture.supplyAsync(leader::block, executor));
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        }
+
+        EncodedTaxResponse response = responses.getFirst().join();
+        assertThat(responses).allSatisfy(caller -> assertThat(caller.join()).isSameAs(response));
+        assertThat(response.json().getValue()).isEqualTo("{\"registrationTax\":10.00,\"annualTax\":1.00}");
+        assertThat(calculations).hasValue(1);
+        assertThat(requests("leader")).isEqualTo(1);
+        assertThat(requests("follower")).isEqualTo(FOLLOWERS);
+        assertThat(meterRegistry.get(InFlightCalculations.IN_FLIGHT).gauge().value()).isZero();
+    }
+
+    @Test
+    void coalesce_whileLeaderCalculates_followersJoinIt() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<TaxResponse> slowCalculation = () -> {
+            leaderStarted.countDown();
+            await(release);
+            return calculation.get();
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<EncodedTaxResponse> leader = CompletableFuture.supplyAsync(
+                    () -> inFlightCalculations.coalesce(KEY, slowCalculation).block(), executor);
+            assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            Mono<EncodedTaxResponse> follower = inFlightCalculations.coalesce(KEY, slowCalculation);
+            release.countDown();
+
+            assertThat(follower.block(Duration.ofSeconds(5))).isSameAs(leader.get(5, TimeUnit.SECONDS));
+        }
+        assertThat(calculations).hasValue(1);
+    }
+
+    @Test
+    void coalesce_afterLeaderFinishes_calculatesAgain() {
+        inFlightCalculations.coalesce(KEY, calculation).block();
+        inFlightCalculations.coalesce(KEY, calculation).block();
+
+        assertThat(calculations).hasValue(2);
+        assertThat(requests("follower")).isZero();
+    }
+
+    @Test
+    void coalesce_whenCalculationFails_everyCallerGetsTheErrorSignal() {
+        ArithmeticException failure = new ArithmeticException("overflow");
+        Supplier<TaxResponse> failing = () -> {
+            throw failure;
+        };
+
+        Mono<EncodedTaxResponse> leader = inFlightCalculations.coalesce(KEY, failing);
+        Mono<EncodedTaxResponse> follower = inFlightCalculations.coalesce(KEY, failing);
+
+        assertThatThrownBy(leader::block).isSameAs(failure);
+        assertThatThrownBy(follower::block).isSameAs(failure);
+        assertThat(meterRegistry.get(InFlightCalculations.IN_FLIGHT).gauge().value()).isZero();
+    }
+
+    private double requests(String role) {
+        return meterRegistry.get(InFlightCalculations.REQUESTS).tag("role", role).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
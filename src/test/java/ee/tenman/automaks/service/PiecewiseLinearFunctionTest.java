@@ -0,0 +1,126 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.TaxBreakdown;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PiecewiseLinearFunctionTest {
+
+    private final PiecewiseLinearFunction function = PiecewiseLinearFunction.builder()
+            .bracket(BigDecimal.ZERO, BigDecimal.ONE)
+            .bracket(BigDecimal.TEN, new BigDecimal("2.5"))
+            .capAt(BigDecimal.valueOf(60))
+            .build();
+
+    @ParameterizedTest
+    @CsvSource({
+            "-4, -4",
+            "0, 0",
+            "3.5, 3.5",
+            "10, 10",
+            "10.1, 10.25",
+            "30, 60",
+            "31, 60",
+            "1000, 60"
+    })
+    void apply(String x, String expected) {
+        assertThat(function.apply(new BigDecimal(x))).isEqualByComparingTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "-4, 0",
+            "0, 0",
+            "9.99, 0",
+            "10, 1",
+            "29.9, 1",
+            "30, 1",
+            "500, 1"
+    })
+    void bracketOf(String x, int expectedBracket) {
+        assertThat(function.bracketOf(new BigDecimal(x))).isEqualTo(expectedBracket);
+    }
+
+    @Test
+    void shares_splitValueOverBracketsUpToTheOneHit() {
+        List<TaxBreakdown.BracketShare> shares = function.shares(new BigDecimal("12"));
+
+        assertThat(shares).extracting(TaxBreakdown.BracketShare::from).usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(BigDecimal.ZERO, BigDecimal.TEN);
+        assertThat(shares).extracting(TaxBreakdown.BracketShare::to).usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(BigDecimal.TEN, new BigDecimal("12"));
+        assertThat(shares).extracting(TaxBreakdown.BracketShare::amount).usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(BigDecimal.TEN, new BigDecimal("5"));
+    }
+
+    @Test
+    void shares_cutShortWhereCapIsReached() {
+        List<TaxBreakdown.BracketShare> shares = function.shares(new BigDecimal("40"));
+
+        assertThat(shares).extracting(TaxBreakdown.BracketShare::to).usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(BigDecimal.TEN, new BigDecimal("30"), new BigDecimal("40"));
+        assertThat(shares).extracting(TaxBreakdown.BracketShare::amount).usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(BigDecimal.TEN, new BigDecimal("50"), BigDecimal.ZERO);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"-4", "0", "3.5", "10", "10.1", "30", "1000"})
+    void shares_addUpToValue(String x) {
+        BigDecimal total = function.shares(new BigDecimal(x)).stream()
+                .map(TaxBreakdown.BracketShare::amount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        assertThat(total).isEqualByComparingTo(function.apply(new BigDecimal(x)));
+    }
+
+    @Test
+    void scaledMatchesExactCurve() {
+        PiecewiseLinearFunction.Scaled scaled = function.scaled(1, 2);
+
+        for (int tenths = -100; tenths <= 400; tenths++) {
+            BigDecimal expected = function.apply(BigDecimal.valueOf(tenths, 1));
+            assertThat(BigDecimal.valueOf(scaled.apply(tenths), 2)).as("x = %s", tenths).isEqualByComparingTo(expected);
+        }
+    }
+
+    @Test
+    void scaledRejectsInexactCoefficients() {
+        assertThatThrownBy(() -> function.scaled(1, 1)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void capWorksForRatesWithoutExactReciprocal() {
+        PiecewiseLinearFunction thirds = PiecewiseLinearFunction.builder()
+                .bracket(BigDecimal.ZERO, BigDecimal.ZERO)
+                .bracket(BigDecimal.TEN, new BigDecimal("0.3"))
+                .capAt(BigDecimal.ONE)
+                .build();
+
+        assertThat(thirds.apply(new BigDecimal("13"))).isEqualByComparingTo("0.9");
+        assertThat(thirds.apply(new BigDecimal("14"))).isEqualByComparingTo("1");
+        assertThat(thirds.scaled(0, 2).apply(14)).isEqualTo(100);
+        assertThat(thirds.shares(new BigDecimal("14")).stream().map(TaxBreakdown.BracketShare::amount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)).isEqualByComparingTo("1");
+    }
+
+    @Test
+    void rejectsNegativeCap() {
+        PiecewiseLinearFunction.Builder builder = PiecewiseLinearFunction.builder().bracket(BigDecimal.ZERO, BigDecimal.ONE);
+
+        assertThatThrownBy(() -> builder.capAt(BigDecimal.ONE.negate())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsDescendingBreakpoints() {
+        PiecewiseLinearFunction.Builder builder = PiecewiseLinearFunction.builder().bracket(BigDecimal.TEN, BigDecimal.ONE);
+
+        assertThatThrownBy(() -> builder.bracket(BigDecimal.ONE, BigDecimal.ONE)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,130 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class PrecomputedTaxTablesTest {
+
+    private static final TaxRules RULES_2025 = TaxRuleSets.MOTOR_VEHICLE_TAX_2025;
+    private static final TaxRules RULES_JULY_2026 = RULES_2025.toBuilder().effectiveFrom(LocalDate.of(2026, 7, 1))
+            .baseAnnualAmount(BigDecimal.valueOf(60)).build();
+    private static final TaxRuleSets RULE_SETS = new TaxRuleSets("test", "test", List.of(RULES_2025, RULES_JULY_2026));
+
+    @TempDir
+    Path directory;
+
+    private final StandardCarTaxCalculator computingCalculator = new StandardCarTaxCalculator();
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = directory.resolve("tax-table.bin");
+        PrecomputedTaxTables.write(file, RULE_SETS);
+    }
+
+    @Test
+    void lookups_matchComputationAcrossTheGrid() {
+        PrecomputedTaxTables tables = new PrecomputedTaxTables(file.toString(), new ActiveTaxRules(RULE_SETS));
+        StandardCarTaxCalculator tableCalculator = new StandardCarTaxCalculator(tables);
+        Random random = new Random(7);
+
+        for (TaxRules rules : List.of(RULES_2025, RULES_JULY_2026)) {
+            TaxTable table = tables.tableFor(rules);
+            assertThat(table).isNotNull();
+            for (int i = 0; i < 5_000; i++) {
+                CarDetails carDetails = CarDetails.builder()
+                        .carType(CarDetails.CarType.M1)
+                        .year(2000 + random.nextInt(27))
+                        .fullMass(random.nextInt(TaxTableFile.MASS_STEPS))
+                        .electric(random.nextInt(4) == 0)
+                        .co2Emissions(random.nextInt(10) == 0 ? null : BigDecimal.valueOf(random.nextInt(TaxTableFile.CO2_STEPS), 1))
+                        .co2Type(random.nextBoolean() ? CarDetails.CO2Type.NEDC : CarDetails.CO2Type.WLTP)
+                        .engineCapacity(1995)
+                        .enginePower(110)
+                        .build();
+                TaxContext context = new TaxContext(rules, 2026);
+                int vehicleAge = context.vehicleAge(carDetails.getYear());
+                if (carDetails.isElectric() || carDetails.getCo2Emissions() != null) {
+                    assertThat(table.registrationTax(carDetails, vehicleAge)).as("%s", carDetails).isNotNull();
+                }
+                assertThat(table.annualTax(carDetails, vehicleAge)).as("%s", carDetails).isNotNull();
+
+                assertThat(tableCalculator.calculateRegistrationTax(carDetails, context)).as("%s", carDetails)
+                        .isEqualByComparingTo(computingCalculator.calculateRegistrationTax(carDetails, context));
+                assertThat(tableCalculator.calculateAnnualTax(carDetails, context)).as("%s", carDetails)
+                        .isEqualByComparingTo(computingCalculator.calculateAnnualTax(carDetails, context));
+            }
+        }
+    }
+
+    @Test
+    void lookups_offTheGrid_fallBackToComputation() {
+        PrecomputedTaxTables tables = new PrecomputedTaxTables(file.toString(), new ActiveTaxRules(RULE_SETS));
+        StandardCarTaxCalculator tableCalculator = new StandardCarTaxCalculator(tables);
+        TaxContext context = new TaxContext(RULES_2025, 2026);
+
+        for (CarDetails carDetails : List.of(
+                car().co2Emissions(new BigDecimal("150.05")).build(),
+                car().co2Emissions(new BigDecimal("1000.1")).build(),
+                car().co2Emissions(new BigDecimal("150.0")).fullMass(TaxTableFile.MASS_STEPS).build(),
+                car().engineCapacity(1995).enginePower(110).build())) {
+            assertThat(tables.tableFor(RULES_2025).registrationTax(carDetails, 5)).isNull();
+            assertThat(tableCalculator.calculateRegistrationTax(carDetails, context))
+                    .isEqualByComparingTo(computingCalculator.calculateRegistrationTax(carDetails, context));
+            assertThat(tableCalculator.calculateAnnualTax(carDetails, context))
+                    .isEqualByComparingTo(computingCalculator.calculateAnnualTax(carDetails, context));
+        }
+    }
+
+    @Test
+    void tableFor_otherRuleSetVersion_isNotUsed() {
+        PrecomputedTaxTables tables = new PrecomputedTaxTables(file.toString(),
+                new ActiveTaxRules(new TaxRuleSets("other", "test", List.of(RULES_2025, RULES_JULY_2026))));
+
+        assertThat(tables.tableFor(RULES_2025)).isNull();
+    }
+
+    @Test
+    void tableFor_changedRatesUnderSameVersion_isNotUsed() {
+        TaxRules changed = RULES_2025.toBuilder().massTaxRate(new BigDecimal("2.5")).build();
+        PrecomputedTaxTables tables = new PrecomputedTaxTables(file.toString(),
+                new ActiveTaxRules(new TaxRuleSets("test", "test", List.of(changed))));
+
+        assertThat(tables.tableFor(changed)).isNull();
+    }
+
+    @Test
+    void corruptFile_isRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> TaxTableFile.map(file)).withMessageContaining("checksum");
+        assertThat(new PrecomputedTaxTables(file.toString(), new ActiveTaxRules(RULE_SETS)).tableFor(RULES_2025)).isNull();
+    }
+
+    @Test
+    void missingFile_isIgnored() {
+        PrecomputedTaxTables tables = new PrecomputedTaxTables(directory.resolve("missing.bin").toString(),
+                new ActiveTaxRules(RULE_SETS));
+
+        assertThat(tables.tableFor(RULES_2025)).isNull();
+    }
+
+    private static CarDetails.CarDetailsBuilder car() {
+        return CarDetails.builder().carType(CarDetails.CarType.M1).year(2021).fullMass(2000).co2Type(CarDetails.CO2Type.WLTP);
+    }
+}
@@ -1,16 +1,24 @@
 package ee.tenman.automaks.service;
 
 import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.TaxBreakdown;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 class StandardCarTaxCalculatorTest {
 
+    /**
+     * The expected amounts were worked out in 2024, so the tax year is pinned rather than taken from the clock.
+     */
+    private static final TaxContext CONTEXT = new TaxContext(TaxRuleSets.MOTOR_VEHICLE_TAX_2025, 2024);
+
     private final StandardCarTaxCalculator calculator = new StandardCarTaxCalculator();
 
     public static Stream<CarTaxTestData> provideCarData() {
@@ -128,7 +136,7 @@ class StandardCarTaxCalculatorTest {
     @ParameterizedTest
     @MethodSource("provideCarData")
     void calculateRegistrationTax(CarTaxTestData carTaxTestData) {
-        BigDecimal registrationTax = calculator.calculateRegistrationTax(carTaxTestData.carDetails);
+        BigDecimal registrationTax = calculator.calculateRegistrationTax(carTaxTestData.carDetails, CONTEXT);
 
         assertThat(registrationTax).as("Registration Tax for " + carTaxTestData.model)
                 .isEqualByComparingTo(new BigDecimal(carTaxTestData.expectedRegistrationTax));
@@ -137,12 +145,77 @@ class StandardCarTaxCalculatorTest {
     @ParameterizedTest
     @MethodSource("provideCarData")
     void calculateAnnualTax(CarTaxTestData carTaxTestData) {
-        BigDecimal annualTax = calculator.calculateAnnualTax(carTaxTestData.carDetails);
+        BigDecimal annualTax = calculator.calculateAnnualTax(carTaxTestData.carDetails, CONTEXT);
 
         assertThat(annualTax).as("Annual Tax for " + carTaxTestData.model)
                 .isEqualByComparingTo(new BigDecimal(carTaxTestData.expectedAnnualTax));
     }
 
+    @ParameterizedTest
+    @MethodSource("provideCarData")
+    void projectAnnualTax_matchesAnnualTaxOfEquallyOldCar(CarTaxTestData carTaxTestData) {
+        List<BigDecimal> projection = calculator.projectAnnualTax(carTaxTestData.carDetails, CONTEXT, 25);
+
+        assertThat(projection).hasSize(25);
+        for (int i = 0; i < projection.size(); i++) {
+            assertThat(projection.get(i)).as("Annual Tax for %s in year %d", carTaxTestData.model, i)
+                    .isEqualByComparingTo(calculator.calculateAnnualTax(builtYearsEarlier(carTaxTestData.carDetails, i), CONTEXT));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideCarData")
+    void calculate_matchesSeparateCalculations(CarTaxTestData carTaxTestData) {
+        for (boolean breakdown : new boolean[]{false, true}) {
+            TaxCalculation calculation = calculator.calculate(carTaxTestData.carDetails, CONTEXT, breakdown);
+
+            assertThat(calculation.registrationTax()).as("Registration Tax for " + carTaxTestData.model)
+                    .isEqualTo(calculator.calculateRegistrationTax(carTaxTestData.carDetails, CONTEXT));
+            assertThat(calculation.annualTax()).as("Annual Tax for " + carTaxTestData.model)
+                    .isEqualTo(calculator.calculateAnnualTax(carTaxTestData.carDetails, CONTEXT));
+            assertThat(calculation.breakdown() != null).isEqualTo(breakdown);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideCarData")
+    void calculate_breakdownAddsUpToTaxes(CarTaxTestData carTaxTestData) {
+        TaxBreakdown breakdown = calculator.calculate(carTaxTestData.carDetails, CONTEXT, true).breakdown();
+
+        assertThat(breakdown.registrationTax()).isEqualByComparingTo(carTaxTestData.expectedRegistrationTax);
+        assertThat(breakdown.annualTax()).isEqualByComparingTo(carTaxTestData.expectedAnnualTax);
+        assertThat(breakdown.vehicleAge()).isEqualTo(CONTEXT.vehicleAge(carTaxTestData.carDetails.getYear()));
+        assertAddsUp(breakdown.registration(), breakdown.ageDiscountFactor(), breakdown.registrationTax());
+        assertAddsUp(breakdown.annual(), breakdown.ageDiscountFactor(), breakdown.annualTax());
+    }
+
+    private static void assertAddsUp(TaxBreakdown.Component component, BigDecimal ageDiscountFactor, BigDecimal tax) {
+        BigDecimal total = component.baseAmount()
+                .add(component.co2Component().add(component.massComponent()).multiply(ageDiscountFactor));
+        assertThat(total.setScale(2, RoundingMode.HALF_UP)).isEqualByComparingTo(tax);
+        if (component.co2Brackets() != null) {
+            assertThat(sum(component.co2Brackets())).isEqualByComparingTo(component.co2Component());
+        }
+        assertThat(sum(component.massBrackets())).isEqualByComparingTo(component.massComponent());
+    }
+
+    private static BigDecimal sum(List<TaxBreakdown.BracketShare> shares) {
+        return shares.stream().map(TaxBreakdown.BracketShare::amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static CarDetails builtYearsEarlier(CarDetails carDetails, int years) {
+        return CarDetails.builder()
+                .co2Emissions(carDetails.getCo2Emissions())
+                .fullMass(carDetails.getFullMass())
+                .year(carDetails.getYear() - years)
+                .engineCapacity(carDetails.getEngineCapacity())
+                .enginePower(carDetails.getEnginePower())
+                .carType(carDetails.getCarType())
+                .electric(carDetails.isElectric())
+                .co2Type(carDetails.getCo2Type())
+                .build();
+    }
+
     public record CarTaxTestData(
             String model,
             CarDetails carDetails,
@@ -0,0 +1,75 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaxCalculationMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TaxCalculationMetrics taxCalculationMetrics = new TaxCalculationMetrics(meterRegistry);
+
+    @Test
+    void calculationTimer_tagsByCarTypeElectricCO2TypeAndPath() {
+        CarDetails carDetails = CarDetails.builder()
+                .carType(CarDetails.CarType.M1G)
+                .co2Emissions(BigDecimal.valueOf(188))
+                .co2Type(CarDetails.CO2Type.NEDC)
+                .fullMass(2250)
+                .year(2020)
+                .build();
+
+        Timer timer = taxCalculationMetrics.calculationTimer(carDetails);
+
+        assertThat(timer.getId().getName()).isEqualTo("tax.calculation");
+        assertThat(timer.getId().getTag("carType")).isEqualTo("M1G");
+        assertThat(timer.getId().getTag("electric")).isEqualTo("false");
+        assertThat(timer.getId().getTag("co2Type")).isEqualTo("NEDC");
+        assertThat(timer.getId().getTag("path")).isEqualTo("CO2");
+    }
+
+    @Test
+    void calculationTimer_reusesTimerForSameTagsAndSeparatesOtherPaths() {
+        CarDetails electric = CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(2000).year(2021).electric(true).build();
+        CarDetails displacement = CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(2000).year(2021)
+                .engineCapacity(1995).enginePower(150).build();
+
+        Timer electricTimer = taxCalculationMetrics.calculationTimer(electric);
+
+        assertThat(taxCalculationMetrics.calculationTimer(electric)).isSameAs(electricTimer);
+        assertThat(electricTimer.getId().getTag("co2Type")).isEqualTo("NONE");
+        assertThat(electricTimer.getId().getTag("path")).isEqualTo("ELECTRIC");
+        assertThat(taxCalculationMetrics.calculationTimer(displacement).getId().getTag("path"))
+                .isEqualTo("DISPLACEMENT_AND_POWER");
+        assertThat(meterRegistry.find("tax.calculation").timers()).hasSize(2);
+    }
+
+    @Test
+    void recordUnsupportedCarType_countsPerCarType() {
+        taxCalculationMetrics.recordUnsupportedCarType(CarDetails.CarType.L3e);
+        taxCalculationMetrics.recordUnsupportedCarType(CarDetails.CarType.L3e);
+        taxCalculationMetrics.recordUnsupportedCarType(CarDetails.CarType.T5);
+
+        assertThat(meterRegistry.get("tax.unsupported.car.types").tag("carType", "L3e").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("tax.unsupported.car.types").tag("carType", "T5").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void recordValidationFailures_countsPerFieldAndSource() {
+        taxCalculationMetrics.recordValidationFailures(List.of("co2Type", "fullMass"), TaxCalculationMetrics.SOURCE_REQUEST);
+        taxCalculationMetrics.recordValidationFailures(List.of("co2Type"), TaxCalculationMetrics.SOURCE_BATCH);
+
+        assertThat(meterRegistry.get("tax.validation.failures").tag("field", "co2Type").tag("source", "request")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("tax.validation.failures").tag("field", "fullMass").tag("source", "request")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("tax.validation.failures").tag("field", "co2Type").tag("source", "batch")
+                .counter().count()).isEqualTo(1);
+    }
+}
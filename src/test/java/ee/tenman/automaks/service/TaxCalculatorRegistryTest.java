@@ -0,0 +1,51 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class TaxCalculatorRegistryTest {
+
+    private final StandardCarTaxCalculator standardCarTaxCalculator = new StandardCarTaxCalculator();
+    private final TaxCalculatorRegistry registry = new TaxCalculatorRegistry(List.of(standardCarTaxCalculator));
+
+    @Test
+    void getTaxCalculator_returnsSameInstanceForEveryCoveredCarType() {
+        assertThat(registry.getTaxCalculator(CarDetails.CarType.M1)).isSameAs(standardCarTaxCalculator);
+        assertThat(registry.getTaxCalculator(CarDetails.CarType.M1G)).isSameAs(standardCarTaxCalculator);
+    }
+
+    @Test
+    void getTaxCalculator_whenCarTypeNotCovered_throwsPrebuiltException() {
+        Throwable first = catchThrowable(() -> registry.getTaxCalculator(CarDetails.CarType.N1));
+        Throwable second = catchThrowable(() -> registry.getTaxCalculator(CarDetails.CarType.N1));
+
+        assertThat(registry.isSupported(CarDetails.CarType.N1)).isFalse();
+        assertThat(first).isInstanceOf(UnsupportedCarTypeException.class)
+                .hasMessage("Car type not supported yet: N1")
+                .isSameAs(second);
+    }
+
+    @Test
+    void unsupportedCarTypeResponse_failsWithUnsupportedCarTypeException() {
+        StepVerifier.create(registry.unsupportedCarTypeResponse(CarDetails.CarType.T5))
+                .expectErrorMatches(error -> error instanceof UnsupportedCarTypeException exception
+                        && exception.getCarType() == CarDetails.CarType.T5)
+                .verify();
+    }
+
+    @Test
+    void constructor_whenCarTypeCoveredTwice_failsAtStartup() {
+        List<TaxCalculator> taxCalculators = List.of(standardCarTaxCalculator, new FixedPointCarTaxCalculator());
+
+        assertThatThrownBy(() -> new TaxCalculatorRegistry(taxCalculators))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("is covered by both StandardCarTaxCalculator and FixedPointCarTaxCalculator");
+    }
+}
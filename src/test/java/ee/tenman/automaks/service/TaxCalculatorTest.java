@@ -0,0 +1,39 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaxCalculatorTest {
+
+    private static final TaxContext CONTEXT = new TaxContext(TaxRuleSets.MOTOR_VEHICLE_TAX_2025, 2024);
+
+    private final TaxCalculator ageBasedCalculator = new TaxCalculator() {
+        @Override
+        public Set<CarDetails.CarType> supportedCarTypes() {
+            return Set.of(CarDetails.CarType.N1);
+        }
+
+        @Override
+        public BigDecimal calculateRegistrationTax(CarDetails carDetails, TaxContext context) {
+            return BigDecimal.ZERO;
+        }
+
+        @Override
+        public BigDecimal calculateAnnualTax(CarDetails carDetails, TaxContext context) {
+            return BigDecimal.valueOf(context.vehicleAge(carDetails.getYear()));
+        }
+    };
+
+    @Test
+    void projectAnnualTax_calculatesEachYearAsTheCarAges() {
+        CarDetails carDetails = CarDetails.builder().carType(CarDetails.CarType.N1).year(2020).fullMass(3000).build();
+
+        assertThat(ageBasedCalculator.projectAnnualTax(carDetails, CONTEXT, 3))
+                .containsExactly(BigDecimal.valueOf(4), BigDecimal.valueOf(5), BigDecimal.valueOf(6));
+    }
+}
@@ -0,0 +1,115 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.config.TaxClockConfiguration;
+import ee.tenman.automaks.dto.CarDetails;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaxContextProviderTest {
+
+    private static final TaxRules RULES_2025 = TaxRuleSets.MOTOR_VEHICLE_TAX_2025;
+    private static final TaxRules RULES_JULY_2026 = RULES_2025.toBuilder().effectiveFrom(LocalDate.of(2026, 7, 1)).build();
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-06-01T12:00:00Z"));
+    private final ActiveTaxRules activeTaxRules =
+            new ActiveTaxRules(new TaxRuleSets("test", "test", List.of(RULES_2025, RULES_JULY_2026)));
+    private final TaxContextProvider taxContextProvider = new TaxContextProvider(clock, activeTaxRules);
+
+    @Test
+    void current_followsTallinnYearBoundaryNotUtc() {
+        clock.set(Instant.parse("2025-12-31T21:59:59Z"));
+        assertThat(taxContextProvider.current().taxYear()).isEqualTo(2025);
+
+        clock.set(Instant.parse("2025-12-31T22:00:00Z"));
+        assertThat(taxContextProvider.current().taxYear()).isEqualTo(2026);
+    }
+
+    @Test
+    void current_reusesContextWithinTheYear() {
+        TaxContext first = taxContextProvider.current();
+        clock.set(Instant.parse("2025-11-30T08:00:00Z"));
+
+        assertThat(taxContextProvider.current()).isSameAs(first);
+    }
+
+    @Test
+    void current_switchesRuleSetOnItsEffectiveDate() {
+        clock.set(Instant.parse("2026-06-30T20:59:59Z"));
+        assertThat(taxContextProvider.current().rules()).isSameAs(RULES_2025);
+
+        clock.set(Instant.parse("2026-06-30T21:00:00Z"));
+        assertThat(taxContextProvider.current()).isEqualTo(new TaxContext(RULES_JULY_2026, 2026));
+
+        clock.set(Instant.parse("2027-03-01T12:00:00Z"));
+        assertThat(taxContextProvider.current()).isEqualTo(new TaxContext(RULES_JULY_2026, 2027));
+    }
+
+    @Test
+    void asOf_selectsRuleSetAndTaxYearOfTheDate() {
+        assertThat(taxContextProvider.asOf(LocalDate.of(2026, 8, 1))).isEqualTo(new TaxContext(RULES_JULY_2026, 2026));
+        assertThat(taxContextProvider.asOf(LocalDate.of(2026, 6, 30))).isEqualTo(new TaxContext(RULES_2025, 2026));
+    }
+
+    @Test
+    void asOf_beforeEarliestRuleSet_usesEarliest() {
+        assertThat(taxContextProvider.asOf(LocalDate.of(2020, 5, 1))).isEqualTo(new TaxContext(RULES_2025, 2020));
+    }
+
+    @Test
+    void resolve_prefersCarAsOfDate() {
+        TaxContext current = taxContextProvider.current();
+        CarDetails withoutAsOf = CarDetails.builder().carType(CarDetails.CarType.M1).year(2020).build();
+        CarDetails withAsOf = CarDetails.builder().carType(CarDetails.CarType.M1).year(2020).asOf(LocalDate.of(2030, 1, 1)).build();
+
+        assertThat(taxContextProvider.resolve(withoutAsOf)).isSameAs(current);
+        assertThat(taxContextProvider.resolve(withAsOf, current)).isEqualTo(new TaxContext(RULES_JULY_2026, 2030));
+    }
+
+    @Test
+    void current_picksUpReloadedRuleSets() {
+        TaxContext before = taxContextProvider.current();
+        TaxRules reloaded = RULES_2025.toBuilder().baseAnnualAmount(BigDecimal.valueOf(60)).build();
+
+        activeTaxRules.set(new TaxRuleSets("reloaded", "test", List.of(reloaded)));
+
+        assertThat(before.rules()).isSameAs(RULES_2025);
+        assertThat(taxContextProvider.current()).isEqualTo(new TaxContext(reloaded, 2025));
+        assertThat(taxContextProvider.asOf(LocalDate.of(2026, 8, 1)).rules()).isSameAs(reloaded);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return TaxClockConfiguration.TAX_ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.CarDetails;
+import ee.tenman.automaks.dto.TaxResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaxResponseCacheTest {
+
+    private static final TaxResponse TAX_RESPONSE = new TaxResponse(BigDecimal.TEN, BigDecimal.ONE);
+    private static final TaxContext CONTEXT = new TaxContext(TaxRuleSets.MOTOR_VEHICLE_TAX_2025, LocalDate.now().getYear());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calculations = new AtomicInteger();
+    private final BiFunction<CarDetails, TaxContext, TaxResponse> calculation = (carDetails, context) -> {
+        calculations.incrementAndGet();
+        return TAX_RESPONSE;
+    };
+
+    @Test
+    void get_whenCO2DiffersOnlyInScale_reusesCachedResponse() {
+        TaxResponseCache cache = new TaxResponseCache(true, 100, meterRegistry);
+
+        cache.get(co2Car("188").build(), CONTEXT, calculation);
+        TaxResponse response = cache.get(co2Car("188.00").build(), CONTEXT, calculation);
+
+        assertThat(response).isSameAs(TAX_RESPONSE);
+        assertThat(calculations).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "taxResponses").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "taxResponses").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void get_whenFieldsUnusedByPathDiffer_reusesCachedResponse() {
+        TaxResponseCache cache = new TaxResponseCache(true, 100, meterRegistry);
+
+        cache.get(co2Car("150").engineCapacity(1995).enginePower(150).build(), CONTEXT, calculation);
+        cache.get(co2Car("150").build(), CONTEXT, calculation);
+        cache.get(CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(1800).year(2021).electric(true)
+                .co2Type(CarDetails.CO2Type.NEDC).build(), CONTEXT, calculation);
+        cache.get(CarDetails.builder().carType(CarDetails.CarType.M1).fullMass(1800).year(2021).electric(true)
+                .build(), CONTEXT, calculation);
+
+        assertThat(calculations).hasValue(2);
+    }
+
+    @Test
+    void get_whenFieldsUsedByPathDiffer_calculatesEach() {
+        TaxResponseCache cache = new TaxResponseCache(true, 100, meterRegistry);
+
+        cache.get(co2Car("150").build(), CONTEXT, calculation);
+        cache.get(co2Car("150").co2Type(CarDetails.CO2Type.NEDC).build(), CONTEXT, calculation);
+        cache.get(co2Car("150").year(2010).build(), CONTEXT, calculation);
+        cache.get(co2Car("150.1").build(), CONTEXT, calculation);
+        cache.get(co2Car("150").fullMass(2500).build(), CONTEXT, calculation);
+
+        assertThat(calculations).hasValue(5);
+    }
+
+    @Test
+    void get_whenDisabled_alwaysCalculates() {
+        TaxResponseCache cache = new TaxResponseCache(false, 100, meterRegistry);
+
+        cache.get(co2Car("188").build(), CONTEXT, calculation);
+        cache.get(co2Car("188").build(), CONTEXT, calculation);
+
+        assertThat(calculations).hasValue(2);
+        assertThat(meterRegistry.find("cache.gets").meters()).isEmpty();
+    }
+
+    @Test
+    void key_includesTaxYear() {
+        CarDetails carDetails = co2Car("188").build();
+        TaxRules rules = TaxRuleSets.MOTOR_VEHICLE_TAX_2025;
+
+        assertThat(TaxCalculationKey.of(carDetails, new TaxContext(rules, 2025)))
+                .isNotEqualTo(TaxCalculationKey.of(carDetails, new TaxContext(rules, 2026)));
+    }
+
+    @Test
+    void key_includesRuleSet() {
+        CarDetails carDetails = co2Car("188").build();
+        TaxRules rules2025 = TaxRuleSets.MOTOR_VEHICLE_TAX_2025;
+        TaxRules rules2026 = rules2025.toBuilder().effectiveFrom(LocalDate.of(2026, 1, 1)).build();
+
+        assertThat(TaxCalculationKey.of(carDetails, new TaxContext(rules2025, 2026)))
+                .isNotEqualTo(TaxCalculationKey.of(carDetails, new TaxContext(rules2026, 2026)));
+    }
+
+    private static CarDetails.CarDetailsBuilder co2Car(String co2Emissions) {
+        return CarDetails.builder()
+                .co2Emissions(new BigDecimal(co2Emissions))
+                .co2Type(CarDetails.CO2Type.WLTP)
+                .fullMass(2250)
+                .carType(CarDetails.CarType.M1)
+                .year(LocalDate.now().getYear() - 2);
+    }
+}
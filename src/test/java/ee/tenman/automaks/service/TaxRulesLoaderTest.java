@@ -0,0 +1,147 @@
+package ee.tenman.automaks.service;
+
+import ee.tenman.automaks.dto.AgeBand;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaxRulesLoaderTest {
+
+    private static final String RULE_SET = """
+            {
+              "effectiveFrom": "%s",
+              "baseRegistrationAmount": 300, "baseAnnualAmount": 50,
+              "displacementRate": 0.05, "powerRate": 8, "nedcConversionFactor": 1.24,
+              "registrationCo2Brackets": [{"from": 0, "rate": 5}, {"from": %s, "rate": 40}],
+              "annualCo2Brackets": [{"from": 0, "rate": 0}, {"from": 117, "rate": 3}],
+              "electricMassThreshold": 2400, "nonElectricMassThreshold": 2000,
+              "massTaxRate": 4, "annualMassTaxRate": 0.4,
+              "electricAnnualMassTaxCap": 4400, "nonElectricAnnualMassTaxCap": 4000,
+              "ageDiscounts": [{"olderThan": 5, "factor": 0.75}]
+            }""";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void builtIn_matchesRatesInForceSince2025() {
+        TaxRuleSets builtIn = TaxRuleSets.builtIn();
+        TaxRules rules = builtIn.effectiveOn(LocalDate.of(2025, 1, 1));
+
+        assertThat(builtIn.version()).isEqualTo("2025.1");
+        assertThat(builtIn.effectiveDates()).containsExactly(LocalDate.of(2025, 1, 1));
+        assertThat(rules.getBaseRegistrationAmount()).isEqualByComparingTo("300");
+        assertThat(rules.getRegistrationCo2Brackets()).hasSize(4);
+        assertThat(rules.getAgeDiscounts()).extracting(TaxRules.AgeDiscount::olderThan).containsExactly(20, 15, 10, 5);
+    }
+
+    @Test
+    void load_readsJsonByExtension() throws IOException {
+        Path file = write("tax-rules.json", document("2026.1", ruleSet("2025-01-01", 117) + "," + ruleSet("2026-07-01", 120)));
+
+        TaxRuleSets taxRuleSets = TaxRulesLoader.load(file);
+
+        assertThat(taxRuleSets.version()).isEqualTo("2026.1");
+        assertThat(taxRuleSets.source()).isEqualTo(file.toString());
+        assertThat(taxRuleSets.effectiveOn(LocalDate.of(2026, 7, 1)).getRegistrationCo2Brackets().get(1).from())
+                .isEqualByComparingTo(BigDecimal.valueOf(120));
+    }
+
+    @Test
+    void load_readsYaml() throws IOException {
+        Path file = write("tax-rules.yml", """
+                version: "2026.2"
+                ruleSets:
+                  - %s
+                """.formatted(ruleSet("2026-01-01", 117).replace('\n', ' ')));
+
+        assertThat(TaxRulesLoader.load(file).effectiveDates()).containsExactly(LocalDate.of(2026, 1, 1));
+    }
+
+    @Test
+    void load_acceptsAnnualMassRateWithoutExactReciprocal() throws IOException {
+        Path file = write("tax-rules.json", document("1", ruleSet("2025-01-01", 117).replace("\"annualMassTaxRate\": 0.4", "\"annualMassTaxRate\": 0.3")));
+
+        TaxRules rules = TaxRulesLoader.load(file).effectiveOn(LocalDate.of(2025, 1, 1));
+
+        assertThat(rules.annualMassTax(true).apply(BigDecimal.valueOf(3000))).isEqualByComparingTo("180");
+        assertThat(rules.annualMassTax(true).apply(BigDecimal.valueOf(20000))).isEqualByComparingTo("4400");
+        assertThat(rules.annualMassTax(false).apply(BigDecimal.valueOf(20000))).isEqualByComparingTo("4000");
+    }
+
+    @Test
+    void load_ageBandsFollowAgeDiscountThresholds() throws IOException {
+        Path file = write("tax-rules.json", document("1", ruleSet("2025-01-01", 117)
+                .replace("[{\"olderThan\": 5, \"factor\": 0.75}]", "[{\"olderThan\": 12, \"factor\": 0.5}, {\"olderThan\": 7, \"factor\": 0.8}]")));
+
+        TaxRules rules = TaxRulesLoader.load(file).effectiveOn(LocalDate.of(2025, 1, 1));
+
+        assertThat(IntStream.of(0, 7, 8, 12, 13, 40).mapToObj(rules::ageBand)).extracting(AgeBand::getLabel)
+                .containsExactly("0-7", "0-7", "8-12", "8-12", "13+", "13+");
+    }
+
+    @Test
+    void load_rejectsUnknownProperty() throws IOException {
+        Path file = write("tax-rules.json", document("1", ruleSet("2025-01-01", 117).replace("\"powerRate\"", "\"powerRat\"")));
+
+        assertThatThrownBy(() -> TaxRulesLoader.load(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(file.toString())
+                .hasMessageContaining("powerRat");
+    }
+
+    @Test
+    void load_rejectsBracketsOutOfOrder() throws IOException {
+        Path file = write("tax-rules.json", document("1", ruleSet("2025-01-01", 0)));
+
+        assertThatThrownBy(() -> TaxRulesLoader.load(file)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void load_rejectsMissingRate() throws IOException {
+        Path file = write("tax-rules.json", document("1", ruleSet("2025-01-01", 117).replace("\"massTaxRate\": 4,", "")));
+
+        assertThatThrownBy(() -> TaxRulesLoader.load(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("massTaxRate");
+    }
+
+    @Test
+    void load_rejectsMissingVersion() throws IOException {
+        Path file = write("tax-rules.json", "{\"ruleSets\": [" + ruleSet("2025-01-01", 117) + "]}");
+
+        assertThatThrownBy(() -> TaxRulesLoader.load(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    void load_rejectsTwoRuleSetsOnTheSameDate() throws IOException {
+        Path file = write("tax-rules.json", document("1", ruleSet("2025-01-01", 117) + "," + ruleSet("2025-01-01", 120)));
+
+        assertThatThrownBy(() -> TaxRulesLoader.load(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("2025-01-01");
+    }
+
+    static String document(String version, String ruleSets) {
+        return "{\"version\": \"" + version + "\", \"ruleSets\": [" + ruleSets + "]}";
+    }
+
+    static String ruleSet(String effectiveFrom, int secondBracketFrom) {
+        return RULE_SET.formatted(effectiveFrom, secondBracketFrom);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content);
+    }
+}
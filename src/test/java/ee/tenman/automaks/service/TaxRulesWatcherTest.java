@@ -0,0 +1,102 @@
+package ee.tenman.automaks.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.actuate.audit.listener.AuditApplicationEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static ee.tenman.automaks.service.TaxRulesLoaderTest.document;
+import static ee.tenman.automaks.service.TaxRulesLoaderTest.ruleSet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaxRulesWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private final BlockingQueue<AuditEvent> auditEvents = new LinkedBlockingQueue<>();
+    private Path file;
+    private ActiveTaxRules activeTaxRules;
+    private TaxRulesWatcher watcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.writeString(directory.resolve("tax-rules.json"), document("1", ruleSet("2025-01-01", 117)));
+        activeTaxRules = new ActiveTaxRules(TaxRulesLoader.load(file));
+        watcher = new TaxRulesWatcher(file, activeTaxRules,
+                event -> auditEvents.add(((AuditApplicationEvent) event).getAuditEvent()));
+        watcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        watcher.stop();
+    }
+
+    @Test
+    void withoutPath_watchesNothing() throws Exception {
+        TaxRulesWatcher unconfigured = new TaxRulesWatcher(null, activeTaxRules, event -> auditEvents.add(null));
+        unconfigured.start();
+        unconfigured.stop();
+
+        assertThat(Thread.getAllStackTraces().keySet())
+                .filteredOn(thread -> thread.getName().equals("tax-rules-watcher"))
+                .hasSize(1);
+    }
+
+    @Test
+    void swapsInChangedFile() throws Exception {
+        Files.writeString(file, document("2", ruleSet("2025-01-01", 117) + "," + ruleSet("2026-07-01", 120)));
+
+        AuditEvent event = nextAuditEvent();
+
+        assertThat(event.getType()).isEqualTo(TaxRulesWatcher.RELOADED);
+        assertThat(event.getData()).containsEntry("version", "2").containsEntry("previousVersion", "1");
+        assertThat(activeTaxRules.get().version()).isEqualTo("2");
+        assertThat(activeTaxRules.get().effectiveDates()).hasSize(2);
+    }
+
+    @Test
+    void picksUpAtomicReplace() throws Exception {
+        Path staged = Files.writeString(directory.resolve("staged.tmp"), document("3", ruleSet("2025-01-01", 117)));
+        Files.move(staged, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        assertThat(nextAuditEvent().getType()).isEqualTo(TaxRulesWatcher.RELOADED);
+        assertThat(activeTaxRules.get().version()).isEqualTo("3");
+    }
+
+    @Test
+    void keepsActiveRulesWhenChangedFileIsInvalid() throws Exception {
+        TaxRuleSets active = activeTaxRules.get();
+
+        Files.writeString(file, document("2", ruleSet("2025-01-01", 0)));
+
+        AuditEvent event = nextAuditEvent();
+        assertThat(event.getType()).isEqualTo(TaxRulesWatcher.RELOAD_FAILED);
+        assertThat(event.getData()).containsEntry("version", "1").containsKey("error");
+        assertThat(activeTaxRules.get()).isSameAs(active);
+    }
+
+    @Test
+    void ignoresOtherFilesInTheDirectory() throws Exception {
+        Files.writeString(directory.resolve("notes.txt"), "not a rule file");
+
+        assertThat(auditEvents.poll(500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private AuditEvent nextAuditEvent() throws InterruptedException {
+        AuditEvent event = auditEvents.poll(10, TimeUnit.SECONDS);
+        assertThat(event).as("audit event").isNotNull();
+        return event;
+    }
+}